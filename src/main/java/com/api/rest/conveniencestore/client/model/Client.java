@@ -23,7 +23,8 @@ public class Client {
     @Column(unique = true)
     private String cpf;
 
-    @Column(name = "points_balance", nullable = false)
+    // alterado só por UPDATE atômico no ClientRepository; salvar o cliente não sobrescreve o saldo
+    @Column(name = "points_balance", nullable = false, updatable = false)
     private int pointsBalance = 0;
 
     public Client(ClientDto data) {
@@ -2,6 +2,9 @@ package com.api.rest.conveniencestore.client.repository;
 
 import com.api.rest.conveniencestore.client.model.Client;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -12,4 +15,16 @@ public interface ClientRepository extends JpaRepository<Client, Long> {
     boolean existsByName(String name);
 
     Optional<Client> findByCpf(String cpf);
-}
\ No newline at end of file
+
+    @Query("SELECT c.pointsBalance FROM Client c WHERE c.id = :id")
+    int findPointsBalance(@Param("id") Long id);
+
+    // o saldo só muda por aqui: a condição vale sobre o valor confirmado, não sobre o lido antes
+    @Modifying
+    @Query("UPDATE Client c SET c.pointsBalance = c.pointsBalance - :points WHERE c.id = :id AND c.pointsBalance >= :points")
+    int deductPointsIfAvailable(@Param("id") Long id, @Param("points") int points);
+
+    @Modifying
+    @Query("UPDATE Client c SET c.pointsBalance = c.pointsBalance + :points WHERE c.id = :id")
+    int addPoints(@Param("id") Long id, @Param("points") int points);
+}
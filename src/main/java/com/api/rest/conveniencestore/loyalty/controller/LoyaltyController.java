@@ -1,10 +1,13 @@
 package com.api.rest.conveniencestore.loyalty.controller;
 
+import com.api.rest.conveniencestore.loyalty.dto.LoyaltyExpiringPointsDto;
+import com.api.rest.conveniencestore.loyalty.dto.LoyaltyReconciliationItemDto;
 import com.api.rest.conveniencestore.loyalty.dto.LoyaltySimulateDto;
 import com.api.rest.conveniencestore.loyalty.dto.LoyaltySimulateResponseDto;
 import com.api.rest.conveniencestore.loyalty.dto.LoyaltyTransactionDto;
 import com.api.rest.conveniencestore.client.model.Client;
 import com.api.rest.conveniencestore.client.service.ClientService;
+import com.api.rest.conveniencestore.loyalty.service.LoyaltyReconciliationJob;
 import com.api.rest.conveniencestore.loyalty.service.LoyaltyService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,6 +26,9 @@ public class LoyaltyController {
     @Autowired
     private ClientService clientService;
 
+    @Autowired
+    private LoyaltyReconciliationJob reconciliationJob;
+
     @PostMapping("/simulate")
     public ResponseEntity<LoyaltySimulateResponseDto> simulate(@Valid @RequestBody LoyaltySimulateDto dto) {
         Client client = clientService.findById(dto.clientId());
@@ -34,4 +40,16 @@ public class LoyaltyController {
     public ResponseEntity<Page<LoyaltyTransactionDto>> getTransactions(@PathVariable Long id, Pageable pageable) {
         return ResponseEntity.ok(loyaltyService.getTransactions(id, pageable));
     }
+
+    @GetMapping("/clients/{id}/expiring")
+    public ResponseEntity<LoyaltyExpiringPointsDto> getExpiringPoints(@PathVariable Long id,
+                                                                      @RequestParam(defaultValue = "30") int days) {
+        clientService.findById(id);
+        return ResponseEntity.ok(loyaltyService.getExpiringPoints(id, days));
+    }
+
+    @GetMapping("/reconciliation")
+    public ResponseEntity<Page<LoyaltyReconciliationItemDto>> getReconciliation(Pageable pageable) {
+        return ResponseEntity.ok(reconciliationJob.items(pageable));
+    }
 }
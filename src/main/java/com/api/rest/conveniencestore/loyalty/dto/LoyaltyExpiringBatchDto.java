@@ -0,0 +1,11 @@
+package com.api.rest.conveniencestore.loyalty.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+public record LoyaltyExpiringBatchDto(
+        @JsonFormat(pattern = "dd/MM/yyyy HH:mm:ss") LocalDateTime expirationDate,
+        int points
+) {
+}
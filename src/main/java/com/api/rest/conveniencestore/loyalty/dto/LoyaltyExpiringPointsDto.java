@@ -0,0 +1,11 @@
+package com.api.rest.conveniencestore.loyalty.dto;
+
+import java.util.List;
+
+public record LoyaltyExpiringPointsDto(
+        Long clientId,
+        int days,
+        long totalPoints,
+        List<LoyaltyExpiringBatchDto> batches
+) {
+}
@@ -0,0 +1,15 @@
+package com.api.rest.conveniencestore.loyalty.dto;
+
+import java.time.LocalDateTime;
+
+public record LoyaltyReconciliationItemDto(
+        Long clientId,
+        String name,
+        long ledgerPoints,
+        int balancePoints,
+        int batchPoints,
+        boolean balanceMismatch,
+        boolean batchesMismatch,
+        boolean repaired,
+        LocalDateTime checkedAt) {
+}
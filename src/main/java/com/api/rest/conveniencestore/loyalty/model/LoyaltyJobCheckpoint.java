@@ -0,0 +1,52 @@
+package com.api.rest.conveniencestore.loyalty.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// running = true com last_id > 0 significa execução interrompida no meio
+@Entity
+@Table(name = "loyalty_job_checkpoints")
+@Getter
+@NoArgsConstructor
+public class LoyaltyJobCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 50)
+    private String jobName;
+
+    @Column(nullable = false)
+    private boolean running;
+
+    @Column(nullable = false)
+    private LocalDateTime cutoff;
+
+    @Column(name = "last_id", nullable = false)
+    private long lastId;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public LoyaltyJobCheckpoint(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public void start(LocalDateTime cutoff) {
+        this.running = true;
+        this.cutoff = cutoff;
+        this.lastId = 0;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void advance(long lastId) {
+        this.lastId = lastId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public void finish() {
+        this.running = false;
+        this.updatedAt = LocalDateTime.now();
+    }
+}
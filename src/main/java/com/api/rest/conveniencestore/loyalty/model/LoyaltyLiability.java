@@ -0,0 +1,30 @@
+package com.api.rest.conveniencestore.loyalty.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// escrita só por upsert incremental (LoyaltyLiabilityLedger); a entidade existe para o esquema
+@Entity
+@Table(name = "loyalty_liability")
+@IdClass(LoyaltyLiability.Key.class)
+@Getter
+@NoArgsConstructor
+public class LoyaltyLiability {
+
+    @Id
+    @Column(name = "expiry_week")
+    private LocalDate expiryWeek;
+
+    @Id
+    private int slot;
+
+    @Column(nullable = false)
+    private long points;
+
+    public record Key(LocalDate expiryWeek, int slot) implements Serializable {
+    }
+}
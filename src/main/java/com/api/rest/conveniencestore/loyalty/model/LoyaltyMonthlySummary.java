@@ -0,0 +1,40 @@
+package com.api.rest.conveniencestore.loyalty.model;
+
+import com.api.rest.conveniencestore.shared.enums.TransactionType;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+// gravada pelo LoyaltyMonthlyRollupJob em JDBC; a entidade existe para o esquema e para leitura
+@Entity
+@Table(name = "loyalty_monthly_summary")
+@IdClass(LoyaltyMonthlySummary.Key.class)
+@Getter
+@NoArgsConstructor
+public class LoyaltyMonthlySummary {
+
+    @Id
+    @Column(name = "month_start")
+    private LocalDate monthStart;
+
+    @Id
+    @Column(name = "client_id")
+    private Long clientId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private TransactionType type;
+
+    @Column(nullable = false)
+    private long points;
+
+    @Column(nullable = false)
+    private int transactions;
+
+    public record Key(LocalDate monthStart, Long clientId, TransactionType type) implements Serializable {
+    }
+}
@@ -1,13 +1,15 @@
 package com.api.rest.conveniencestore.loyalty.model;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "loyalty_points")
+@Table(name = "loyalty_points", uniqueConstraints = @UniqueConstraint(columnNames = {"client_id", "earn_date"}))
 @Getter
 @NoArgsConstructor
 public class LoyaltyPoint {
@@ -31,19 +33,25 @@ public class LoyaltyPoint {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
 
+    @Column(name = "earn_date", nullable = false)
+    private LocalDate earnDate;
+
+    // calculada pelo banco (V31) só para o índice do resgate; não é lida pela aplicação
+    @Getter(AccessLevel.NONE)
+    @Column(name = "is_open", insertable = false, updatable = false,
+            columnDefinition = "TINYINT GENERATED ALWAYS AS (CASE WHEN remaining_points > 0 THEN 1 ELSE 0 END)")
+    private Integer open;
+
     public LoyaltyPoint(Long clientId, int points) {
         this.clientId = clientId;
         this.points = points;
         this.remainingPoints = points;
         this.createdAt = LocalDateTime.now();
+        this.earnDate = this.createdAt.toLocalDate();
         this.expirationDate = this.createdAt.plusDays(90);
     }
 
     public void deductPoints(int amount) {
         this.remainingPoints -= amount;
     }
-
-    public void expirePoints() {
-        this.remainingPoints = 0;
-    }
 }
@@ -0,0 +1,40 @@
+package com.api.rest.conveniencestore.loyalty.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// gravada pelo LoyaltyReconciliationJob em JDBC; a entidade existe para leitura
+@Entity
+@Table(name = "loyalty_reconciliation_items")
+@Getter
+@NoArgsConstructor
+public class LoyaltyReconciliationItem {
+
+    @Id
+    @Column(name = "client_id")
+    private Long clientId;
+
+    @Column(name = "ledger_points", nullable = false)
+    private long ledgerPoints;
+
+    @Column(name = "balance_points", nullable = false)
+    private int balancePoints;
+
+    @Column(name = "batch_points", nullable = false)
+    private int batchPoints;
+
+    @Column(name = "balance_mismatch", nullable = false)
+    private boolean balanceMismatch;
+
+    @Column(name = "batches_mismatch", nullable = false)
+    private boolean batchesMismatch;
+
+    @Column(nullable = false)
+    private boolean repaired;
+
+    @Column(name = "checked_at", nullable = false)
+    private LocalDateTime checkedAt;
+}
@@ -0,0 +1,9 @@
+package com.api.rest.conveniencestore.loyalty.projection;
+
+import java.time.LocalDateTime;
+
+public interface LoyaltyBatchProjection {
+    Long getId();
+    int getRemainingPoints();
+    LocalDateTime getExpirationDate();
+}
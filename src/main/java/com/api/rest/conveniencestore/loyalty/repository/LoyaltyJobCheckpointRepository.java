@@ -0,0 +1,7 @@
+package com.api.rest.conveniencestore.loyalty.repository;
+
+import com.api.rest.conveniencestore.loyalty.model.LoyaltyJobCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface LoyaltyJobCheckpointRepository extends JpaRepository<LoyaltyJobCheckpoint, String> {
+}
@@ -1,14 +1,57 @@
 package com.api.rest.conveniencestore.loyalty.repository;
 
+import com.api.rest.conveniencestore.loyalty.dto.LoyaltyExpiringBatchDto;
 import com.api.rest.conveniencestore.loyalty.model.LoyaltyPoint;
+import com.api.rest.conveniencestore.loyalty.projection.LoyaltyBatchProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface LoyaltyPointRepository extends JpaRepository<LoyaltyPoint, Long> {
 
-    List<LoyaltyPoint> findByClientIdAndRemainingPointsGreaterThanOrderByCreatedAtAsc(Long clientId, int remainingPoints);
+    // is_open (remaining_points > 0) é igualdade no índice (client_id, is_open, created_at, id): a leitura
+    // segue a ordem do índice e trava só as linhas do LIMIT
+    // FIFO sem esperar: lotes travados por outra transação (ex.: expiração) ficam de fora
+    @Query(value = """
+            SELECT id, remaining_points AS remainingPoints, expiration_date AS expirationDate FROM loyalty_points
+            WHERE client_id = :clientId AND is_open = 1
+            ORDER BY created_at, id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<LoyaltyBatchProjection> lockOpenBatchesSkipLocked(@Param("clientId") Long clientId, @Param("limit") int limit);
 
-    List<LoyaltyPoint> findByExpirationDateBeforeAndRemainingPointsGreaterThan(LocalDateTime date, int remainingPoints);
+    @Query(value = """
+            SELECT id, remaining_points AS remainingPoints, expiration_date AS expirationDate FROM loyalty_points
+            WHERE client_id = :clientId AND is_open = 1
+            ORDER BY created_at, id
+            LIMIT :limit
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<LoyaltyBatchProjection> lockOpenBatches(@Param("clientId") Long clientId, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT id, remaining_points AS remainingPoints, expiration_date AS expirationDate FROM loyalty_points
+            WHERE client_id = :clientId AND earn_date = :earnDate
+            FOR UPDATE
+            """, nativeQuery = true)
+    Optional<LoyaltyBatchProjection> lockBatchOfDay(@Param("clientId") Long clientId, @Param("earnDate") LocalDate earnDate);
+
+    @Query("""
+            SELECT new com.api.rest.conveniencestore.loyalty.dto.LoyaltyExpiringBatchDto(p.expirationDate, p.remainingPoints)
+            FROM LoyaltyPoint p
+            WHERE p.clientId = :clientId
+              AND p.remainingPoints > 0
+              AND p.expirationDate >= :from
+              AND p.expirationDate < :until
+            ORDER BY p.expirationDate
+            """)
+    List<LoyaltyExpiringBatchDto> findExpiring(@Param("clientId") Long clientId,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("until") LocalDateTime until);
 }
@@ -0,0 +1,22 @@
+package com.api.rest.conveniencestore.loyalty.repository;
+
+import com.api.rest.conveniencestore.loyalty.dto.LoyaltyReconciliationItemDto;
+import com.api.rest.conveniencestore.loyalty.model.LoyaltyReconciliationItem;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+public interface LoyaltyReconciliationItemRepository extends JpaRepository<LoyaltyReconciliationItem, Long> {
+
+    @Query(value = """
+            SELECT new com.api.rest.conveniencestore.loyalty.dto.LoyaltyReconciliationItemDto(
+                r.clientId, c.name, r.ledgerPoints, r.balancePoints, r.batchPoints,
+                r.balanceMismatch, r.batchesMismatch, r.repaired, r.checkedAt)
+            FROM LoyaltyReconciliationItem r, Client c
+            WHERE c.id = r.clientId
+            ORDER BY r.clientId
+            """,
+            countQuery = "SELECT COUNT(r) FROM LoyaltyReconciliationItem r")
+    Page<LoyaltyReconciliationItemDto> findItems(Pageable pageable);
+}
@@ -0,0 +1,236 @@
+package com.api.rest.conveniencestore.loyalty.service;
+
+import com.api.rest.conveniencestore.loyalty.model.LoyaltyJobCheckpoint;
+import com.api.rest.conveniencestore.loyalty.repository.LoyaltyJobCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Expiração de pontos em blocos. Cada bloco é lido por id a partir do checkpoint e dividido
+ * por client_id entre threads; cada parte roda na sua transação, com um UPDATE de saldo por
+ * cliente e os EXPIRE inseridos em lote. Só depois de todas as partes confirmarem o checkpoint
+ * avança, e como um lote expirado sai do filtro (remaining_points > 0) refazer um bloco é seguro.
+ */
+@Component
+public class LoyaltyExpiryJob {
+
+    private static final Logger log = LoggerFactory.getLogger(LoyaltyExpiryJob.class);
+
+    static final String JOB_NAME = "loyalty-expiry";
+
+    private static final String SELECT_SQL = """
+            SELECT id, client_id, remaining_points, expiration_date FROM loyalty_points
+            WHERE id > ?
+              AND expiration_date < ?
+              AND remaining_points > 0
+            ORDER BY id
+            LIMIT ?
+            """;
+    private static final String SELECT_DUE_SQL = """
+            SELECT id, client_id, remaining_points, expiration_date FROM loyalty_points
+            WHERE id IN (%s)
+              AND expiration_date <= ?
+              AND remaining_points > 0
+            ORDER BY id
+            """;
+    // mesma ordem do resgate (cliente, depois lotes): os dois caminhos não se travam mutuamente
+    private static final String LOCK_CLIENTS_SQL = "SELECT id FROM clients WHERE id IN (%s) ORDER BY id FOR UPDATE";
+    private static final String EXPIRE_BATCH_SQL = "UPDATE loyalty_points SET remaining_points = 0 WHERE id = ? AND remaining_points = ?";
+    private static final String DEDUCT_BALANCE_SQL = "UPDATE clients SET points_balance = points_balance - ? WHERE id = ?";
+    private static final String INSERT_TRANSACTION_SQL = """
+            INSERT INTO loyalty_transactions (client_id, points, type, reference_id, created_at)
+            VALUES (?, ?, 'EXPIRE', NULL, ?)
+            """;
+
+    private static final RowMapper<ExpiredBatch> BATCH_MAPPER = (rs, rowNum) ->
+            new ExpiredBatch(rs.getLong("id"), rs.getLong("client_id"), rs.getInt("remaining_points"),
+                    rs.getTimestamp("expiration_date").toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LoyaltyJobCheckpointRepository checkpointRepository;
+    private final LoyaltyLiabilityLedger liabilityLedger;
+    private final int chunkSize;
+    private final int parallelism;
+    private final Timer duration;
+    private final Counter expiredBatches;
+    private final Counter expiredPoints;
+
+    public LoyaltyExpiryJob(JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            LoyaltyJobCheckpointRepository checkpointRepository,
+                            LoyaltyLiabilityLedger liabilityLedger,
+                            MeterRegistry meterRegistry,
+                            @Value("${loyalty.expiry.chunk-size:1000}") int chunkSize,
+                            @Value("${loyalty.expiry.parallelism:4}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.checkpointRepository = checkpointRepository;
+        this.liabilityLedger = liabilityLedger;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.duration = Timer.builder("loyalty.expiry.duration").register(meterRegistry);
+        this.expiredBatches = Counter.builder("loyalty.expiry.batches").register(meterRegistry);
+        this.expiredPoints = Counter.builder("loyalty.expiry.points").register(meterRegistry);
+    }
+
+    // retoma uma execução interrompida por queda da aplicação
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        if (checkpointRepository.findById(JOB_NAME).map(LoyaltyJobCheckpoint::isRunning).orElse(false)) {
+            run();
+        }
+    }
+
+    @Scheduled(cron = "${loyalty.expiry.cron:0 0 2 * * *}")
+    public synchronized int run() {
+        return duration.record(this::expire);
+    }
+
+    private int expire() {
+        LoyaltyJobCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                .orElseGet(() -> new LoyaltyJobCheckpoint(JOB_NAME));
+        if (checkpoint.isRunning()) {
+            log.info("Retomando expiração de pontos a partir do lote {}", checkpoint.getLastId());
+        } else {
+            checkpoint.start(LocalDateTime.now());
+            checkpointRepository.save(checkpoint);
+        }
+
+        int total = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            while (true) {
+                List<ExpiredBatch> chunk = jdbcTemplate.query(SELECT_SQL, BATCH_MAPPER,
+                        checkpoint.getLastId(), Timestamp.valueOf(checkpoint.getCutoff()), chunkSize);
+                if (chunk.isEmpty()) break;
+
+                total += expireChunk(chunk, executor);
+                checkpoint.advance(chunk.get(chunk.size() - 1).id());
+                checkpointRepository.save(checkpoint);
+                if (chunk.size() < chunkSize) break;
+            }
+        } finally {
+            executor.shutdown();
+        }
+        checkpoint.finish();
+        checkpointRepository.save(checkpoint);
+        if (total > 0) {
+            log.info("{} lotes de pontos expirados", total);
+        }
+        return total;
+    }
+
+    /**
+     * Expira, numa transação, os lotes indicados que ainda estão abertos e já venceram em now.
+     * Usado pelo modo contínuo; um lote consumido ou com validade estendida é ignorado.
+     */
+    int expireDue(List<Long> ids, LocalDateTime now) {
+        if (ids.isEmpty()) return 0;
+        List<ExpiredBatch> batches = jdbcTemplate.query(
+                String.format(SELECT_DUE_SQL, String.join(",", Collections.nCopies(ids.size(), "?"))),
+                BATCH_MAPPER, Stream.concat(ids.stream(), Stream.of(Timestamp.valueOf(now))).toArray());
+        if (batches.isEmpty()) return 0;
+        return transactionTemplate.execute(status -> expirePartition(batches));
+    }
+
+    private int expireChunk(List<ExpiredBatch> chunk, ExecutorService executor) {
+        List<List<ExpiredBatch>> partitions = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            partitions.add(new ArrayList<>());
+        }
+        for (ExpiredBatch batch : chunk) {
+            partitions.get((int) Math.floorMod(batch.clientId(), (long) parallelism)).add(batch);
+        }
+
+        List<Future<Integer>> results = new ArrayList<>(parallelism);
+        for (List<ExpiredBatch> partition : partitions) {
+            if (!partition.isEmpty()) {
+                results.add(executor.submit(() -> transactionTemplate.execute(status -> expirePartition(partition))));
+            }
+        }
+        int expired = 0;
+        try {
+            for (Future<Integer> result : results) {
+                expired += result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Expiração de pontos interrompida", e);
+        } catch (ExecutionException e) {
+            // o checkpoint não avança: a próxima execução refaz o bloco
+            throw new IllegalStateException("Falha ao expirar bloco de pontos", e.getCause());
+        }
+        return expired;
+    }
+
+    private int expirePartition(List<ExpiredBatch> batches) {
+        List<Long> clientIds = batches.stream().map(ExpiredBatch::clientId).distinct().sorted().toList();
+        jdbcTemplate.query(String.format(LOCK_CLIENTS_SQL, String.join(",", Collections.nCopies(clientIds.size(), "?"))),
+                (rs, rowNum) -> rs.getLong(1), clientIds.toArray());
+
+        // um resgate que consumiu o lote depois da leitura tem prioridade: ele sai na próxima execução
+        int[][] counts = jdbcTemplate.batchUpdate(EXPIRE_BATCH_SQL, batches, batches.size(), (ps, batch) -> {
+            ps.setLong(1, batch.id());
+            ps.setInt(2, batch.remainingPoints());
+        });
+        List<ExpiredBatch> expired = new ArrayList<>(batches.size());
+        Map<Long, Integer> pointsByClient = new TreeMap<>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                ExpiredBatch row = batches.get(index++);
+                if (count > 0) {
+                    expired.add(row);
+                    pointsByClient.merge(row.clientId(), row.remainingPoints(), Integer::sum);
+                }
+            }
+        }
+        if (expired.isEmpty()) return 0;
+
+        jdbcTemplate.batchUpdate(DEDUCT_BALANCE_SQL, new ArrayList<>(pointsByClient.entrySet()), pointsByClient.size(), (ps, entry) -> {
+            ps.setInt(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+        });
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_TRANSACTION_SQL, expired, expired.size(), (ps, row) -> {
+            ps.setLong(1, row.clientId());
+            ps.setInt(2, -row.remainingPoints());
+            ps.setTimestamp(3, now);
+        });
+        liabilityLedger.apply(expired.stream()
+                .map(row -> new LoyaltyLiabilityLedger.Change(row.clientId(), row.expirationDate(), -row.remainingPoints()))
+                .toList());
+
+        expiredBatches.increment(expired.size());
+        expiredPoints.increment(pointsByClient.values().stream().mapToInt(Integer::intValue).sum());
+        return expired.size();
+    }
+
+    record ExpiredBatch(long id, long clientId, int remainingPoints, LocalDateTime expirationDate) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.api.rest.conveniencestore.loyalty.service;
+
+import com.api.rest.conveniencestore.shared.utils.TimingWheel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Expiração contínua (loyalty.expiry.mode=continuous). Os lotes abertos que vencem nas próximas
+ * 48h ficam numa roda de tempo em memória; a cada tick os vencidos do minuto são expirados em
+ * blocos pequenos e a janela que entrou no horizonte é lida do banco. O job noturno continua
+ * rodando como varredura de segurança e encontra pouco ou nada.
+ */
+@Component
+@ConditionalOnProperty(name = "loyalty.expiry.mode", havingValue = "continuous")
+public class LoyaltyExpiryWheel {
+
+    private static final Logger log = LoggerFactory.getLogger(LoyaltyExpiryWheel.class);
+
+    private static final long TICK_MILLIS = 60_000L;
+    // 60 minutos x 48 horas
+    private static final int[] WHEEL_SIZES = {60, 48};
+
+    private static final String LOAD_SQL = """
+            SELECT id, expiration_date FROM loyalty_points
+            WHERE remaining_points > 0
+              AND expiration_date >= ?
+              AND expiration_date < ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoyaltyExpiryJob expiryJob;
+    private final int chunkSize;
+    private TimingWheel wheel;
+    private long loadedUntil;
+
+    public LoyaltyExpiryWheel(JdbcTemplate jdbcTemplate,
+                              LoyaltyExpiryJob expiryJob,
+                              MeterRegistry meterRegistry,
+                              @Value("${loyalty.expiry.chunk-size:1000}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.expiryJob = expiryJob;
+        this.chunkSize = chunkSize;
+        Gauge.builder("loyalty.expiry.wheel.size", this, LoyaltyExpiryWheel::size).register(meterRegistry);
+    }
+
+    // a primeira carga não tem limite inferior: o que venceu com a aplicação parada sai no primeiro tick
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        wheel = new TimingWheel(TICK_MILLIS, WHEEL_SIZES, Timestamp.valueOf(LocalDateTime.now()).getTime());
+        loadedUntil = 0;
+        refill();
+        log.info("Roda de expiração carregada com {} lotes", wheel.size());
+    }
+
+    @Scheduled(fixedDelayString = "${loyalty.expiry.wheel-tick-ms:60000}")
+    public synchronized int tick() {
+        if (wheel == null) return 0;
+        LocalDateTime now = LocalDateTime.now();
+        long nowMillis = Timestamp.valueOf(now).getTime();
+        List<Long> due = new ArrayList<>();
+        wheel.advance(nowMillis, due::add);
+        refill();
+
+        int expired = 0;
+        for (int from = 0; from < due.size(); from += chunkSize) {
+            List<Long> chunk = due.subList(from, Math.min(from + chunkSize, due.size()));
+            try {
+                expired += expiryJob.expireDue(chunk, now);
+            } catch (RuntimeException e) {
+                // volta para a roda como vencido (início do tick atual): o próximo tick tenta de novo
+                log.warn("Falha ao expirar {} lotes, nova tentativa no próximo tick", due.size() - from, e);
+                long tickStart = nowMillis - Math.floorMod(nowMillis, TICK_MILLIS);
+                for (long id : due.subList(from, due.size())) {
+                    wheel.add(id, tickStart);
+                }
+                break;
+            }
+        }
+        return expired;
+    }
+
+    private void refill() {
+        long horizon = wheel.horizonMillis();
+        if (horizon <= loadedUntil) return;
+        jdbcTemplate.query(LOAD_SQL, (RowCallbackHandler) rs -> wheel.add(rs.getLong("id"), rs.getTimestamp("expiration_date").getTime()),
+                new Timestamp(loadedUntil), new Timestamp(horizon));
+        loadedUntil = horizon;
+    }
+
+    // leitura sem trava: a métrica não espera um tick em andamento
+    private int size() {
+        return wheel == null ? 0 : wheel.size();
+    }
+}
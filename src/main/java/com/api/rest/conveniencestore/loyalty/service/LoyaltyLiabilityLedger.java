@@ -0,0 +1,70 @@
+package com.api.rest.conveniencestore.loyalty.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Passivo de pontos por semana de vencimento, mantido por deltas na mesma transação de quem
+ * mexe nos lotes (acúmulo, resgate, expiração e cancelamento). As linhas são gravadas em ordem
+ * de (semana, faixa), então duas transações nunca as travam em sequências opostas.
+ */
+@Component
+public class LoyaltyLiabilityLedger {
+
+    static final int SLOTS = 16;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO loyalty_liability (expiry_week, slot, points)
+            VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE points = points + VALUES(points)
+            """;
+    private static final Comparator<Key> KEY_ORDER = Comparator.comparing(Key::expiryWeek).thenComparingInt(Key::slot);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LoyaltyLiabilityLedger(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public static LocalDate weekOf(LocalDateTime expirationDate) {
+        return expirationDate.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    public void apply(Long clientId, LocalDateTime expirationDate, int points) {
+        apply(List.of(new Change(clientId, expirationDate, points)));
+    }
+
+    public void apply(Collection<Change> changes) {
+        Map<Key, Long> deltas = new TreeMap<>(KEY_ORDER);
+        for (Change change : changes) {
+            if (change.points() == 0) continue;
+            Key key = new Key(weekOf(change.expirationDate()), (int) Math.floorMod(change.clientId(), (long) SLOTS));
+            deltas.merge(key, (long) change.points(), Long::sum);
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) return;
+        jdbcTemplate.batchUpdate(UPSERT_SQL, new ArrayList<>(deltas.entrySet()), deltas.size(), (ps, entry) -> {
+            ps.setDate(1, Date.valueOf(entry.getKey().expiryWeek()));
+            ps.setInt(2, entry.getKey().slot());
+            ps.setLong(3, entry.getValue());
+        });
+    }
+
+    public record Change(Long clientId, LocalDateTime expirationDate, int points) {
+    }
+
+    private record Key(LocalDate expiryWeek, int slot) {
+    }
+}
@@ -0,0 +1,115 @@
+package com.api.rest.conveniencestore.loyalty.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Manutenção mensal de loyalty_transactions. Cada mês fechado ainda sem rollup vira linhas em
+ * loyalty_monthly_summary (cliente e tipo), numa transação por mês; como created_at é sempre o
+ * instante da gravação, um mês fechado não muda mais. O relatório lê os rollups até o último mês
+ * consolidado e só as partições seguintes. O job também mantém partições mensais criadas à frente,
+ * separando-as de p_future enquanto ela ainda está vazia. Partições antigas não são removidas
+ * aqui: o extrato e a conciliação ainda leem as transações.
+ */
+@Component
+public class LoyaltyMonthlyRollupJob {
+
+    private static final Logger log = LoggerFactory.getLogger(LoyaltyMonthlyRollupJob.class);
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("uuuuMM");
+
+    private static final String LAST_ROLLED_SQL = "SELECT MAX(month_start) FROM loyalty_monthly_summary";
+    private static final String FIRST_TRANSACTION_SQL = "SELECT MIN(created_at) FROM loyalty_transactions";
+    private static final String ROLLUP_SQL = """
+            INSERT INTO loyalty_monthly_summary (month_start, client_id, type, points, transactions)
+            SELECT ?, client_id, type, SUM(points), COUNT(*)
+            FROM loyalty_transactions
+            WHERE created_at >= ?
+              AND created_at < ?
+            GROUP BY client_id, type
+            """;
+    private static final String PARTITIONS_SQL = """
+            SELECT PARTITION_NAME FROM information_schema.PARTITIONS
+            WHERE TABLE_SCHEMA = DATABASE()
+              AND TABLE_NAME = 'loyalty_transactions'
+              AND PARTITION_NAME LIKE 'p______'
+            """;
+    private static final String SPLIT_FUTURE_SQL = """
+            ALTER TABLE loyalty_transactions REORGANIZE PARTITION p_future INTO (
+                PARTITION p%s VALUES LESS THAN ('%s'),
+                PARTITION p_future VALUES LESS THAN (MAXVALUE))
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int monthsAhead;
+
+    public LoyaltyMonthlyRollupJob(JdbcTemplate jdbcTemplate,
+                                   TransactionTemplate transactionTemplate,
+                                   @Value("${loyalty.rollup.months-ahead:2}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.monthsAhead = monthsAhead;
+    }
+
+    // diário: um mês que falhou é refeito na execução seguinte, e sem mês novo o custo é uma consulta
+    @Scheduled(cron = "${loyalty.rollup.cron:0 30 3 * * *}")
+    public synchronized int run() {
+        YearMonth current = YearMonth.now();
+        createPartitions(current);
+        return rollup(current);
+    }
+
+    private int rollup(YearMonth current) {
+        YearMonth month = nextMonthToRoll();
+        int rolled = 0;
+        while (month != null && month.isBefore(current)) {
+            YearMonth target = month;
+            int rows = transactionTemplate.execute(status -> jdbcTemplate.update(ROLLUP_SQL,
+                    Date.valueOf(target.atDay(1)),
+                    Timestamp.valueOf(target.atDay(1).atStartOfDay()),
+                    Timestamp.valueOf(target.plusMonths(1).atDay(1).atStartOfDay())));
+            log.info("Rollup de pontos de {}: {} linhas", target, rows);
+            month = month.plusMonths(1);
+            rolled++;
+        }
+        return rolled;
+    }
+
+    private YearMonth nextMonthToRoll() {
+        LocalDate lastRolled = jdbcTemplate.queryForObject(LAST_ROLLED_SQL, LocalDate.class);
+        if (lastRolled != null) {
+            return YearMonth.from(lastRolled).plusMonths(1);
+        }
+        Timestamp first = jdbcTemplate.queryForObject(FIRST_TRANSACTION_SQL, Timestamp.class);
+        return first == null ? null : YearMonth.from(first.toLocalDateTime());
+    }
+
+    // sem partições (banco de testes, tabela não particionada) não há o que manter
+    private void createPartitions(YearMonth current) {
+        List<String> names = jdbcTemplate.queryForList(PARTITIONS_SQL, String.class);
+        if (names.isEmpty()) return;
+        YearMonth last = names.stream()
+                .map(name -> YearMonth.parse(name.substring(1), PARTITION_SUFFIX))
+                .max(YearMonth::compareTo)
+                .orElseThrow();
+        YearMonth until = current.plusMonths(monthsAhead);
+        while (last.isBefore(until)) {
+            last = last.plusMonths(1);
+            jdbcTemplate.execute(String.format(SPLIT_FUTURE_SQL, last.format(PARTITION_SUFFIX), last.plusMonths(1).atDay(1)));
+            log.info("Partição p{} criada em loyalty_transactions", last.format(PARTITION_SUFFIX));
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.api.rest.conveniencestore.loyalty.service;
+
+import com.api.rest.conveniencestore.loyalty.dto.LoyaltyReconciliationItemDto;
+import com.api.rest.conveniencestore.loyalty.repository.LoyaltyReconciliationItemRepository;
+import com.api.rest.conveniencestore.shared.utils.LongIntHashMap;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Conciliação do razão de pontos. A soma de loyalty_transactions por cliente é lida num cursor
+ * forward-only ordenado por client_id; a cada taskSize clientes a faixa de ids fechada vai para
+ * um ForkJoinPool, que compara com clients.points_balance e com a soma dos lotes abertos da
+ * mesma faixa enquanto o cursor segue lendo. As faixas cobrem todos os ids, então um cliente
+ * com saldo e sem transações também aparece. O resultado substitui loyalty_reconciliation_items.
+ */
+@Component
+public class LoyaltyReconciliationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(LoyaltyReconciliationJob.class);
+
+    // Connector/J: com Integer.MIN_VALUE o resultado chega linha a linha em vez de inteiro na memória
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private static final String LEDGER_SQL = """
+            SELECT client_id, SUM(points) AS ledger_points
+            FROM loyalty_transactions
+            GROUP BY client_id
+            ORDER BY client_id
+            """;
+    private static final String BALANCES_SQL = "SELECT id, points_balance FROM clients WHERE id > ? AND id <= ? ORDER BY id";
+    private static final String BATCHES_SQL = """
+            SELECT client_id, SUM(remaining_points) AS batch_points
+            FROM loyalty_points
+            WHERE client_id > ? AND client_id <= ?
+            GROUP BY client_id
+            """;
+    private static final String LOCK_CLIENT_SQL = "SELECT points_balance FROM clients WHERE id = ? FOR UPDATE";
+    private static final String CLIENT_LEDGER_SQL = "SELECT COALESCE(SUM(points), 0) FROM loyalty_transactions WHERE client_id = ?";
+    private static final String REPAIR_SQL = "UPDATE clients SET points_balance = ? WHERE id = ?";
+    private static final String DELETE_SQL = "DELETE FROM loyalty_reconciliation_items";
+    private static final String INSERT_SQL = """
+            INSERT INTO loyalty_reconciliation_items (client_id, ledger_points, balance_points, batch_points,
+                balance_mismatch, batches_mismatch, repaired, checked_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LoyaltyReconciliationItemRepository itemRepository;
+    private final int parallelism;
+    private final int taskSize;
+    private final boolean autoRepair;
+    private final Timer duration;
+    private final Counter discrepancies;
+    private final Counter repaired;
+
+    public LoyaltyReconciliationJob(JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    LoyaltyReconciliationItemRepository itemRepository,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${loyalty.reconciliation.parallelism:2}") int parallelism,
+                                    @Value("${loyalty.reconciliation.task-size:5000}") int taskSize,
+                                    @Value("${loyalty.reconciliation.auto-repair:false}") boolean autoRepair) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.itemRepository = itemRepository;
+        this.parallelism = parallelism;
+        this.taskSize = taskSize;
+        this.autoRepair = autoRepair;
+        this.duration = Timer.builder("loyalty.reconciliation.duration").register(meterRegistry);
+        this.discrepancies = Counter.builder("loyalty.reconciliation.discrepancies").register(meterRegistry);
+        this.repaired = Counter.builder("loyalty.reconciliation.repaired").register(meterRegistry);
+    }
+
+    public Page<LoyaltyReconciliationItemDto> items(Pageable pageable) {
+        return itemRepository.findItems(pageable);
+    }
+
+    @Scheduled(cron = "${loyalty.reconciliation.cron:0 0 4 * * SUN}")
+    public synchronized int run() {
+        return duration.record(this::reconcile);
+    }
+
+    private int reconcile() {
+        List<ForkJoinTask<List<Discrepancy>>> tasks = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            LedgerReader reader = new LedgerReader(range -> tasks.add(pool.submit(() -> check(range))));
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(LEDGER_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(STREAMING_FETCH_SIZE);
+                return ps;
+            }, reader);
+            reader.finish();
+
+            List<Discrepancy> found = new ArrayList<>();
+            for (ForkJoinTask<List<Discrepancy>> task : tasks) {
+                found.addAll(task.join());
+            }
+            write(found);
+            discrepancies.increment(found.size());
+            log.info("Conciliação de pontos: {} clientes com transações, {} divergências", reader.clients, found.size());
+            return found.size();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private List<Discrepancy> check(LedgerRange range) {
+        List<Discrepancy> found = new ArrayList<>();
+        LongIntHashMap batchPoints = new LongIntHashMap(range.clientIds().length);
+        jdbcTemplate.query(BATCHES_SQL, (RowCallbackHandler) rs -> batchPoints.put(rs.getLong("client_id"), rs.getInt("batch_points")),
+                range.fromExclusive(), range.toInclusive());
+        jdbcTemplate.query(BALANCES_SQL, (RowCallbackHandler) rs -> {
+            long clientId = rs.getLong("id");
+            int index = Arrays.binarySearch(range.clientIds(), clientId);
+            long ledger = index >= 0 ? range.ledgerPoints()[index] : 0;
+            Discrepancy discrepancy = compare(clientId, ledger, rs.getInt("points_balance"), batchPoints.get(clientId, 0));
+            if (discrepancy != null) {
+                found.add(discrepancy);
+            }
+        }, range.fromExclusive(), range.toInclusive());
+        // depois da leitura: a correção usa outra conexão e não pode segurar a do cursor da faixa
+        return autoRepair ? repairAll(found) : found;
+    }
+
+    // saldo negativo (cancelamento após resgate) faz lotes somarem mais que o razão depois de um
+    // novo acúmulo, então só lotes abaixo do razão contam como divergência
+    static Discrepancy compare(long clientId, long ledger, int balance, int batches) {
+        boolean balanceMismatch = ledger != balance;
+        boolean batchesMismatch = batches < Math.max(ledger, 0);
+        if (!balanceMismatch && !batchesMismatch) return null;
+        return new Discrepancy(clientId, ledger, balance, batches, balanceMismatch, batchesMismatch, false);
+    }
+
+    private List<Discrepancy> repairAll(List<Discrepancy> found) {
+        List<Discrepancy> result = new ArrayList<>(found.size());
+        for (Discrepancy d : found) {
+            if (!d.balanceMismatch()) {
+                result.add(d);
+                continue;
+            }
+            boolean fixed = Boolean.TRUE.equals(transactionTemplate.execute(status -> repair(d.clientId())));
+            // sob a trava o saldo bateu: era uma transação em andamento durante a leitura
+            if (fixed || d.batchesMismatch()) {
+                result.add(new Discrepancy(d.clientId(), d.ledgerPoints(), d.balancePoints(), d.batchPoints(),
+                        fixed, d.batchesMismatch(), fixed));
+            }
+        }
+        return result;
+    }
+
+    // toda escrita em loyalty_transactions trava antes a linha do cliente: com a trava o razão não muda
+    private boolean repair(long clientId) {
+        Integer balance = jdbcTemplate.queryForObject(LOCK_CLIENT_SQL, Integer.class, clientId);
+        Long ledger = jdbcTemplate.queryForObject(CLIENT_LEDGER_SQL, Long.class, clientId);
+        if (balance == null || ledger == null || ledger == balance.longValue()) return false;
+        jdbcTemplate.update(REPAIR_SQL, Math.toIntExact(ledger), clientId);
+        repaired.increment();
+        log.warn("Saldo de pontos do cliente {} corrigido de {} para {}", clientId, balance, ledger);
+        return true;
+    }
+
+    private void write(List<Discrepancy> found) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_SQL);
+            jdbcTemplate.batchUpdate(INSERT_SQL, found, INSERT_BATCH_SIZE, (ps, d) -> {
+                ps.setLong(1, d.clientId());
+                ps.setLong(2, d.ledgerPoints());
+                ps.setInt(3, d.balancePoints());
+                ps.setInt(4, d.batchPoints());
+                ps.setBoolean(5, d.balanceMismatch());
+                ps.setBoolean(6, d.batchesMismatch());
+                ps.setBoolean(7, d.repaired());
+                ps.setTimestamp(8, now);
+            });
+        });
+    }
+
+    record Discrepancy(long clientId, long ledgerPoints, int balancePoints, int batchPoints,
+                       boolean balanceMismatch, boolean batchesMismatch, boolean repaired) {
+    }
+
+    // faixa (fromExclusive, toInclusive] de ids de cliente com as somas do razão em ordem de id
+    private record LedgerRange(long fromExclusive, long toInclusive, long[] clientIds, long[] ledgerPoints) {
+    }
+
+    private final class LedgerReader implements RowCallbackHandler {
+
+        private final Consumer<LedgerRange> submit;
+        private long rangeStart;
+        private long[] clientIds = new long[taskSize];
+        private long[] ledgerPoints = new long[taskSize];
+        private int count;
+        private long clients;
+
+        LedgerReader(Consumer<LedgerRange> submit) {
+            this.submit = submit;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            clientIds[count] = rs.getLong("client_id");
+            ledgerPoints[count++] = rs.getLong("ledger_points");
+            clients++;
+            if (count == taskSize) {
+                long last = clientIds[count - 1];
+                submit.accept(new LedgerRange(rangeStart, last, clientIds, ledgerPoints));
+                rangeStart = last;
+                clientIds = new long[taskSize];
+                ledgerPoints = new long[taskSize];
+                count = 0;
+            }
+        }
+
+        // a última faixa vai até o fim dos ids: pega clientes criados sem nenhuma transação
+        void finish() {
+            submit.accept(new LedgerRange(rangeStart, Long.MAX_VALUE,
+                    Arrays.copyOf(clientIds, count), Arrays.copyOf(ledgerPoints, count)));
+        }
+    }
+}
@@ -1,24 +1,34 @@
 package com.api.rest.conveniencestore.loyalty.service;
 
+import com.api.rest.conveniencestore.loyalty.dto.LoyaltyExpiringBatchDto;
+import com.api.rest.conveniencestore.loyalty.dto.LoyaltyExpiringPointsDto;
 import com.api.rest.conveniencestore.loyalty.dto.LoyaltySimulateResponseDto;
 import com.api.rest.conveniencestore.loyalty.dto.LoyaltyTransactionDto;
 import com.api.rest.conveniencestore.shared.enums.TransactionType;
 import com.api.rest.conveniencestore.shared.exception.LoyaltyException;
 import com.api.rest.conveniencestore.client.model.Client;
-import com.api.rest.conveniencestore.loyalty.model.LoyaltyPoint;
 import com.api.rest.conveniencestore.loyalty.model.LoyaltyTransaction;
+import com.api.rest.conveniencestore.loyalty.projection.LoyaltyBatchProjection;
 import com.api.rest.conveniencestore.client.repository.ClientRepository;
 import com.api.rest.conveniencestore.loyalty.repository.LoyaltyPointRepository;
 import com.api.rest.conveniencestore.loyalty.repository.LoyaltyTransactionRepository;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.support.CronExpression;
 import org.springframework.stereotype.Service;
 
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntFunction;
 
 @Service
 public class LoyaltyService {
@@ -28,6 +38,20 @@ public class LoyaltyService {
     private static final double DISCOUNT_PER_UNIT = 1.0;
     private static final double MAX_DISCOUNT_PERCENTAGE = 0.5;
     private static final int MIN_POINTS_TO_REDEEM = 100;
+    private static final int EXPIRATION_DAYS = 90;
+    private static final int REDEEM_CHUNK_SIZE = 20;
+    private static final int MAX_EXPIRING_WINDOW_DAYS = 365;
+    // um lote por cliente e dia do lote (ver batchDay): compras do mesmo dia somam no lote existente
+    // e o lote fica com a validade mais cedo, que vence na mesma execução noturna que as demais
+    private static final String UPSERT_BATCH_SQL = """
+            INSERT INTO loyalty_points (client_id, earn_date, points, remaining_points, expiration_date, created_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                points = points + VALUES(points),
+                remaining_points = remaining_points + VALUES(remaining_points),
+                expiration_date = LEAST(expiration_date, VALUES(expiration_date))
+            """;
+    private static final String DEDUCT_BATCH_SQL = "UPDATE loyalty_points SET remaining_points = remaining_points - ? WHERE id = ?";
 
     @Autowired
     private ClientRepository clientRepository;
@@ -38,18 +62,49 @@ public class LoyaltyService {
     @Autowired
     private LoyaltyTransactionRepository loyaltyTransactionRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${loyalty.expiry.cron:0 0 2 * * *}")
+    private String expiryCron;
+
+    private LocalTime batchDayStart;
+
+    @Autowired
+    private LoyaltyLiabilityLedger liabilityLedger;
+
     @Transactional
     public void earnPoints(Client client, double totalValue, Long saleId) {
         int points = (int) Math.floor(totalValue) * POINTS_PER_REAL;
         if (points <= 0) return;
 
+        clientRepository.addPoints(client.getId(), points);
         client.addPoints(points);
-        clientRepository.save(client);
 
-        loyaltyPointRepository.save(new LoyaltyPoint(client.getId(), points));
+        creditBatch(client.getId(), points, LocalDateTime.now());
         loyaltyTransactionRepository.save(new LoyaltyTransaction(client.getId(), points, TransactionType.EARN, saleId));
     }
 
+    // soma no lote do dia do cliente e no passivo da semana em que ele vence
+    void creditBatch(Long clientId, int points, LocalDateTime now) {
+        LocalDateTime expirationDate = now.plusDays(EXPIRATION_DAYS);
+        jdbcTemplate.update(UPSERT_BATCH_SQL, clientId, Date.valueOf(batchDay(now)), points, points,
+                Timestamp.valueOf(expirationDate), Timestamp.valueOf(now));
+        liabilityLedger.apply(clientId, expirationDate, points);
+    }
+
+    /**
+     * Dia do lote: começa no horário da expiração noturna (loyalty.expiry.cron), não à meia-noite.
+     * Tudo que é acumulado entre duas execuções vence na mesma execução 90 dias depois, então somar
+     * no mesmo lote com a validade mais cedo não antecipa nem adia a expiração de nenhum ponto.
+     */
+    LocalDate batchDay(LocalDateTime at) {
+        if (batchDayStart == null) {
+            batchDayStart = CronExpression.parse(expiryCron).next(at.toLocalDate().atStartOfDay().minusNanos(1)).toLocalTime();
+        }
+        return at.toLocalTime().isBefore(batchDayStart) ? at.toLocalDate().minusDays(1) : at.toLocalDate();
+    }
+
     @Transactional
     public double redeemPoints(Client client, int pointsToUse, double purchaseAmount, Long saleId) {
         if (pointsToUse < MIN_POINTS_TO_REDEEM) {
@@ -64,30 +119,55 @@ public class LoyaltyService {
         double discount = Math.min(requestedDiscount, maxDiscount);
         int effectivePoints = (int) (discount / DISCOUNT_PER_UNIT) * POINTS_PER_DISCOUNT_UNIT;
 
-        if (client.getPointsBalance() < effectivePoints) {
-            throw new LoyaltyException("Saldo insuficiente. Saldo atual: " + client.getPointsBalance() + " pontos.");
-        }
-
-        // consome lotes mais antigos primeiro (FIFO)
-        int remaining = effectivePoints;
-        List<LoyaltyPoint> batches = loyaltyPointRepository
-                .findByClientIdAndRemainingPointsGreaterThanOrderByCreatedAtAsc(client.getId(), 0);
-        for (LoyaltyPoint batch : batches) {
-            if (remaining <= 0) break;
-            int toDeduct = Math.min(batch.getRemainingPoints(), remaining);
-            batch.deductPoints(toDeduct);
-            loyaltyPointRepository.save(batch);
-            remaining -= toDeduct;
+        // desconto atômico e condicionado: duas vendas simultâneas do mesmo CPF não gastam o mesmo saldo
+        if (clientRepository.deductPointsIfAvailable(client.getId(), effectivePoints) == 0) {
+            throw new LoyaltyException("Saldo insuficiente. Saldo atual: " + clientRepository.findPointsBalance(client.getId()) + " pontos.");
         }
-
         client.deductPoints(effectivePoints);
-        clientRepository.save(client);
+
+        consumeBatches(client.getId(), effectivePoints);
 
         loyaltyTransactionRepository.save(new LoyaltyTransaction(client.getId(), -effectivePoints, TransactionType.REDEEM, saleId));
 
         return discount;
     }
 
+    // consome lotes mais antigos primeiro (FIFO); os travados por outra transação só na segunda passada
+    private void consumeBatches(Long clientId, int points) {
+        List<LoyaltyLiabilityLedger.Change> changes = new ArrayList<>();
+        int remaining = consume(clientId, limit -> loyaltyPointRepository.lockOpenBatchesSkipLocked(clientId, limit), points, changes);
+        if (remaining > 0) {
+            consume(clientId, limit -> loyaltyPointRepository.lockOpenBatches(clientId, limit), remaining, changes);
+        }
+        liabilityLedger.apply(changes);
+    }
+
+    // lê os lotes em blocos e para assim que os pontos estão cobertos: um bloco inteiro consumido
+    // fica zerado, então a leitura seguinte já começa no próximo lote aberto
+    private int consume(Long clientId, IntFunction<List<LoyaltyBatchProjection>> nextChunk, int points,
+                        List<LoyaltyLiabilityLedger.Change> changes) {
+        int remaining = points;
+        while (remaining > 0) {
+            List<LoyaltyBatchProjection> chunk = nextChunk.apply(REDEEM_CHUNK_SIZE);
+            List<Deduction> deductions = new ArrayList<>(chunk.size());
+            for (LoyaltyBatchProjection batch : chunk) {
+                if (remaining == 0) break;
+                int toDeduct = Math.min(batch.getRemainingPoints(), remaining);
+                deductions.add(new Deduction(batch.getId(), toDeduct));
+                changes.add(new LoyaltyLiabilityLedger.Change(clientId, batch.getExpirationDate(), -toDeduct));
+                remaining -= toDeduct;
+            }
+            if (!deductions.isEmpty()) {
+                jdbcTemplate.batchUpdate(DEDUCT_BATCH_SQL, deductions, deductions.size(), (ps, deduction) -> {
+                    ps.setInt(1, deduction.points());
+                    ps.setLong(2, deduction.batchId());
+                });
+            }
+            if (chunk.size() < REDEEM_CHUNK_SIZE) break;
+        }
+        return remaining;
+    }
+
     @Transactional
     public void cancelPoints(Long saleId) {
         List<LoyaltyTransaction> transactions = loyaltyTransactionRepository.findByReferenceId(saleId);
@@ -96,14 +176,38 @@ public class LoyaltyService {
             if (clientId == null) continue;
             clientRepository.findById(clientId).ifPresent(client -> {
                 // estorna o efeito original (EARN positivo → remove; REDEEM negativo → devolve)
+                clientRepository.addPoints(clientId, -tx.getPoints());
                 client.deductPoints(tx.getPoints());
-                clientRepository.save(client);
+                if (tx.getType() == TransactionType.EARN) {
+                    removeEarnedFromBatch(clientId, tx);
+                } else if (tx.getType() == TransactionType.REDEEM) {
+                    // os lotes de origem não são rastreados: os pontos devolvidos entram no lote de hoje
+                    creditBatch(clientId, -tx.getPoints(), LocalDateTime.now());
+                }
                 loyaltyTransactionRepository.save(
-                        new LoyaltyTransaction(client.getId(), -tx.getPoints(), TransactionType.CANCEL, saleId));
+                        new LoyaltyTransaction(clientId, -tx.getPoints(), TransactionType.CANCEL, saleId));
             });
         }
     }
 
+    // o acúmulo foi para o lote do dia da venda; o que dele já foi resgatado fica só no saldo
+    private void removeEarnedFromBatch(Long clientId, LoyaltyTransaction earn) {
+        loyaltyPointRepository.lockBatchOfDay(clientId, batchDay(earn.getCreatedAt())).ifPresent(batch -> {
+            int removed = Math.min(batch.getRemainingPoints(), earn.getPoints());
+            if (removed <= 0) return;
+            jdbcTemplate.update(DEDUCT_BATCH_SQL, removed, batch.getId());
+            liabilityLedger.apply(clientId, batch.getExpirationDate(), -removed);
+        });
+    }
+
+    public LoyaltyExpiringPointsDto getExpiringPoints(Long clientId, int days) {
+        int window = Math.min(Math.max(days, 1), MAX_EXPIRING_WINDOW_DAYS);
+        LocalDateTime now = LocalDateTime.now();
+        List<LoyaltyExpiringBatchDto> batches = loyaltyPointRepository.findExpiring(clientId, now, now.plusDays(window));
+        long total = batches.stream().mapToLong(LoyaltyExpiringBatchDto::points).sum();
+        return new LoyaltyExpiringPointsDto(clientId, window, total, batches);
+    }
+
     public LoyaltySimulateResponseDto simulate(Client client, double purchaseAmount, int pointsToUse) {
         if (pointsToUse < MIN_POINTS_TO_REDEEM) {
             throw new LoyaltyException("Mínimo de " + MIN_POINTS_TO_REDEEM + " pontos para resgate.");
@@ -132,23 +236,6 @@ public class LoyaltyService {
                 .map(LoyaltyTransactionDto::new);
     }
 
-    @Scheduled(cron = "0 0 2 * * *")
-    @Transactional
-    public void expirePoints() {
-        List<LoyaltyPoint> expired = loyaltyPointRepository
-                .findByExpirationDateBeforeAndRemainingPointsGreaterThan(LocalDateTime.now(), 0);
-        for (LoyaltyPoint batch : expired) {
-            int points = batch.getRemainingPoints();
-            Long clientId = batch.getClientId();
-            if (clientId == null) continue;
-            clientRepository.findById(clientId).ifPresent(client -> {
-                client.deductPoints(points);
-                clientRepository.save(client);
-                loyaltyTransactionRepository.save(
-                        new LoyaltyTransaction(client.getId(), -points, TransactionType.EXPIRE, null));
-            });
-            batch.expirePoints();
-            loyaltyPointRepository.save(batch);
-        }
+    record Deduction(long batchId, int points) {
     }
 }
@@ -1,23 +1,60 @@
 package com.api.rest.conveniencestore.product.controller;
 
+import com.api.rest.conveniencestore.product.dto.ProductBarcodeDto;
+import com.api.rest.conveniencestore.product.dto.ProductBarcodeRegisterDto;
+import com.api.rest.conveniencestore.product.dto.ProductBulkUpdateItemDto;
+import com.api.rest.conveniencestore.product.dto.ProductBulkUpdateResultDto;
+import com.api.rest.conveniencestore.product.dto.ProductChangesDto;
 import com.api.rest.conveniencestore.product.dto.ProductDto;
+import com.api.rest.conveniencestore.product.dto.ProductExpiryDto;
+import com.api.rest.conveniencestore.product.dto.ProductImportResultDto;
 import com.api.rest.conveniencestore.product.dto.ProductListingDto;
+import com.api.rest.conveniencestore.product.dto.ProductLotDto;
+import com.api.rest.conveniencestore.product.dto.ProductLotRegisterDto;
+import com.api.rest.conveniencestore.product.dto.ProductLowStockThresholdDto;
+import com.api.rest.conveniencestore.product.dto.ProductPriceDto;
+import com.api.rest.conveniencestore.product.dto.ProductPriceScheduleDto;
+import com.api.rest.conveniencestore.product.dto.ProductReorderSuggestionDto;
+import com.api.rest.conveniencestore.product.dto.ProductSearchDto;
+import com.api.rest.conveniencestore.product.dto.ProductStockAtDto;
+import com.api.rest.conveniencestore.product.dto.ProductStocktakeCountDto;
+import com.api.rest.conveniencestore.product.dto.ProductStocktakeResultDto;
 import com.api.rest.conveniencestore.product.dto.ProductUpdateDto;
+import com.api.rest.conveniencestore.product.dto.ProductVelocityDto;
+import com.api.rest.conveniencestore.shared.enums.Category;
 import com.api.rest.conveniencestore.shared.enums.Status;
 import com.api.rest.conveniencestore.shared.exception.ProductInvalidStatusException;
 import com.api.rest.conveniencestore.shared.exception.ProductNotFoundException;
 import com.api.rest.conveniencestore.shared.exception.UserListingNullException;
 import com.api.rest.conveniencestore.shared.exception.UserRegistrationException;
 import com.api.rest.conveniencestore.product.model.Product;
+import com.api.rest.conveniencestore.product.service.LowStockAlertBroadcaster;
+import com.api.rest.conveniencestore.product.service.ProductBulkUpdateService;
+import com.api.rest.conveniencestore.product.service.ProductImportService;
+import com.api.rest.conveniencestore.product.service.ProductLotService;
+import com.api.rest.conveniencestore.product.service.ProductPriceService;
+import com.api.rest.conveniencestore.product.service.ProductReorderEngine;
 import com.api.rest.conveniencestore.product.service.ProductService;
+import com.api.rest.conveniencestore.product.service.ProductSnapshotService;
+import com.api.rest.conveniencestore.product.service.ProductStocktakeService;
+import com.api.rest.conveniencestore.product.snapshot.ProductSnapshotFormat;
 import com.api.rest.conveniencestore.shared.utils.MessageConstants;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -28,6 +65,30 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductBulkUpdateService productBulkUpdateService;
+
+    @Autowired
+    private ProductSnapshotService productSnapshotService;
+
+    @Autowired
+    private ProductLotService productLotService;
+
+    @Autowired
+    private ProductPriceService productPriceService;
+
+    @Autowired
+    private ProductStocktakeService productStocktakeService;
+
+    @Autowired
+    private ProductReorderEngine productReorderEngine;
+
+    @Autowired
+    private LowStockAlertBroadcaster lowStockAlertBroadcaster;
+
     @PostMapping
 public ResponseEntity<Product> register(@Valid @RequestBody ProductDto productDto) throws UserRegistrationException {
         if (productService.existsByName(productDto.name())) {
@@ -37,9 +98,118 @@ public ResponseEntity<Product> register(@Valid @RequestBody ProductDto productDt
         return ResponseEntity.status(HttpStatus.CREATED).body(savedProduct);
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<ProductImportResultDto> importProducts(InputStream csv) throws IOException {
+        return ResponseEntity.ok(productImportService.importCsv(csv));
+    }
+
     @GetMapping
-    public ResponseEntity<Page<ProductListingDto>> list(Pageable pageable) {
-        return ResponseEntity.ok(productService.listProducts(pageable));
+    public ResponseEntity<Page<ProductListingDto>> list(@RequestParam(required = false) Category category,
+                                                        @RequestParam(required = false) Status status,
+                                                        Pageable pageable,
+                                                        WebRequest request) {
+        String eTag = productService.catalogETag(category, status, pageable);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(productService.listProducts(category, status, pageable));
+    }
+
+    @GetMapping("/changes")
+    public ResponseEntity<ProductChangesDto> changes(@RequestParam(defaultValue = "0") long since,
+                                                     @RequestParam(defaultValue = "500") int limit) {
+        return ResponseEntity.ok(productService.findChanges(since, limit));
+    }
+
+    @GetMapping("/snapshot")
+    public ResponseEntity<byte[]> snapshot(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ProductSnapshotFormat.MEDIA_TYPE))
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(productSnapshotService.snapshot(gzip));
+    }
+
+    @GetMapping(value = "/alerts/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter lowStockAlerts() {
+        return lowStockAlertBroadcaster.subscribe();
+    }
+
+    @PatchMapping("/{id}/low-stock-threshold")
+    public ResponseEntity<Product> updateLowStockThreshold(@PathVariable Long id,
+                                                           @Valid @RequestBody ProductLowStockThresholdDto thresholdDto) {
+        return ResponseEntity.ok(productService.updateLowStockThreshold(id, thresholdDto.threshold()));
+    }
+
+    @GetMapping("/{id}/stock")
+    public ResponseEntity<ProductStockAtDto> stockAt(@PathVariable Long id,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) throws ProductNotFoundException {
+        return ResponseEntity.ok(productService.stockAt(id, at));
+    }
+
+    @GetMapping("/{id}/velocity")
+    public ResponseEntity<ProductVelocityDto> velocity(@PathVariable Long id) throws ProductNotFoundException {
+        return ResponseEntity.ok(productService.velocity(id));
+    }
+
+    @PostMapping("/{id}/prices")
+    public ResponseEntity<ProductPriceDto> schedulePrice(@PathVariable Long id, @Valid @RequestBody ProductPriceScheduleDto scheduleDto) throws ProductNotFoundException {
+        return ResponseEntity.status(HttpStatus.CREATED).body(productPriceService.schedule(id, scheduleDto));
+    }
+
+    @GetMapping("/{id}/price")
+    public ResponseEntity<ProductPriceDto> priceAt(@PathVariable Long id,
+                                                   @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) throws ProductNotFoundException {
+        return ResponseEntity.ok(productPriceService.priceAt(id, at));
+    }
+
+    @PostMapping("/{id}/lots")
+    public ResponseEntity<ProductLotDto> receiveLot(@PathVariable Long id, @Valid @RequestBody ProductLotRegisterDto lotDto) throws ProductNotFoundException {
+        return ResponseEntity.status(HttpStatus.CREATED).body(productLotService.receive(id, lotDto));
+    }
+
+    @GetMapping("/{id}/lots")
+    public ResponseEntity<List<ProductLotDto>> openLots(@PathVariable Long id) {
+        return ResponseEntity.ok(productLotService.openLots(id));
+    }
+
+    @GetMapping("/lots/expiring")
+    public ResponseEntity<List<ProductLotDto>> expiringLots(@RequestParam(defaultValue = "7") int days) {
+        return ResponseEntity.ok(productLotService.expiringLots(days));
+    }
+
+    @GetMapping("/reorder")
+    public ResponseEntity<Page<ProductReorderSuggestionDto>> reorder(Pageable pageable) {
+        return ResponseEntity.ok(productReorderEngine.suggestions(pageable));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductSearchDto>> search(@RequestParam String q, @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(productService.searchProducts(q, limit));
+    }
+
+    @GetMapping("/barcode/{code}")
+    public ResponseEntity<ProductBarcodeDto> findByBarcode(@PathVariable String code) throws ProductNotFoundException {
+        return ResponseEntity.ok(productService.findByBarcode(code));
+    }
+
+    @PostMapping("/{id}/barcodes")
+    public ResponseEntity<ProductBarcodeDto> registerBarcode(@PathVariable Long id, @Valid @RequestBody ProductBarcodeRegisterDto barcodeDto) throws ProductNotFoundException {
+        ProductBarcodeDto barcode = productService.registerBarcode(id, barcodeDto.code());
+        return ResponseEntity.status(HttpStatus.CREATED).body(barcode);
+    }
+
+    @PatchMapping("/bulk")
+    public ResponseEntity<ProductBulkUpdateResultDto> bulkUpdate(@RequestBody List<@Valid ProductBulkUpdateItemDto> items) {
+        return ResponseEntity.ok(productBulkUpdateService.bulkUpdate(items));
+    }
+
+    @PostMapping("/stocktake")
+    public ResponseEntity<ProductStocktakeResultDto> stocktake(@RequestBody List<@Valid ProductStocktakeCountDto> counts) {
+        return ResponseEntity.ok(productStocktakeService.submit(counts));
     }
 
     @PutMapping("/{id}")
@@ -75,18 +245,19 @@ public ResponseEntity<Product> status(@PathVariable Long id, @Valid @RequestBody
 
 
     @GetMapping("/duedate")
-    public ResponseEntity<List<Product>> listarProdutosVencidos() {
-        List<Product> productsExpiring = productService.searchExpiredProducts();
-        if (productsExpiring.isEmpty()) {
+    public ResponseEntity<Page<ProductExpiryDto>> listarProdutosVencidos(Pageable pageable) {
+        Page<ProductExpiryDto> productsExpiring = productService.searchExpiredProducts(pageable);
+        if (productsExpiring.getTotalElements() == 0) {
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.ok(productsExpiring);
     }
 
     @GetMapping("/expiring")
-    public ResponseEntity<List<Product>> listProductsNearExpiration(@RequestParam(defaultValue = "7") int days) {
-        List<Product> products = productService.searchProductsNearExpiration(days);
-        if (products.isEmpty()) {
+    public ResponseEntity<Page<ProductExpiryDto>> listProductsNearExpiration(@RequestParam(defaultValue = "7") int days,
+                                                                             Pageable pageable) {
+        Page<ProductExpiryDto> products = productService.searchProductsNearExpiration(days, pageable);
+        if (products.getTotalElements() == 0) {
             return ResponseEntity.noContent().build();
         }
         return ResponseEntity.ok(products);
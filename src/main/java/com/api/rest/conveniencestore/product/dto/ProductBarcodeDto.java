@@ -0,0 +1,11 @@
+package com.api.rest.conveniencestore.product.dto;
+
+import com.api.rest.conveniencestore.shared.enums.Status;
+
+public record ProductBarcodeDto(
+        String code,
+        Long productId,
+        String name,
+        double price,
+        Status status) {
+}
@@ -0,0 +1,9 @@
+package com.api.rest.conveniencestore.product.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record ProductBarcodeRegisterDto(
+
+        @NotBlank(message = "Barcode cannot be blank")
+        String code) {
+}
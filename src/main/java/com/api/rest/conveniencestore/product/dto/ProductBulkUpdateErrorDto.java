@@ -0,0 +1,6 @@
+package com.api.rest.conveniencestore.product.dto;
+
+public record ProductBulkUpdateErrorDto(
+        Long id,
+        String message) {
+}
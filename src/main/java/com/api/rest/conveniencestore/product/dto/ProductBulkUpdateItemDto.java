@@ -0,0 +1,17 @@
+package com.api.rest.conveniencestore.product.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDate;
+
+public record ProductBulkUpdateItemDto(
+
+        @NotNull(message = "Product id cannot be null")
+        Long id,
+
+        Double price,
+
+        Integer stockQuantity,
+
+        LocalDate expirationDate) {
+}
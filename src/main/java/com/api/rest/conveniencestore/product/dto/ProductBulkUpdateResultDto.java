@@ -0,0 +1,9 @@
+package com.api.rest.conveniencestore.product.dto;
+
+import java.util.List;
+
+public record ProductBulkUpdateResultDto(
+        int requested,
+        int updated,
+        List<ProductBulkUpdateErrorDto> errors) {
+}
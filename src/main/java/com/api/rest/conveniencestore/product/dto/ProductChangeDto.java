@@ -0,0 +1,17 @@
+package com.api.rest.conveniencestore.product.dto;
+
+import com.api.rest.conveniencestore.shared.enums.Category;
+import com.api.rest.conveniencestore.shared.enums.Status;
+
+import java.time.LocalDate;
+
+public record ProductChangeDto(
+        Long id,
+        String name,
+        Category category,
+        double price,
+        int stockQuantity,
+        LocalDate expirationDate,
+        Status status,
+        long changeSeq) {
+}
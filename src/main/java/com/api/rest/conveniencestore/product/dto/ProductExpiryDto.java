@@ -0,0 +1,13 @@
+package com.api.rest.conveniencestore.product.dto;
+
+import com.api.rest.conveniencestore.shared.enums.Category;
+
+import java.time.LocalDate;
+
+public record ProductExpiryDto(
+        Long id,
+        String name,
+        Category category,
+        int stockQuantity,
+        LocalDate expirationDate) {
+}
@@ -0,0 +1,10 @@
+package com.api.rest.conveniencestore.product.dto;
+
+import java.util.List;
+
+public record ProductImportResultDto(
+        long processed,
+        long imported,
+        long failed,
+        List<ProductImportErrorDto> errors) {
+}
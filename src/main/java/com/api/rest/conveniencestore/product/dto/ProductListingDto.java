@@ -3,13 +3,21 @@ package com.api.rest.conveniencestore.product.dto;
 import com.api.rest.conveniencestore.shared.enums.Category;
 import com.api.rest.conveniencestore.product.model.Product;
 
+import java.time.LocalDate;
+
 public record ProductListingDto(
         Long id,
         String name,
         Category category,
         double price,
         int stockQuantity,
-        String expirationDate) {
+        String expirationDate,
+        Double daysOfStockLeft) {
+
+    // usado pelas projeções JPQL (SELECT new ...), sem carregar a entidade
+    public ProductListingDto(Long id, String name, Category category, double price, int stockQuantity, LocalDate expirationDate) {
+        this(id, name, category, price, stockQuantity, expirationDate != null ? expirationDate.toString() : "N/A", null);
+    }
 
     public ProductListingDto(Product product) {
         this(
@@ -18,6 +26,11 @@ public record ProductListingDto(
                 product.getCategory(),
                 product.getPrice(),
                 product.getStockQuantity(),
-                product.getExpirationDate() != null ? product.getExpirationDate().toString() : "N/A");
+                product.getExpirationDate() != null ? product.getExpirationDate().toString() : "N/A",
+                null);
+    }
+
+    public ProductListingDto withDaysOfStockLeft(Double days) {
+        return new ProductListingDto(id, name, category, price, stockQuantity, expirationDate, days);
     }
-}
\ No newline at end of file
+}
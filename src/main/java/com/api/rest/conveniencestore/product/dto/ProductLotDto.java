@@ -0,0 +1,11 @@
+package com.api.rest.conveniencestore.product.dto;
+
+import java.time.LocalDate;
+
+public record ProductLotDto(
+        Long id,
+        Long productId,
+        String lotCode,
+        int quantity,
+        LocalDate expirationDate) {
+}
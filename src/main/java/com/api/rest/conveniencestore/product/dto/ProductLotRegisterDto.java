@@ -0,0 +1,13 @@
+package com.api.rest.conveniencestore.product.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+
+public record ProductLotRegisterDto(
+        @NotNull @Positive Integer quantity,
+        LocalDate expirationDate,
+        @Size(max = 50) String lotCode) {
+}
@@ -0,0 +1,9 @@
+package com.api.rest.conveniencestore.product.dto;
+
+import jakarta.validation.constraints.PositiveOrZero;
+
+public record ProductLowStockThresholdDto(
+
+        @PositiveOrZero(message = "Threshold cannot be negative")
+        Integer threshold) {
+}
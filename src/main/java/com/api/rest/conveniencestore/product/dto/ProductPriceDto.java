@@ -0,0 +1,15 @@
+package com.api.rest.conveniencestore.product.dto;
+
+import com.api.rest.conveniencestore.product.model.ProductPrice;
+
+import java.time.LocalDateTime;
+
+public record ProductPriceDto(
+        Long productId,
+        double price,
+        LocalDateTime validFrom) {
+
+    public ProductPriceDto(ProductPrice price) {
+        this(price.getProductId(), price.getPrice(), price.getValidFrom());
+    }
+}
@@ -0,0 +1,12 @@
+package com.api.rest.conveniencestore.product.dto;
+
+import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.time.LocalDateTime;
+
+public record ProductPriceScheduleDto(
+        @NotNull @Positive Double price,
+        @NotNull @Future LocalDateTime validFrom) {
+}
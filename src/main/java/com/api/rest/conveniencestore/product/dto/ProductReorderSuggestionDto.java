@@ -0,0 +1,19 @@
+package com.api.rest.conveniencestore.product.dto;
+
+import com.api.rest.conveniencestore.shared.enums.Category;
+
+import java.time.LocalDateTime;
+
+public record ProductReorderSuggestionDto(
+        Long productId,
+        String name,
+        Category category,
+        double avgDailyDemand,
+        double demandStdDev,
+        int leadTimeDays,
+        int safetyStock,
+        int reorderPoint,
+        int stockQuantity,
+        int suggestedQuantity,
+        LocalDateTime computedAt) {
+}
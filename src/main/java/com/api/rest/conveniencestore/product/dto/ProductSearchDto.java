@@ -0,0 +1,6 @@
+package com.api.rest.conveniencestore.product.dto;
+
+public record ProductSearchDto(
+        Long id,
+        String name) {
+}
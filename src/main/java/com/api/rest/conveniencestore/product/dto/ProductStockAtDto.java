@@ -0,0 +1,10 @@
+package com.api.rest.conveniencestore.product.dto;
+
+import java.time.LocalDateTime;
+
+public record ProductStockAtDto(
+        Long productId,
+        LocalDateTime at,
+        int stockQuantity,
+        int replayedMovements) {
+}
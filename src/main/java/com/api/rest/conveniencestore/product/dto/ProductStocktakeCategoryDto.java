@@ -0,0 +1,10 @@
+package com.api.rest.conveniencestore.product.dto;
+
+import com.api.rest.conveniencestore.shared.enums.Category;
+
+public record ProductStocktakeCategoryDto(
+        Category category,
+        int products,
+        int unitsVariance,
+        double valueVariance) {
+}
@@ -0,0 +1,9 @@
+package com.api.rest.conveniencestore.product.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+public record ProductStocktakeCountDto(
+        @NotNull Long productId,
+        @NotNull @PositiveOrZero Integer counted) {
+}
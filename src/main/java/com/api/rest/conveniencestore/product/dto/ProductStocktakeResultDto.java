@@ -0,0 +1,14 @@
+package com.api.rest.conveniencestore.product.dto;
+
+import java.util.List;
+
+// variances traz só os produtos com diferença; categories soma todos os contados
+public record ProductStocktakeResultDto(
+        int counted,
+        int adjusted,
+        int unitsVariance,
+        double valueVariance,
+        List<ProductStocktakeVarianceDto> variances,
+        List<ProductStocktakeCategoryDto> categories,
+        List<ProductBulkUpdateErrorDto> errors) {
+}
@@ -0,0 +1,13 @@
+package com.api.rest.conveniencestore.product.dto;
+
+import com.api.rest.conveniencestore.shared.enums.Category;
+
+public record ProductStocktakeVarianceDto(
+        Long productId,
+        String name,
+        Category category,
+        int expected,
+        int counted,
+        int unitsVariance,
+        double valueVariance) {
+}
@@ -0,0 +1,9 @@
+package com.api.rest.conveniencestore.product.dto;
+
+public record ProductVelocityDto(
+        Long productId,
+        double unitsPerHour,
+        double unitsPerDay,
+        int stockQuantity,
+        Double daysOfStockLeft) {
+}
@@ -0,0 +1,7 @@
+package com.api.rest.conveniencestore.product.event;
+
+import com.api.rest.conveniencestore.shared.enums.Status;
+
+// código novo com os dados do produto no momento do cadastro; o índice só o aplica após o commit
+public record ProductBarcodeRegisteredEvent(long code, long productId, String name, double price, Status status) {
+}
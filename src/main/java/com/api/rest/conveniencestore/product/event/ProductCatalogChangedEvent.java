@@ -0,0 +1,11 @@
+package com.api.rest.conveniencestore.product.event;
+
+import java.util.Set;
+
+// publicado uma vez por operação de escrita no catálogo (cadastro, alteração, importação, lote)
+public record ProductCatalogChangedEvent(Set<Long> productIds) {
+
+    public static ProductCatalogChangedEvent of(Long productId) {
+        return new ProductCatalogChangedEvent(Set.of(productId));
+    }
+}
@@ -0,0 +1,15 @@
+package com.api.rest.conveniencestore.product.event;
+
+import com.api.rest.conveniencestore.shared.enums.Category;
+
+import java.time.LocalDateTime;
+
+// estoque do produto cruzou o limite de estoque baixo para baixo
+public record ProductLowStockEvent(
+        Long productId,
+        String name,
+        Category category,
+        int stockQuantity,
+        int threshold,
+        LocalDateTime detectedAt) {
+}
@@ -0,0 +1,8 @@
+package com.api.rest.conveniencestore.product.event;
+
+import java.util.Map;
+
+// só o estoque mudou (venda, cancelamento): leva o estoque novo por produto para os índices
+// atualizarem em memória, sem reler o catálogo
+public record ProductStockChangedEvent(Map<Long, Integer> stockQuantities) {
+}
@@ -16,6 +16,7 @@ import java.time.LocalDate;
 
 @Table(name = "products")
 @Entity(name = "Product")
+@EntityListeners(ProductChangeListener.class)
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
@@ -50,6 +51,12 @@ public class Product implements StatusUtil {
     @Version
     private Long version;
 
+    @Column(name = "change_seq", nullable = false)
+    private long changeSeq;
+
+    @Column(name = "low_stock_threshold")
+    private Integer lowStockThreshold;
+
     public Product(ProductDto data) {
         this.name = data.name();
         this.category = data.category();
@@ -86,6 +93,14 @@ public class Product implements StatusUtil {
         this.expirationDate = expirationDate;
     }
 
+    public void setLowStockThreshold(Integer lowStockThreshold) {
+        this.lowStockThreshold = lowStockThreshold;
+    }
+
+    void setChangeSeq(long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
     public boolean isExpired() {
         return this.expirationDate != null && this.expirationDate.isBefore(LocalDate.now());
     }
@@ -0,0 +1,27 @@
+package com.api.rest.conveniencestore.product.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "product_barcodes")
+@Getter
+@NoArgsConstructor
+public class ProductBarcode {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false, unique = true)
+    private long code;
+
+    public ProductBarcode(Long productId, long code) {
+        this.productId = productId;
+        this.code = code;
+    }
+}
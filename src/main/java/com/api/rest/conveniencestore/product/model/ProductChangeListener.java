@@ -0,0 +1,23 @@
+package com.api.rest.conveniencestore.product.model;
+
+import com.api.rest.conveniencestore.product.service.ProductChangeSequence;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.stereotype.Component;
+
+// carimba change_seq junto com o @Version em toda gravação via JPA
+@Component
+public class ProductChangeListener {
+
+    private final ProductChangeSequence changeSequence;
+
+    public ProductChangeListener(ProductChangeSequence changeSequence) {
+        this.changeSequence = changeSequence;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void stamp(Product product) {
+        product.setChangeSeq(changeSequence.next());
+    }
+}
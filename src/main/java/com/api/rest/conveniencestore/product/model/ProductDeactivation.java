@@ -0,0 +1,29 @@
+package com.api.rest.conveniencestore.product.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// gravado pelo ProductExpiryDeactivationJob para cada produto que ele desativou
+@Entity
+@Table(name = "product_deactivations")
+@Getter
+@NoArgsConstructor
+public class ProductDeactivation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "expiration_date", nullable = false)
+    private LocalDate expirationDate;
+
+    @Column(name = "deactivated_at", nullable = false)
+    private LocalDateTime deactivatedAt;
+}
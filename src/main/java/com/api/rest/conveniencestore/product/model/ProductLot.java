@@ -0,0 +1,47 @@
+package com.api.rest.conveniencestore.product.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "product_lots")
+@Getter
+@NoArgsConstructor
+public class ProductLot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "lot_code", length = 50)
+    private String lotCode;
+
+    // saldo ainda disponível no lote
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(name = "received_quantity", nullable = false)
+    private int receivedQuantity;
+
+    @Column(name = "expiration_date")
+    private LocalDate expirationDate;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    public ProductLot(Long productId, String lotCode, int quantity, LocalDate expirationDate, LocalDateTime receivedAt) {
+        this.productId = productId;
+        this.lotCode = lotCode;
+        this.quantity = quantity;
+        this.receivedQuantity = quantity;
+        this.expirationDate = expirationDate;
+        this.receivedAt = receivedAt;
+    }
+}
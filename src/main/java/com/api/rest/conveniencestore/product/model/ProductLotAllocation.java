@@ -0,0 +1,36 @@
+package com.api.rest.conveniencestore.product.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// quanto de cada lote saiu em uma venda; usado para devolver ao lote certo no cancelamento
+@Entity
+@Table(name = "product_lot_allocations")
+@Getter
+@NoArgsConstructor
+public class ProductLotAllocation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sale_id", nullable = false)
+    private Long saleId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "lot_id", nullable = false)
+    private Long lotId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    public ProductLotAllocation(Long saleId, Long productId, Long lotId, int quantity) {
+        this.saleId = saleId;
+        this.productId = productId;
+        this.lotId = lotId;
+        this.quantity = quantity;
+    }
+}
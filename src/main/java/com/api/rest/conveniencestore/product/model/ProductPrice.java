@@ -0,0 +1,43 @@
+package com.api.rest.conveniencestore.product.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "product_prices",
+        uniqueConstraints = @UniqueConstraint(name = "uk_product_prices_product_valid_from", columnNames = {"product_id", "valid_from"}))
+@Getter
+@NoArgsConstructor
+public class ProductPrice {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(name = "valid_from", nullable = false)
+    private LocalDateTime validFrom;
+
+    @Column(nullable = false)
+    private double price;
+
+    // false enquanto a troca agendada não foi copiada para products.price
+    @Column(nullable = false)
+    private boolean applied;
+
+    public ProductPrice(Long productId, LocalDateTime validFrom, double price, boolean applied) {
+        this.productId = productId;
+        this.validFrom = validFrom;
+        this.price = price;
+        this.applied = applied;
+    }
+
+    public void markApplied() {
+        this.applied = true;
+    }
+}
@@ -0,0 +1,31 @@
+package com.api.rest.conveniencestore.product.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// checkpoint do ProductVelocityTracker; só é lido na inicialização
+@Entity
+@Table(name = "product_velocity")
+@Getter
+@NoArgsConstructor
+public class ProductVelocity {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "units_per_hour", nullable = false)
+    private double unitsPerHour;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public ProductVelocity(Long productId, double unitsPerHour, LocalDateTime updatedAt) {
+        this.productId = productId;
+        this.unitsPerHour = unitsPerHour;
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,43 @@
+package com.api.rest.conveniencestore.product.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// gravada pelo ProductReorderEngine em JDBC; a entidade existe para leitura
+@Entity
+@Table(name = "reorder_suggestions")
+@Getter
+@NoArgsConstructor
+public class ReorderSuggestion {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "avg_daily_demand", nullable = false)
+    private double avgDailyDemand;
+
+    @Column(name = "demand_std_dev", nullable = false)
+    private double demandStdDev;
+
+    @Column(name = "lead_time_days", nullable = false)
+    private int leadTimeDays;
+
+    @Column(name = "safety_stock", nullable = false)
+    private int safetyStock;
+
+    @Column(name = "reorder_point", nullable = false)
+    private int reorderPoint;
+
+    @Column(name = "stock_quantity", nullable = false)
+    private int stockQuantity;
+
+    @Column(name = "suggested_quantity", nullable = false)
+    private int suggestedQuantity;
+
+    @Column(name = "computed_at", nullable = false)
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,37 @@
+package com.api.rest.conveniencestore.product.model;
+
+import com.api.rest.conveniencestore.shared.enums.StockMovementType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// gravado em lote pelo StockLedger; o id vem do próprio ledger, na ordem de confirmação
+@Entity
+@Table(name = "stock_movements")
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockMovement {
+
+    @Id
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StockMovementType type;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(name = "reference_id")
+    private Long referenceId;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,38 @@
+package com.api.rest.conveniencestore.product.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "stock_snapshots")
+@Getter
+@NoArgsConstructor
+public class StockSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    // saldo logo após esta movimentação
+    @Column(name = "movement_id", nullable = false)
+    private Long movementId;
+
+    @Column(name = "stock_quantity", nullable = false)
+    private int stockQuantity;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+
+    public StockSnapshot(Long productId, Long movementId, int stockQuantity, LocalDateTime takenAt) {
+        this.productId = productId;
+        this.movementId = movementId;
+        this.stockQuantity = stockQuantity;
+        this.takenAt = takenAt;
+    }
+}
@@ -0,0 +1,11 @@
+package com.api.rest.conveniencestore.product.projection;
+
+import com.api.rest.conveniencestore.shared.enums.Status;
+
+public interface ProductBarcodeProjection {
+    Long getCode();
+    Long getProductId();
+    String getName();
+    Double getPrice();
+    Status getStatus();
+}
@@ -0,0 +1,6 @@
+package com.api.rest.conveniencestore.product.projection;
+
+public interface ProductNameProjection {
+    Long getId();
+    String getName();
+}
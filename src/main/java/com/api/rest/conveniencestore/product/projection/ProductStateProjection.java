@@ -0,0 +1,11 @@
+package com.api.rest.conveniencestore.product.projection;
+
+import com.api.rest.conveniencestore.shared.enums.Status;
+
+import java.time.LocalDate;
+
+public interface ProductStateProjection {
+    Long getId();
+    Status getStatus();
+    LocalDate getExpirationDate();
+}
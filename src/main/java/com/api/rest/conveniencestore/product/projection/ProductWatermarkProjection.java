@@ -0,0 +1,6 @@
+package com.api.rest.conveniencestore.product.projection;
+
+public interface ProductWatermarkProjection {
+    Long getRowCount();
+    Long getVersionSum();
+}
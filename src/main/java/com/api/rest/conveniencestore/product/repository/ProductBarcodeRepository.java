@@ -0,0 +1,30 @@
+package com.api.rest.conveniencestore.product.repository;
+
+import com.api.rest.conveniencestore.product.model.ProductBarcode;
+import com.api.rest.conveniencestore.product.projection.ProductBarcodeProjection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductBarcodeRepository extends JpaRepository<ProductBarcode, Long> {
+
+    boolean existsByCode(long code);
+
+    @Query("""
+            SELECT b.code AS code, p.id AS productId, p.name AS name, p.price AS price, p.status AS status
+            FROM ProductBarcode b, Product p
+            WHERE p.id = b.productId
+            """)
+    List<ProductBarcodeProjection> findAllForIndex();
+
+    @Query("""
+            SELECT b.code AS code, p.id AS productId, p.name AS name, p.price AS price, p.status AS status
+            FROM ProductBarcode b, Product p
+            WHERE p.id = b.productId
+              AND p.id IN :productIds
+            """)
+    List<ProductBarcodeProjection> findForIndexByProductIdIn(@Param("productIds") Collection<Long> productIds);
+}
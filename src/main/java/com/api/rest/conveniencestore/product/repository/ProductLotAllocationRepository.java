@@ -0,0 +1,11 @@
+package com.api.rest.conveniencestore.product.repository;
+
+import com.api.rest.conveniencestore.product.model.ProductLotAllocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface ProductLotAllocationRepository extends JpaRepository<ProductLotAllocation, Long> {
+
+    List<ProductLotAllocation> findBySaleIdAndProductId(Long saleId, Long productId);
+}
@@ -0,0 +1,32 @@
+package com.api.rest.conveniencestore.product.repository;
+
+import com.api.rest.conveniencestore.product.model.ProductLot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ProductLotRepository extends JpaRepository<ProductLot, Long> {
+
+    @Query("SELECT l FROM ProductLot l WHERE l.quantity > 0")
+    List<ProductLot> findOpenLots();
+
+    @Query("SELECT DISTINCT l.productId FROM ProductLot l")
+    List<Long> findTrackedProductIds();
+
+    // o saldo em memória já foi reservado; o WHERE só protege contra divergência com o banco
+    @Modifying
+    @Query("UPDATE ProductLot l SET l.quantity = l.quantity - :quantity WHERE l.id = :id AND l.quantity >= :quantity")
+    int consume(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE ProductLot l SET l.quantity = l.quantity + :quantity WHERE l.id = :id")
+    int restock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("UPDATE ProductLot l SET l.quantity = 0 WHERE l.id IN :ids")
+    int writeOff(@Param("ids") Collection<Long> ids);
+}
@@ -0,0 +1,16 @@
+package com.api.rest.conveniencestore.product.repository;
+
+import com.api.rest.conveniencestore.product.model.ProductPrice;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductPriceRepository extends JpaRepository<ProductPrice, Long> {
+
+    // uma busca no índice único (product_id, valid_from)
+    Optional<ProductPrice> findFirstByProductIdAndValidFromLessThanEqualOrderByValidFromDesc(Long productId, LocalDateTime at);
+
+    List<ProductPrice> findByAppliedFalseOrderByValidFromAsc();
+}
@@ -1,22 +1,92 @@
 package com.api.rest.conveniencestore.product.repository;
 
+import com.api.rest.conveniencestore.product.dto.ProductChangeDto;
+import com.api.rest.conveniencestore.product.dto.ProductExpiryDto;
+import com.api.rest.conveniencestore.product.dto.ProductListingDto;
+import com.api.rest.conveniencestore.product.projection.ProductNameProjection;
+import com.api.rest.conveniencestore.product.projection.ProductStateProjection;
+import com.api.rest.conveniencestore.product.projection.ProductWatermarkProjection;
 import com.api.rest.conveniencestore.shared.enums.Category;
+import com.api.rest.conveniencestore.shared.enums.Status;
 import com.api.rest.conveniencestore.product.model.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDate;
 import java.util.Collection;
 import java.util.List;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
-    Collection<Product> findByCategory(Category category);
+    @Query(value = """
+            SELECT new com.api.rest.conveniencestore.product.dto.ProductListingDto(
+                p.id, p.name, p.category, p.price, p.stockQuantity, p.expirationDate)
+            FROM Product p
+            WHERE (:category IS NULL OR p.category = :category)
+              AND (:status IS NULL OR p.status = :status)
+            """,
+            countQuery = """
+            SELECT COUNT(p) FROM Product p
+            WHERE (:category IS NULL OR p.category = :category)
+              AND (:status IS NULL OR p.status = :status)
+            """)
+    Page<ProductListingDto> findListing(@Param("category") Category category,
+                                        @Param("status") Status status,
+                                        Pageable pageable);
 
     boolean existsByName(String name);
 
     boolean existsById(Long id);
 
-    List<Product> findByExpirationDateLessThanEqual(LocalDate expirationDate);
+    @Query("SELECT p.id AS id, p.name AS name FROM Product p")
+    List<ProductNameProjection> findAllNames();
 
-    List<Product> findByExpirationDateBetween(LocalDate start, LocalDate end);
+    @Query("SELECT COUNT(p) AS rowCount, COALESCE(SUM(p.version), 0) AS versionSum FROM Product p")
+    ProductWatermarkProjection findWatermark();
+
+    @Query("SELECT p.id AS id, p.name AS name FROM Product p WHERE p.name IN :names")
+    List<ProductNameProjection> findNamesByNameIn(@Param("names") Collection<String> names);
+
+    @Query("SELECT p.id AS id, p.name AS name FROM Product p WHERE p.id IN :ids")
+    List<ProductNameProjection> findNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT new com.api.rest.conveniencestore.product.dto.ProductExpiryDto(
+                p.id, p.name, p.category, p.stockQuantity, p.expirationDate)
+            FROM Product p
+            WHERE p.expirationDate IS NOT NULL
+            """)
+    List<ProductExpiryDto> findAllForExpiryIndex();
+
+    @Query("""
+            SELECT new com.api.rest.conveniencestore.product.dto.ProductExpiryDto(
+                p.id, p.name, p.category, p.stockQuantity, p.expirationDate)
+            FROM Product p
+            WHERE p.expirationDate IS NOT NULL
+              AND p.id IN :ids
+            """)
+    List<ProductExpiryDto> findForExpiryIndexByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+            SELECT new com.api.rest.conveniencestore.product.dto.ProductChangeDto(
+                p.id, p.name, p.category, p.price, p.stockQuantity, p.expirationDate, p.status, p.changeSeq)
+            FROM Product p
+            WHERE p.changeSeq > :since
+              AND p.changeSeq <= :upTo
+            ORDER BY p.changeSeq
+            """)
+    List<ProductChangeDto> findChanges(@Param("since") long since, @Param("upTo") long upTo, Pageable pageable);
+
+    @Query("""
+            SELECT new com.api.rest.conveniencestore.product.dto.ProductChangeDto(
+                p.id, p.name, p.category, p.price, p.stockQuantity, p.expirationDate, p.status, p.changeSeq)
+            FROM Product p
+            ORDER BY p.id
+            """)
+    List<ProductChangeDto> findAllForSnapshot();
+
+    @Query("SELECT p.id AS id, p.status AS status, p.expirationDate AS expirationDate FROM Product p WHERE p.id IN :ids")
+    List<ProductStateProjection> findStatesByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,7 @@
+package com.api.rest.conveniencestore.product.repository;
+
+import com.api.rest.conveniencestore.product.model.ProductVelocity;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ProductVelocityRepository extends JpaRepository<ProductVelocity, Long> {
+}
@@ -0,0 +1,23 @@
+package com.api.rest.conveniencestore.product.repository;
+
+import com.api.rest.conveniencestore.product.dto.ProductReorderSuggestionDto;
+import com.api.rest.conveniencestore.product.model.ReorderSuggestion;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+public interface ReorderSuggestionRepository extends JpaRepository<ReorderSuggestion, Long> {
+
+    @Query(value = """
+            SELECT new com.api.rest.conveniencestore.product.dto.ProductReorderSuggestionDto(
+                r.productId, p.name, p.category, r.avgDailyDemand, r.demandStdDev, r.leadTimeDays,
+                r.safetyStock, r.reorderPoint, r.stockQuantity, r.suggestedQuantity, r.computedAt)
+            FROM ReorderSuggestion r, Product p
+            WHERE p.id = r.productId
+              AND r.suggestedQuantity > 0
+            ORDER BY r.suggestedQuantity DESC, r.productId
+            """,
+            countQuery = "SELECT COUNT(r) FROM ReorderSuggestion r WHERE r.suggestedQuantity > 0")
+    Page<ProductReorderSuggestionDto> findSuggestions(Pageable pageable);
+}
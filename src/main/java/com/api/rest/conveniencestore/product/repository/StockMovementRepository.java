@@ -0,0 +1,17 @@
+package com.api.rest.conveniencestore.product.repository;
+
+import com.api.rest.conveniencestore.product.model.StockMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    @Query("SELECT COALESCE(MAX(m.id), 0) FROM StockMovement m")
+    long findMaxId();
+
+    // no máximo products.stock-ledger.snapshot-every linhas depois do checkpoint
+    List<StockMovement> findByProductIdAndIdGreaterThanAndOccurredAtLessThanEqualOrderByIdAsc(Long productId, Long afterId, LocalDateTime at);
+}
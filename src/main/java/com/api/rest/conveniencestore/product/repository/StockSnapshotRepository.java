@@ -0,0 +1,14 @@
+package com.api.rest.conveniencestore.product.repository;
+
+import com.api.rest.conveniencestore.product.model.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    Optional<StockSnapshot> findFirstByProductIdAndTakenAtLessThanEqualOrderByMovementIdDesc(Long productId, LocalDateTime at);
+
+    Optional<StockSnapshot> findFirstByProductIdOrderByMovementIdAsc(Long productId);
+}
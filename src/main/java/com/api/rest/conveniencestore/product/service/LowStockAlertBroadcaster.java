@@ -0,0 +1,94 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.event.ProductLowStockEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Entrega os alertas de estoque baixo aos gerentes conectados via SSE.
+ * Só alertas de transações confirmadas, no máximo um por produto a cada janela de debounce;
+ * o envio roda numa thread própria para não segurar a venda que disparou o alerta.
+ */
+@Component
+public class LowStockAlertBroadcaster {
+
+    static final String EVENT_NAME = "low-stock";
+
+    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final Map<Long, Instant> lastAlerts = new ConcurrentHashMap<>();
+    private final ExecutorService sender = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "low-stock-alerts");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Duration debounce;
+    private final long streamTimeoutMillis;
+
+    public LowStockAlertBroadcaster(@Value("${products.alerts.debounce-seconds:300}") long debounceSeconds,
+                                    @Value("${products.alerts.stream-timeout-ms:1800000}") long streamTimeoutMillis) {
+        this.debounce = Duration.ofSeconds(debounceSeconds);
+        this.streamTimeoutMillis = streamTimeoutMillis;
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMillis);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+        emitter.onError(error -> emitters.remove(emitter));
+        emitters.add(emitter);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLowStock(ProductLowStockEvent event) {
+        if (accept(event, Instant.now())) {
+            sender.execute(() -> send(event));
+        }
+    }
+
+    boolean accept(ProductLowStockEvent event, Instant now) {
+        Long productId = event.productId();
+        Instant previous = lastAlerts.get(productId);
+        if (previous != null && now.isBefore(previous.plus(debounce))) {
+            return false;
+        }
+        // troca atômica: dois alertas simultâneos do mesmo produto não passam juntos
+        return previous == null
+                ? lastAlerts.putIfAbsent(productId, now) == null
+                : lastAlerts.replace(productId, previous, now);
+    }
+
+    int subscriberCount() {
+        return emitters.size();
+    }
+
+    private void send(ProductLowStockEvent event) {
+        for (SseEmitter emitter : emitters) {
+            try {
+                emitter.send(SseEmitter.event().name(EVENT_NAME).data(event));
+            } catch (IOException | IllegalStateException e) {
+                emitters.remove(emitter);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sender.shutdownNow();
+        emitters.forEach(SseEmitter::complete);
+    }
+}
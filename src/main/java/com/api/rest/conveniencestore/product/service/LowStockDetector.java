@@ -0,0 +1,72 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.event.ProductLowStockEvent;
+import com.api.rest.conveniencestore.product.model.Product;
+import com.api.rest.conveniencestore.shared.enums.Category;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Detecta, no próprio caminho que altera o estoque, quando um produto cruza o limite de
+ * estoque baixo. Limite: o do produto, senão o da categoria, senão o padrão.
+ */
+@Component
+public class LowStockDetector {
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final int defaultThreshold;
+    private final Map<Category, Integer> categoryThresholds;
+
+    public LowStockDetector(ApplicationEventPublisher eventPublisher,
+                            @Value("${products.alerts.low-stock-threshold:10}") int defaultThreshold,
+                            @Value("${products.alerts.category-thresholds:}") String categoryThresholds) {
+        this.eventPublisher = eventPublisher;
+        this.defaultThreshold = defaultThreshold;
+        this.categoryThresholds = parseCategoryThresholds(categoryThresholds);
+    }
+
+    public void check(Product product, int previousStock) {
+        check(product.getId(), product.getName(), product.getCategory(), product.getLowStockThreshold(),
+                previousStock, product.getStockQuantity());
+    }
+
+    // para caminhos em JDBC que não carregam a entidade
+    public void check(Long productId, String name, Category category, Integer lowStockThreshold,
+                      int previousStock, int stockQuantity) {
+        int threshold = thresholdFor(lowStockThreshold, category);
+        if (previousStock >= threshold && stockQuantity < threshold) {
+            eventPublisher.publishEvent(new ProductLowStockEvent(productId, name, category,
+                    stockQuantity, threshold, LocalDateTime.now()));
+        }
+    }
+
+    int thresholdFor(Product product) {
+        return thresholdFor(product.getLowStockThreshold(), product.getCategory());
+    }
+
+    private int thresholdFor(Integer lowStockThreshold, Category category) {
+        if (lowStockThreshold != null) {
+            return lowStockThreshold;
+        }
+        return categoryThresholds.getOrDefault(category, defaultThreshold);
+    }
+
+    // formato: FOOD=20,FUEL=500
+    static Map<Category, Integer> parseCategoryThresholds(String value) {
+        Map<Category, Integer> thresholds = new EnumMap<>(Category.class);
+        if (value == null || value.isBlank()) return thresholds;
+        for (String pair : value.split(",")) {
+            String[] parts = pair.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Limite de estoque por categoria inválido: " + pair);
+            }
+            thresholds.put(Category.fromValueCategory(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        return thresholds;
+    }
+}
@@ -0,0 +1,132 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductBarcodeDto;
+import com.api.rest.conveniencestore.product.event.ProductBarcodeRegisteredEvent;
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import com.api.rest.conveniencestore.product.projection.ProductBarcodeProjection;
+import com.api.rest.conveniencestore.product.repository.ProductBarcodeRepository;
+import com.api.rest.conveniencestore.shared.enums.Status;
+import com.api.rest.conveniencestore.shared.utils.LongIntHashMap;
+import com.api.rest.conveniencestore.shared.validation.BarcodeValidator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice em memória código de barras -> produto para a leitura no caixa.
+ * Cada produto com código ocupa um slot nos arrays; os códigos apontam para o slot.
+ */
+@Component
+public class ProductBarcodeIndex {
+
+    private static final int NO_SLOT = -1;
+
+    private final ProductBarcodeRepository productBarcodeRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongIntHashMap slotsByCode = new LongIntHashMap(1024);
+    private final LongIntHashMap slotsByProduct = new LongIntHashMap(1024);
+
+    private long[] productIds = new long[64];
+    private String[] names = new String[64];
+    private double[] prices = new double[64];
+    private Status[] statuses = new Status[64];
+    private int slotCount;
+
+    public ProductBarcodeIndex(ProductBarcodeRepository productBarcodeRepository) {
+        this.productBarcodeRepository = productBarcodeRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ProductBarcodeProjection> all = productBarcodeRepository.findAllForIndex();
+        lock.writeLock().lock();
+        try {
+            slotsByCode.clear();
+            slotsByProduct.clear();
+            slotCount = 0;
+            for (ProductBarcodeProjection row : all) {
+                int slot = upsertSlot(row.getProductId(), row.getName(), row.getPrice(), row.getStatus());
+                slotsByCode.put(row.getCode(), slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public ProductBarcodeDto find(long code) {
+        lock.readLock().lock();
+        try {
+            int slot = slotsByCode.get(code, NO_SLOT);
+            if (slot == NO_SLOT) {
+                return null;
+            }
+            return new ProductBarcodeDto(BarcodeValidator.formatBarcode(code), productIds[slot], names[slot], prices[slot], statuses[slot]);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // só após o commit: um cadastro desfeito não deixa código fantasma no índice
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBarcodeRegistered(ProductBarcodeRegisteredEvent event) {
+        lock.writeLock().lock();
+        try {
+            int slot = upsertSlot(event.productId(), event.name(), event.price(), event.status());
+            slotsByCode.put(event.code(), slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // atualiza preço/nome/status apenas de produtos que já têm código cadastrado
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(ProductCatalogChangedEvent event) {
+        List<Long> indexed;
+        lock.readLock().lock();
+        try {
+            indexed = event.productIds().stream().filter(slotsByProduct::containsKey).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (indexed.isEmpty()) return;
+
+        List<ProductBarcodeProjection> rows = productBarcodeRepository.findForIndexByProductIdIn(indexed);
+        lock.writeLock().lock();
+        try {
+            for (ProductBarcodeProjection row : rows) {
+                upsertSlot(row.getProductId(), row.getName(), row.getPrice(), row.getStatus());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int upsertSlot(long productId, String name, double price, Status status) {
+        int slot = slotsByProduct.get(productId, NO_SLOT);
+        if (slot == NO_SLOT) {
+            slot = slotCount++;
+            ensureCapacity(slotCount);
+            slotsByProduct.put(productId, slot);
+            productIds[slot] = productId;
+        }
+        names[slot] = name;
+        prices[slot] = price;
+        statuses[slot] = status;
+        return slot;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= productIds.length) return;
+        int capacity = Math.max(required, productIds.length * 2);
+        productIds = Arrays.copyOf(productIds, capacity);
+        names = Arrays.copyOf(names, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+    }
+}
@@ -0,0 +1,176 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductBulkUpdateErrorDto;
+import com.api.rest.conveniencestore.product.dto.ProductBulkUpdateItemDto;
+import com.api.rest.conveniencestore.product.dto.ProductBulkUpdateResultDto;
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import com.api.rest.conveniencestore.product.projection.ProductStateProjection;
+import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import com.api.rest.conveniencestore.shared.enums.StockMovementType;
+import com.api.rest.conveniencestore.shared.utils.MessageConstants;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Atualização em lote de preço/estoque/validade vinda da matriz.
+ * As regras de produto vencido/inativo do updateProduct ficam no WHERE do UPDATE.
+ */
+@Service
+public class ProductBulkUpdateService {
+
+    private static final String UPDATE_SQL = """
+            UPDATE products
+            SET price = COALESCE(?, price),
+                stock_quantity = COALESCE(?, stock_quantity),
+                expiration_date = COALESCE(?, expiration_date),
+                version = version + 1,
+                change_seq = ?
+            WHERE id = ?
+              AND status <> 'INACTIVE'
+              AND (expiration_date IS NULL OR expiration_date >= ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRepository productRepository;
+    private final ProductChangeSequence changeSequence;
+    private final StockLedger stockLedger;
+    private final ProductPriceService productPriceService;
+    private final ProductLotService productLotService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    public ProductBulkUpdateService(JdbcTemplate jdbcTemplate,
+                                    ProductRepository productRepository,
+                                    ProductChangeSequence changeSequence,
+                                    StockLedger stockLedger,
+                                    ProductPriceService productPriceService,
+                                    ProductLotService productLotService,
+                                    ApplicationEventPublisher eventPublisher,
+                                    @Value("${products.bulk-update.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productRepository = productRepository;
+        this.changeSequence = changeSequence;
+        this.stockLedger = stockLedger;
+        this.productPriceService = productPriceService;
+        this.productLotService = productLotService;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    public ProductBulkUpdateResultDto bulkUpdate(List<ProductBulkUpdateItemDto> items) {
+        LocalDate today = LocalDate.now();
+        List<ProductBulkUpdateErrorDto> errors = new ArrayList<>();
+        List<ProductBulkUpdateItemDto> valid = new ArrayList<>(items.size());
+        for (ProductBulkUpdateItemDto item : items) {
+            String message = validate(item, today);
+            // estoque e validade de produto com lotes vêm dos lotes; só o preço pode mudar aqui
+            if (message == null && (item.stockQuantity() != null || item.expirationDate() != null)
+                    && productLotService.isLotTracked(item.id())) {
+                message = MessageConstants.PRODUCT_LOT_TRACKED_UPDATE;
+            }
+            if (message != null) {
+                errors.add(new ProductBulkUpdateErrorDto(item.id(), message));
+            } else {
+                valid.add(item);
+            }
+        }
+
+        Set<Long> updatedIds = new LinkedHashSet<>();
+        List<Long> rejectedIds = new ArrayList<>();
+        Map<Long, Double> prices = new HashMap<>();
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, valid, batchSize, (ps, item) -> {
+            setNullable(ps, 1, item.price(), Types.DOUBLE);
+            setNullable(ps, 2, item.stockQuantity(), Types.INTEGER);
+            setNullable(ps, 3, item.expirationDate() != null ? Date.valueOf(item.expirationDate()) : null, Types.DATE);
+            ps.setLong(4, changeSequence.next());
+            ps.setLong(5, item.id());
+            ps.setDate(6, Date.valueOf(today));
+        });
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                ProductBulkUpdateItemDto item = valid.get(index++);
+                if (count == 0) {
+                    rejectedIds.add(item.id());
+                } else {
+                    updatedIds.add(item.id());
+                    if (item.stockQuantity() != null) {
+                        stockLedger.record(item.id(), StockMovementType.IMPORT, item.stockQuantity(), item.stockQuantity(), null);
+                    }
+                    if (item.price() != null) {
+                        prices.put(item.id(), item.price());
+                    }
+                }
+            }
+        }
+
+        productPriceService.recordCurrent(prices);
+
+        if (!rejectedIds.isEmpty()) {
+            errors.addAll(explainRejections(rejectedIds, today));
+        }
+        if (!updatedIds.isEmpty()) {
+            eventPublisher.publishEvent(new ProductCatalogChangedEvent(updatedIds));
+        }
+        return new ProductBulkUpdateResultDto(items.size(), valid.size() - rejectedIds.size(), errors);
+    }
+
+    private static String validate(ProductBulkUpdateItemDto item, LocalDate today) {
+        if (item.price() != null && item.price() <= 0) {
+            return MessageConstants.INVALID_PRICE;
+        }
+        if (item.stockQuantity() != null && item.stockQuantity() < 0) {
+            return MessageConstants.INVALID_STOCK;
+        }
+        if (item.expirationDate() != null && item.expirationDate().isBefore(today)) {
+            return MessageConstants.INVALID_EXPIRATION_DATE;
+        }
+        return null;
+    }
+
+    // o UPDATE só diz que nenhuma linha casou; uma consulta única diz o motivo de cada id
+    private List<ProductBulkUpdateErrorDto> explainRejections(List<Long> ids, LocalDate today) {
+        Map<Long, ProductStateProjection> states = productRepository.findStatesByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductStateProjection::getId, Function.identity()));
+        List<ProductBulkUpdateErrorDto> errors = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            ProductStateProjection state = states.get(id);
+            String message;
+            if (state == null) {
+                message = String.format(MessageConstants.PRODUCT_NOT_FOUND, id);
+            } else if (state.getExpirationDate() != null && state.getExpirationDate().isBefore(today)) {
+                message = MessageConstants.PRODUCT_EXPIRED_UPDATE;
+            } else {
+                message = MessageConstants.PRODUCT_INACTIVE_UPDATE;
+            }
+            errors.add(new ProductBulkUpdateErrorDto(id, message));
+        }
+        return errors;
+    }
+
+    private static void setNullable(PreparedStatement ps, int index, Object value, int sqlType) throws SQLException {
+        if (value != null) {
+            ps.setObject(index, value, sqlType);
+        } else {
+            ps.setNull(index, sqlType);
+        }
+    }
+}
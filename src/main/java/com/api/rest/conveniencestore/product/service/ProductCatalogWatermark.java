@@ -0,0 +1,74 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import com.api.rest.conveniencestore.product.event.ProductStockChangedEvent;
+import com.api.rest.conveniencestore.product.projection.ProductWatermarkProjection;
+import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Marca d'água do catálogo usada como ETag da listagem de produtos.
+ * A base (quantidade de linhas + soma das versões) é lida uma vez na inicialização;
+ * depois cada alteração confirmada só incrementa a geração, sem consultar o banco.
+ * A tag da listagem também leva uma faixa de tempo: daysOfStockLeft vem de uma média que decai
+ * com o relógio, então a mesma tag nunca é revalidada por mais de uma faixa.
+ */
+@Component
+public class ProductCatalogWatermark {
+
+    private final ProductRepository productRepository;
+    private final long bucketMillis;
+
+    private volatile String baseline = "0-0";
+    private final AtomicLong generation = new AtomicLong();
+
+    public ProductCatalogWatermark(ProductRepository productRepository,
+                                   @Value("${products.listing.etag-bucket-minutes:60}") long bucketMinutes) {
+        this.productRepository = productRepository;
+        this.bucketMillis = TimeUnit.MINUTES.toMillis(bucketMinutes);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        ProductWatermarkProjection stats = productRepository.findWatermark();
+        baseline = stats.getRowCount() + "-" + stats.getVersionSum();
+        generation.set(0);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(ProductCatalogChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    // a listagem mostra o estoque, então venda e cancelamento também mudam a tag
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(ProductStockChangedEvent event) {
+        generation.incrementAndGet();
+    }
+
+    public String current() {
+        return baseline + "-" + generation.get();
+    }
+
+    public String eTag(Pageable pageable, Object... filters) {
+        return eTag(System.currentTimeMillis(), pageable, filters);
+    }
+
+    // cada página/ordenação/filtro tem o seu próprio corpo, então entra na tag
+    String eTag(long nowMillis, Pageable pageable, Object... filters) {
+        int pageHash = pageable.isPaged()
+                ? Objects.hash(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort(), Arrays.hashCode(filters))
+                : Objects.hash(pageable.getSort(), Arrays.hashCode(filters));
+        return "\"" + current() + "-" + nowMillis / bucketMillis + "-" + Integer.toHexString(pageHash) + "\"";
+    }
+}
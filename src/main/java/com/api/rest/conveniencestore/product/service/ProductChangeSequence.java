@@ -0,0 +1,68 @@
+package com.api.rest.conveniencestore.product.service;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.TreeSet;
+
+/**
+ * Gera os valores de products.change_seq. Um valor só é considerado estável quando
+ * todas as transações que receberam valores menores terminaram: assim um terminal
+ * nunca recebe um token que pule uma alteração ainda não confirmada.
+ */
+@Component
+public class ProductChangeSequence {
+
+    // JdbcTemplate e não o repositório: o listener da entidade depende desta classe
+    private static final String MAX_SQL = "SELECT COALESCE(MAX(change_seq), 0) FROM products";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private long last;
+    private final TreeSet<Long> pending = new TreeSet<>();
+
+    public ProductChangeSequence(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // antes dos jobs que rodam na inicialização e já carimbam change_seq
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void initialize() {
+        Long max = jdbcTemplate.queryForObject(MAX_SQL, Long.class);
+        last = Math.max(last, max != null ? max : 0);
+    }
+
+    // dentro de uma transação o valor é liberado sozinho no commit/rollback;
+    // fora dela quem chamou deve chamar complete()
+    public long next() {
+        long seq;
+        synchronized (this) {
+            seq = ++last;
+            pending.add(seq);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    complete(seq);
+                }
+            });
+        }
+        return seq;
+    }
+
+    public synchronized void complete(long seq) {
+        pending.remove(seq);
+    }
+
+    public synchronized long stableWatermark() {
+        return pending.isEmpty() ? last : pending.first() - 1;
+    }
+}
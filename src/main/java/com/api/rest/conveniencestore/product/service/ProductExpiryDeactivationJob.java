@@ -0,0 +1,154 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Desativa produtos vencidos (expiration_date anterior a hoje) em blocos, cada um na sua
+ * transação. A seleção percorre o índice (status, expiration_date) só nos status ativos,
+ * então produtos já inativos nunca são lidos de novo.
+ */
+@Component
+public class ProductExpiryDeactivationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductExpiryDeactivationJob.class);
+
+    private static final String SELECT_EXPIRED_SQL = """
+            SELECT id, expiration_date FROM products
+            WHERE status IN ('REGISTERED', 'ACTIVE')
+              AND expiration_date < ?
+            ORDER BY expiration_date, id
+            LIMIT ?
+            """;
+    // repete o filtro: um produto alterado entre a seleção e o UPDATE fica de fora
+    private static final String DEACTIVATE_SQL = """
+            UPDATE products
+            SET status = 'INACTIVE',
+                version = version + 1,
+                change_seq = ?
+            WHERE id = ?
+              AND status IN ('REGISTERED', 'ACTIVE')
+              AND expiration_date < ?
+            """;
+    private static final String AUDIT_SQL = """
+            INSERT INTO product_deactivations (product_id, expiration_date, deactivated_at)
+            VALUES (?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductChangeSequence changeSequence;
+    private final ProductLotService productLotService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public ProductExpiryDeactivationJob(JdbcTemplate jdbcTemplate,
+                                        TransactionTemplate transactionTemplate,
+                                        ProductChangeSequence changeSequence,
+                                        ProductLotService productLotService,
+                                        ApplicationEventPublisher eventPublisher,
+                                        @Value("${products.expiry-deactivation.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.changeSequence = changeSequence;
+        this.productLotService = productLotService;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    // também na inicialização, para cobrir uma virada de dia com a aplicação parada; por último,
+    // depois que lotes, ledger e change_seq foram carregados
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @Scheduled(cron = "${products.expiry-deactivation.cron:0 5 0 * * *}")
+    public void run() {
+        LocalDate today = LocalDate.now();
+        // primeiro os lotes: produto com lote ainda válido passa a ter a validade desse lote
+        int lots = productLotService.writeOffExpired(today);
+        int total = deactivateExpired(today);
+        if (lots > 0 || total > 0) {
+            log.info("{} lotes vencidos baixados, {} produtos vencidos desativados", lots, total);
+        }
+    }
+
+    public int deactivateExpired(LocalDate today) {
+        int total = 0;
+        while (true) {
+            Chunk chunk = transactionTemplate.execute(status -> deactivateChunk(today));
+            total += chunk.deactivated();
+            if (chunk.selected() < chunkSize) {
+                return total;
+            }
+        }
+    }
+
+    private Chunk deactivateChunk(LocalDate today) {
+        Date cutoff = Date.valueOf(today);
+        List<ExpiredRow> rows = jdbcTemplate.query(SELECT_EXPIRED_SQL,
+                (rs, rowNum) -> new ExpiredRow(rs.getLong("id"), rs.getDate("expiration_date").toLocalDate()),
+                cutoff, chunkSize);
+        if (rows.isEmpty()) {
+            return new Chunk(0, 0);
+        }
+
+        int[][] counts = jdbcTemplate.batchUpdate(DEACTIVATE_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, changeSequence.next());
+            ps.setLong(2, row.id());
+            ps.setDate(3, cutoff);
+        });
+        List<ExpiredRow> deactivated = new ArrayList<>(rows.size());
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                ExpiredRow row = rows.get(index++);
+                if (count > 0) {
+                    deactivated.add(row);
+                }
+            }
+        }
+        if (deactivated.isEmpty()) {
+            return new Chunk(rows.size(), 0);
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(AUDIT_SQL, deactivated, deactivated.size(), (ps, row) -> {
+            ps.setLong(1, row.id());
+            ps.setDate(2, Date.valueOf(row.expirationDate()));
+            ps.setTimestamp(3, now);
+        });
+
+        // publicado dentro da transação do bloco: índices e ETag são atualizados após o commit
+        Set<Long> ids = new LinkedHashSet<>();
+        for (ExpiredRow row : deactivated) {
+            ids.add(row.id());
+        }
+        eventPublisher.publishEvent(new ProductCatalogChangedEvent(ids));
+        return new Chunk(rows.size(), deactivated.size());
+    }
+
+    private record ExpiredRow(long id, LocalDate expirationDate) {
+    }
+
+    private record Chunk(int selected, int deactivated) {
+    }
+}
@@ -0,0 +1,196 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductExpiryDto;
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import com.api.rest.conveniencestore.product.event.ProductStockChangedEvent;
+import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Calendário em memória das validades: um balde de ids por dia futuro e um balde único
+ * com tudo que vence até hoje. A virada do dia move o balde do novo dia para os vencidos,
+ * então as consultas só leem baldes prontos.
+ */
+@Component
+public class ProductExpiryIndex {
+
+    static final int MAX_WINDOW_DAYS = 365;
+
+    private final ProductRepository productRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, ProductExpiryDto> entries = new HashMap<>();
+    private final Map<LocalDate, TreeSet<Long>> upcoming = new HashMap<>();
+    private final TreeSet<Long> expired = new TreeSet<>();
+    private LocalDate today = LocalDate.now();
+
+    public ProductExpiryIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ProductExpiryDto> all = productRepository.findAllForExpiryIndex();
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            upcoming.clear();
+            expired.clear();
+            today = LocalDate.now();
+            for (ProductExpiryDto entry : all) {
+                add(entry);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(ProductCatalogChangedEvent event) {
+        List<ProductExpiryDto> rows = productRepository.findForExpiryIndexByIdIn(event.productIds());
+        lock.writeLock().lock();
+        try {
+            for (Long id : event.productIds()) {
+                remove(id);
+            }
+            for (ProductExpiryDto row : rows) {
+                add(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // venda e cancelamento não mudam a validade: só troca o estoque da entrada, sem consulta
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(ProductStockChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            event.stockQuantities().forEach((id, stock) -> entries.computeIfPresent(id, (key, e) ->
+                    new ProductExpiryDto(e.id(), e.name(), e.category(), stock, e.expirationDate())));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(cron = "${products.expiry-index.roll-cron:0 0 0 * * *}")
+    public void rollForward() {
+        rollForward(LocalDate.now());
+    }
+
+    void rollForward(LocalDate date) {
+        lock.writeLock().lock();
+        try {
+            while (today.isBefore(date)) {
+                today = today.plusDays(1);
+                TreeSet<Long> bucket = upcoming.remove(today);
+                if (bucket != null) {
+                    expired.addAll(bucket);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Page<ProductExpiryDto> expired(Pageable pageable) {
+        ensureCurrent();
+        lock.readLock().lock();
+        try {
+            return page(List.of(expired), pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // produtos que vencem entre amanhã e hoje + days, em ordem de validade
+    public Page<ProductExpiryDto> expiring(int days, Pageable pageable) {
+        ensureCurrent();
+        lock.readLock().lock();
+        try {
+            int window = Math.min(days, MAX_WINDOW_DAYS);
+            List<Set<Long>> buckets = new ArrayList<>(Math.max(window, 0));
+            for (int day = 1; day <= window; day++) {
+                TreeSet<Long> bucket = upcoming.get(today.plusDays(day));
+                if (bucket != null) {
+                    buckets.add(bucket);
+                }
+            }
+            return page(buckets, pageable);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // cobre o intervalo entre a meia-noite e a execução do agendamento
+    private void ensureCurrent() {
+        LocalDate now = LocalDate.now();
+        lock.readLock().lock();
+        try {
+            if (!today.isBefore(now)) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+        rollForward(now);
+    }
+
+    private Page<ProductExpiryDto> page(List<? extends Set<Long>> buckets, Pageable pageable) {
+        long total = 0;
+        for (Set<Long> bucket : buckets) {
+            total += bucket.size();
+        }
+        long skip = pageable.isPaged() ? pageable.getOffset() : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : (int) Math.min(total, Integer.MAX_VALUE);
+
+        List<ProductExpiryDto> content = new ArrayList<>(Math.min(limit, (int) Math.min(total, Integer.MAX_VALUE)));
+        for (Set<Long> bucket : buckets) {
+            if (content.size() == limit) break;
+            if (skip >= bucket.size()) {
+                skip -= bucket.size();
+                continue;
+            }
+            for (Long id : bucket) {
+                if (skip > 0) {
+                    skip--;
+                    continue;
+                }
+                content.add(entries.get(id));
+                if (content.size() == limit) break;
+            }
+        }
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private void add(ProductExpiryDto entry) {
+        entries.put(entry.id(), entry);
+        bucketFor(entry.expirationDate(), true).add(entry.id());
+    }
+
+    private void remove(Long id) {
+        ProductExpiryDto entry = entries.remove(id);
+        if (entry == null) return;
+        LocalDate date = entry.expirationDate();
+        Set<Long> bucket = bucketFor(date, false);
+        if (bucket != null && bucket.remove(id) && bucket.isEmpty() && date.isAfter(today)) {
+            upcoming.remove(date);
+        }
+    }
+
+    private TreeSet<Long> bucketFor(LocalDate date, boolean create) {
+        if (!date.isAfter(today)) {
+            return expired;
+        }
+        return create ? upcoming.computeIfAbsent(date, d -> new TreeSet<>()) : upcoming.get(date);
+    }
+}
@@ -0,0 +1,329 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductDto;
+import com.api.rest.conveniencestore.product.dto.ProductImportErrorDto;
+import com.api.rest.conveniencestore.product.dto.ProductImportResultDto;
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import com.api.rest.conveniencestore.product.projection.ProductNameProjection;
+import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import com.api.rest.conveniencestore.shared.enums.Category;
+import com.api.rest.conveniencestore.shared.enums.StockMovementType;
+import com.api.rest.conveniencestore.shared.exception.ProductDateInvalidException;
+import com.api.rest.conveniencestore.shared.utils.MessageConstants;
+import com.api.rest.conveniencestore.shared.validation.ProductValidator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Importação de produtos via CSV (name,category,price,stockQuantity,expirationDate).
+ * O corpo é lido linha a linha e gravado em lotes com upsert pelo nome único.
+ */
+@Service
+public class ProductImportService {
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int EXPECTED_COLUMNS = 5;
+    private static final List<String> HEADER = List.of("name", "category", "price", "stockquantity", "expirationdate");
+    // limites das colunas de products: VARCHAR(255) e DECIMAL(10, 2)
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final double MAX_PRICE = 99_999_999.99;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO products (name, category, price, stock_quantity, expiration_date, status, version, change_seq)
+            VALUES (?, ?, ?, ?, ?, 'REGISTERED', 0, ?)
+            ON DUPLICATE KEY UPDATE
+                category = VALUES(category),
+                price = VALUES(price),
+                stock_quantity = VALUES(stock_quantity),
+                expiration_date = VALUES(expiration_date),
+                version = version + 1,
+                change_seq = VALUES(change_seq)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRepository productRepository;
+    private final ProductChangeSequence changeSequence;
+    private final StockLedger stockLedger;
+    private final ProductPriceService productPriceService;
+    private final ProductLotService productLotService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate,
+                                ProductRepository productRepository,
+                                ProductChangeSequence changeSequence,
+                                StockLedger stockLedger,
+                                ProductPriceService productPriceService,
+                                ProductLotService productLotService,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${products.import.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productRepository = productRepository;
+        this.changeSequence = changeSequence;
+        this.stockLedger = stockLedger;
+        this.productPriceService = productPriceService;
+        this.productLotService = productLotService;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    public ProductImportResultDto importCsv(InputStream csv) throws IOException {
+        ImportState state = new ImportState();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || (lineNumber == 1 && isHeader(line))) {
+                continue;
+            }
+            state.processed++;
+            try {
+                batch.add(new ImportRow(lineNumber, parseRow(line)));
+            } catch (IllegalArgumentException | DateTimeParseException | ProductDateInvalidException e) {
+                state.reject(lineNumber, e.getMessage());
+            }
+            if (batch.size() == batchSize) {
+                flush(batch, state);
+            }
+        }
+        flush(batch, state);
+
+        if (!state.productIds.isEmpty()) {
+            eventPublisher.publishEvent(new ProductCatalogChangedEvent(state.productIds));
+        }
+        return new ProductImportResultDto(state.processed, state.imported, state.failed, state.errors);
+    }
+
+    private void flush(List<ImportRow> batch, ImportState state) {
+        if (batch.isEmpty()) return;
+        // o upsert sobrescreveria estoque e validade, que num produto com lotes vêm dos lotes
+        Map<String, Long> existing = idsByName(batch);
+        List<ImportRow> accepted = new ArrayList<>(batch.size());
+        for (ImportRow row : batch) {
+            Long id = existing.get(row.product().name());
+            if (id != null && productLotService.isLotTracked(id)) {
+                state.reject(row.line(), MessageConstants.PRODUCT_LOT_TRACKED_UPDATE);
+            } else {
+                accepted.add(row);
+            }
+        }
+        batch.clear();
+        if (accepted.isEmpty()) return;
+
+        // sem transação: cada lote confirma ao voltar do batchUpdate, então libera as sequências no fim
+        List<Long> sequences = new ArrayList<>(accepted.size());
+        try {
+            List<ImportRow> written;
+            try {
+                write(accepted, sequences);
+                written = accepted;
+            } catch (DataAccessException e) {
+                // o upsert é idempotente: refazer linha a linha isola a que falhou sem perder as válidas
+                written = new ArrayList<>(accepted.size());
+                for (ImportRow row : accepted) {
+                    try {
+                        write(List.of(row), sequences);
+                        written.add(row);
+                    } catch (DataAccessException rowError) {
+                        state.reject(row.line(), "Falha ao gravar produto: " + rowError.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+            if (!written.isEmpty()) {
+                state.imported += written.size();
+                afterBatch(written, existing, state);
+            }
+        } finally {
+            for (Long sequence : sequences) {
+                changeSequence.complete(sequence);
+            }
+        }
+    }
+
+    // o nome é único sem diferenciar maiúsculas no MySQL; o upsert mantém a grafia já gravada
+    private Map<String, Long> idsByName(List<ImportRow> rows) {
+        Set<String> names = new HashSet<>();
+        for (ImportRow row : rows) {
+            names.add(row.product().name());
+        }
+        Map<String, Long> ids = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (ProductNameProjection product : productRepository.findNamesByNameIn(names)) {
+            ids.put(product.getName(), product.getId());
+        }
+        return ids;
+    }
+
+    private void write(List<ImportRow> rows, List<Long> sequences) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, row) -> {
+            ProductDto product = row.product();
+            ps.setString(1, product.name());
+            ps.setString(2, product.category().name());
+            ps.setDouble(3, product.price());
+            ps.setInt(4, product.stockQuantity());
+            if (product.expirationDate() != null) {
+                ps.setDate(5, Date.valueOf(product.expirationDate()));
+            } else {
+                ps.setNull(5, Types.DATE);
+            }
+            long sequence = changeSequence.next();
+            sequences.add(sequence);
+            ps.setLong(6, sequence);
+        });
+    }
+
+    // o upsert não devolve os ids: os já existentes vêm da consulta anterior ao lote e só os
+    // inseridos agora são resolvidos pelo nome; alimenta o ledger de estoque e o histórico de preços.
+    // O índice de busca recebe os ids pelo ProductCatalogChangedEvent, como os demais índices
+    private void afterBatch(List<ImportRow> batch, Map<String, Long> existing, ImportState state) {
+        Map<String, Long> ids = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        List<ImportRow> inserted = new ArrayList<>();
+        for (ImportRow row : batch) {
+            Long id = existing.get(row.product().name());
+            if (id != null) {
+                ids.put(row.product().name(), id);
+            } else {
+                inserted.add(row);
+            }
+        }
+        if (!inserted.isEmpty()) {
+            ids.putAll(idsByName(inserted));
+        }
+        Map<String, ProductDto> rowsByName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (ImportRow row : batch) {
+            rowsByName.put(row.product().name(), row.product());
+        }
+        Map<Long, Double> prices = new HashMap<>();
+        ids.forEach((name, id) -> {
+            state.productIds.add(id);
+            ProductDto imported = rowsByName.get(name);
+            stockLedger.record(id, StockMovementType.IMPORT, imported.stockQuantity(), imported.stockQuantity(), null);
+            prices.put(id, imported.price());
+        });
+        productPriceService.recordCurrent(prices);
+    }
+
+    private ProductDto parseRow(String line) {
+        List<String> columns = splitCsvLine(line);
+        if (columns.size() < EXPECTED_COLUMNS - 1 || columns.size() > EXPECTED_COLUMNS) {
+            throw new IllegalArgumentException("Esperadas " + EXPECTED_COLUMNS + " colunas, encontradas " + columns.size() + ".");
+        }
+        String name = columns.get(0).trim();
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("O nome do produto não pode ser vazio.");
+        }
+        if (name.length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("O nome do produto excede " + MAX_NAME_LENGTH + " caracteres.");
+        }
+        Category category;
+        try {
+            category = Category.fromValueCategory(columns.get(1).trim());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Categoria inválida: " + columns.get(1));
+        }
+        double price = parseNumber(columns.get(2), "preço");
+        if (price > MAX_PRICE) {
+            throw new IllegalArgumentException("Preço acima do máximo permitido: " + columns.get(2));
+        }
+        double stock = parseNumber(columns.get(3), "estoque");
+        if (stock != Math.rint(stock) || stock > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Estoque deve ser um número inteiro: " + columns.get(3));
+        }
+        String expiration = columns.size() == EXPECTED_COLUMNS ? columns.get(4).trim() : "";
+        LocalDate expirationDate = expiration.isEmpty() ? null : LocalDate.parse(expiration);
+
+        ProductDto product = new ProductDto(name, category, price, (int) stock, expirationDate);
+        ProductValidator.validateProduct(product);
+        return product;
+    }
+
+    // NaN e Infinity passam no parseDouble mas não cabem em DECIMAL
+    private static double parseNumber(String value, String field) {
+        double number;
+        try {
+            number = Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido para " + field + ": " + value);
+        }
+        if (!Double.isFinite(number)) {
+            throw new IllegalArgumentException("Valor inválido para " + field + ": " + value);
+        }
+        return number;
+    }
+
+    // só a linha de cabeçalho completa é pulada: um produto chamado "Nameko" na linha 1 é dado
+    private static boolean isHeader(String line) {
+        List<String> columns = splitCsvLine(line).stream().map(c -> c.trim().toLowerCase(Locale.ROOT)).toList();
+        return columns.equals(HEADER) || columns.equals(HEADER.subList(0, EXPECTED_COLUMNS - 1));
+    }
+
+    // separa uma linha CSV respeitando campos entre aspas ("" escapa aspas)
+    static List<String> splitCsvLine(String line) {
+        List<String> columns = new ArrayList<>(EXPECTED_COLUMNS);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                columns.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        columns.add(current.toString());
+        return columns;
+    }
+
+    private record ImportRow(long line, ProductDto product) {
+    }
+
+    private static class ImportState {
+        private long processed;
+        private long imported;
+        private long failed;
+        private final List<ProductImportErrorDto> errors = new ArrayList<>();
+        private final Set<Long> productIds = new HashSet<>();
+
+        private void reject(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ProductImportErrorDto(line, message));
+            }
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductLotDto;
+import com.api.rest.conveniencestore.product.dto.ProductLotRegisterDto;
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import com.api.rest.conveniencestore.product.model.Product;
+import com.api.rest.conveniencestore.product.model.ProductLot;
+import com.api.rest.conveniencestore.product.model.ProductLotAllocation;
+import com.api.rest.conveniencestore.product.repository.ProductLotAllocationRepository;
+import com.api.rest.conveniencestore.product.repository.ProductLotRepository;
+import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import com.api.rest.conveniencestore.shared.enums.Status;
+import com.api.rest.conveniencestore.shared.enums.StockMovementType;
+import com.api.rest.conveniencestore.shared.exception.ProductDateInvalidException;
+import com.api.rest.conveniencestore.shared.exception.ProductInactiveException;
+import com.api.rest.conveniencestore.shared.exception.ProductInsufficientStockException;
+import com.api.rest.conveniencestore.shared.exception.ProductNotFoundException;
+import com.api.rest.conveniencestore.shared.utils.MessageConstants;
+import jakarta.transaction.Transactional;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lotes de produto com saída FEFO (primeiro a vencer, primeiro a sair). Os lotes abertos de
+ * cada produto ficam num min-heap por validade, então escolher os lotes de uma venda custa
+ * O(log n) por lote consumido e não consulta o banco. Para produtos controlados por lote,
+ * stockQuantity é a soma dos lotes abertos e expirationDate é a validade do primeiro lote.
+ */
+@Service
+public class ProductLotService {
+
+    // saldo que o produto já tinha quando recebeu o primeiro lote
+    static final String OPENING_LOT_CODE = "SALDO-INICIAL";
+    static final int MAX_WINDOW_DAYS = 365;
+
+    private static final Comparator<OpenLot> FEFO = Comparator
+            .comparing((OpenLot lot) -> lot.expirationDate, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingLong(lot -> lot.id);
+
+    private final ProductLotRepository lotRepository;
+    private final ProductLotAllocationRepository allocationRepository;
+    private final ProductRepository productRepository;
+    private final StockLedger stockLedger;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Long, PriorityQueue<OpenLot>> heaps = new HashMap<>();
+    private final Map<Long, OpenLot> openLots = new HashMap<>();
+
+    public ProductLotService(ProductLotRepository lotRepository,
+                             ProductLotAllocationRepository allocationRepository,
+                             ProductRepository productRepository,
+                             StockLedger stockLedger,
+                             ApplicationEventPublisher eventPublisher) {
+        this.lotRepository = lotRepository;
+        this.allocationRepository = allocationRepository;
+        this.productRepository = productRepository;
+        this.stockLedger = stockLedger;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // antes dos jobs que rodam na inicialização: a baixa de vencidos lê estes heaps
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void load() {
+        List<Long> tracked = lotRepository.findTrackedProductIds();
+        List<ProductLot> open = lotRepository.findOpenLots();
+        lock.lock();
+        try {
+            heaps.clear();
+            openLots.clear();
+            for (Long productId : tracked) {
+                heaps.put(productId, new PriorityQueue<>(FEFO));
+            }
+            for (ProductLot lot : open) {
+                addOpen(new OpenLot(lot));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isLotTracked(Long productId) {
+        lock.lock();
+        try {
+            return heaps.containsKey(productId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Transactional
+    public ProductLotDto receive(Long productId, ProductLotRegisterDto lotDto) {
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException(String.format(MessageConstants.PRODUCT_NOT_FOUND, productId)));
+        if (product.getStatus() == Status.INACTIVE) {
+            throw new ProductInactiveException(MessageConstants.PRODUCT_INACTIVE_UPDATE);
+        }
+        if (lotDto.expirationDate() != null && lotDto.expirationDate().isBefore(LocalDate.now())) {
+            throw new ProductDateInvalidException(MessageConstants.INVALID_EXPIRATION_DATE);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<ProductLot> created = new ArrayList<>(2);
+        if (!isLotTracked(productId) && product.getStockQuantity() > 0) {
+            created.add(lotRepository.save(new ProductLot(productId, OPENING_LOT_CODE,
+                    product.getStockQuantity(), product.getExpirationDate(), now)));
+        }
+        ProductLot lot = lotRepository.save(new ProductLot(productId, lotDto.lotCode(), lotDto.quantity(), lotDto.expirationDate(), now));
+        created.add(lot);
+
+        int newStock = product.getStockQuantity() + lot.getQuantity();
+        product.setStockQuantity(newStock);
+        product.setExpirationDate(firstExpiration(productId, created));
+        productRepository.save(product);
+        stockLedger.record(productId, StockMovementType.ADJUST, lot.getQuantity(), newStock, null);
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.of(productId));
+
+        afterCommit(() -> {
+            lock.lock();
+            try {
+                heaps.computeIfAbsent(productId, id -> new PriorityQueue<>(FEFO));
+                for (ProductLot createdLot : created) {
+                    addOpen(new OpenLot(createdLot));
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+        return toDto(productId, new OpenLot(lot));
+    }
+
+    /**
+     * Baixa FEFO para uma venda, dentro da transação dela. O saldo é reservado no heap na hora
+     * (duas vendas simultâneas não pegam a mesma unidade) e devolvido se a transação não confirmar.
+     * Atualiza expirationDate do produto; o chamador grava o produto.
+     */
+    public void consume(Long saleId, Product product, int quantity) {
+        Long productId = product.getId();
+        List<Picked> picked = new ArrayList<>();
+        LocalDate nextExpiration;
+        lock.lock();
+        try {
+            PriorityQueue<OpenLot> heap = heaps.get(productId);
+            if (heap == null) return;
+            int remaining = quantity;
+            while (remaining > 0) {
+                OpenLot top = heap.peek();
+                if (top == null) {
+                    giveBack(productId, picked);
+                    throw new ProductInsufficientStockException(MessageConstants.STOCK_CANNOT_BE_NEGATIVE + product.getName());
+                }
+                int take = Math.min(top.remaining, remaining);
+                top.remaining -= take;
+                remaining -= take;
+                picked.add(new Picked(top, take));
+                if (top.remaining == 0) {
+                    heap.poll();
+                    openLots.remove(top.id);
+                }
+            }
+            OpenLot next = heap.peek();
+            nextExpiration = next != null ? next.expirationDate : product.getExpirationDate();
+        } finally {
+            lock.unlock();
+        }
+        onRollback(() -> {
+            lock.lock();
+            try {
+                giveBack(productId, picked);
+            } finally {
+                lock.unlock();
+            }
+        });
+
+        List<ProductLotAllocation> allocations = new ArrayList<>(picked.size());
+        for (Picked pick : picked) {
+            if (lotRepository.consume(pick.lot.id, pick.quantity) == 0) {
+                throw new IllegalStateException("Saldo do lote " + pick.lot.id + " divergente do banco.");
+            }
+            allocations.add(new ProductLotAllocation(saleId, productId, pick.lot.id, pick.quantity));
+        }
+        allocationRepository.saveAll(allocations);
+        product.setExpirationDate(nextExpiration);
+    }
+
+    // cancelamento: devolve a cada lote o que saiu dele na venda
+    public void release(Long saleId, Product product) {
+        Long productId = product.getId();
+        List<ProductLotAllocation> allocations = allocationRepository.findBySaleIdAndProductId(saleId, productId);
+        if (allocations.isEmpty()) return;
+
+        Map<Long, ProductLot> lots = new HashMap<>();
+        for (ProductLot lot : lotRepository.findAllById(allocations.stream().map(ProductLotAllocation::getLotId).toList())) {
+            lots.put(lot.getId(), lot);
+        }
+        List<ProductLot> restored = new ArrayList<>(allocations.size());
+        for (ProductLotAllocation allocation : allocations) {
+            lotRepository.restock(allocation.getLotId(), allocation.getQuantity());
+            restored.add(lots.get(allocation.getLotId()));
+        }
+        allocationRepository.deleteAll(allocations);
+        product.setExpirationDate(firstExpiration(productId, restored));
+
+        afterCommit(() -> {
+            lock.lock();
+            try {
+                heaps.computeIfAbsent(productId, id -> new PriorityQueue<>(FEFO));
+                for (ProductLotAllocation allocation : allocations) {
+                    OpenLot open = openLots.get(allocation.getLotId());
+                    if (open != null) {
+                        open.remaining += allocation.getQuantity();
+                    } else {
+                        ProductLot lot = lots.get(allocation.getLotId());
+                        addOpen(new OpenLot(lot.getId(), productId, lot.getLotCode(), lot.getExpirationDate(), allocation.getQuantity()));
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Baixa os lotes vencidos (validade anterior a {@code today}) e avança a validade dos
+     * produtos para o próximo lote. Produto sem lote restante fica com a validade vencida
+     * e estoque zero, e a desativação por vencimento cuida dele em seguida.
+     */
+    @Transactional
+    public int writeOffExpired(LocalDate today) {
+        Map<Long, List<OpenLot>> expiredByProduct = new HashMap<>();
+        Map<Long, LocalDate> nextExpiration = new HashMap<>();
+        lock.lock();
+        try {
+            for (Map.Entry<Long, PriorityQueue<OpenLot>> entry : heaps.entrySet()) {
+                PriorityQueue<OpenLot> heap = entry.getValue();
+                List<OpenLot> expired = null;
+                LocalDate last = null;
+                while (!heap.isEmpty() && heap.peek().expirationDate != null && heap.peek().expirationDate.isBefore(today)) {
+                    OpenLot lot = heap.poll();
+                    openLots.remove(lot.id);
+                    if (expired == null) expired = new ArrayList<>();
+                    expired.add(lot);
+                    last = lot.expirationDate;
+                }
+                if (expired != null) {
+                    expiredByProduct.put(entry.getKey(), expired);
+                    nextExpiration.put(entry.getKey(), heap.isEmpty() ? last : heap.peek().expirationDate);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (expiredByProduct.isEmpty()) return 0;
+        onRollback(() -> {
+            lock.lock();
+            try {
+                expiredByProduct.values().forEach(lots -> lots.forEach(this::addOpen));
+            } finally {
+                lock.unlock();
+            }
+        });
+
+        int count = 0;
+        for (Map.Entry<Long, List<OpenLot>> entry : expiredByProduct.entrySet()) {
+            List<OpenLot> expired = entry.getValue();
+            lotRepository.writeOff(expired.stream().map(lot -> lot.id).toList());
+            int units = expired.stream().mapToInt(lot -> lot.remaining).sum();
+            Optional<Product> found = productRepository.findById(entry.getKey());
+            if (found.isPresent()) {
+                Product product = found.get();
+                int newStock = Math.max(product.getStockQuantity() - units, 0);
+                product.setStockQuantity(newStock);
+                product.setExpirationDate(nextExpiration.get(entry.getKey()));
+                productRepository.save(product);
+                stockLedger.record(product.getId(), StockMovementType.ADJUST, -units, newStock, null);
+            }
+            count += expired.size();
+        }
+        eventPublisher.publishEvent(new ProductCatalogChangedEvent(new HashSet<>(expiredByProduct.keySet())));
+        return count;
+    }
+
+    public List<ProductLotDto> openLots(Long productId) {
+        lock.lock();
+        try {
+            PriorityQueue<OpenLot> heap = heaps.get(productId);
+            if (heap == null) return List.of();
+            return heap.stream().sorted(FEFO).map(lot -> toDto(productId, lot)).toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // lotes abertos que vencem entre hoje e hoje + days, por validade
+    public List<ProductLotDto> expiringLots(int days) {
+        LocalDate today = LocalDate.now();
+        LocalDate limit = today.plusDays(Math.min(Math.max(days, 0), MAX_WINDOW_DAYS));
+        List<ProductLotDto> result = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Map.Entry<Long, PriorityQueue<OpenLot>> entry : heaps.entrySet()) {
+                for (OpenLot lot : entry.getValue()) {
+                    if (lot.expirationDate != null && !lot.expirationDate.isBefore(today) && !lot.expirationDate.isAfter(limit)) {
+                        result.add(toDto(entry.getKey(), lot));
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        result.sort(Comparator.comparing(ProductLotDto::expirationDate).thenComparing(ProductLotDto::id));
+        return result;
+    }
+
+    // validade do primeiro lote considerando lotes que só entram no heap após o commit
+    private LocalDate firstExpiration(Long productId, List<ProductLot> pending) {
+        List<OpenLot> candidates = new ArrayList<>();
+        for (ProductLot lot : pending) {
+            candidates.add(new OpenLot(lot));
+        }
+        lock.lock();
+        try {
+            PriorityQueue<OpenLot> heap = heaps.get(productId);
+            if (heap != null && !heap.isEmpty()) {
+                candidates.add(heap.peek());
+            }
+        } finally {
+            lock.unlock();
+        }
+        return candidates.stream().min(FEFO).map(lot -> lot.expirationDate).orElse(null);
+    }
+
+    private void addOpen(OpenLot lot) {
+        openLots.put(lot.id, lot);
+        heaps.computeIfAbsent(lot.productId, id -> new PriorityQueue<>(FEFO)).add(lot);
+    }
+
+    // chamado com o lock adquirido
+    private void giveBack(Long productId, List<Picked> picked) {
+        for (Picked pick : picked) {
+            boolean wasClosed = pick.lot.remaining == 0;
+            pick.lot.remaining += pick.quantity;
+            if (wasClosed) {
+                openLots.put(pick.lot.id, pick.lot);
+                heaps.computeIfAbsent(productId, id -> new PriorityQueue<>(FEFO)).add(pick.lot);
+            }
+        }
+    }
+
+    private static ProductLotDto toDto(Long productId, OpenLot lot) {
+        return new ProductLotDto(lot.id, productId, lot.lotCode, lot.remaining, lot.expirationDate);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static void onRollback(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        action.run();
+                    }
+                }
+            });
+        }
+    }
+
+    private static final class OpenLot {
+        private final long id;
+        private final long productId;
+        private final String lotCode;
+        private final LocalDate expirationDate;
+        private int remaining;
+
+        private OpenLot(ProductLot lot) {
+            this(lot.getId(), lot.getProductId(), lot.getLotCode(), lot.getExpirationDate(), lot.getQuantity());
+        }
+
+        private OpenLot(long id, long productId, String lotCode, LocalDate expirationDate, int remaining) {
+            this.id = id;
+            this.productId = productId;
+            this.lotCode = lotCode;
+            this.expirationDate = expirationDate;
+            this.remaining = remaining;
+        }
+    }
+
+    private record Picked(OpenLot lot, int quantity) {
+    }
+}
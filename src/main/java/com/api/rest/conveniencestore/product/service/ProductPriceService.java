@@ -0,0 +1,134 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductPriceDto;
+import com.api.rest.conveniencestore.product.dto.ProductPriceScheduleDto;
+import com.api.rest.conveniencestore.product.dto.ProductUpdateDto;
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import com.api.rest.conveniencestore.product.model.Product;
+import com.api.rest.conveniencestore.product.model.ProductPrice;
+import com.api.rest.conveniencestore.product.repository.ProductPriceRepository;
+import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import com.api.rest.conveniencestore.shared.exception.ProductNotFoundException;
+import com.api.rest.conveniencestore.shared.utils.MessageConstants;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * Histórico de preços com vigência. products.price continua sendo o preço atual lido no
+ * caixa; trocas agendadas ficam em product_prices com applied = false e um timer copia o
+ * preço para o produto no valid_from, então nenhuma leitura compara datas.
+ */
+@Service
+public class ProductPriceService {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO product_prices (product_id, valid_from, price, applied)
+            VALUES (?, ?, ?, TRUE)
+            """;
+
+    private final ProductPriceRepository priceRepository;
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductPriceService(ProductPriceRepository priceRepository,
+                               ProductRepository productRepository,
+                               JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               TaskScheduler taskScheduler,
+                               ApplicationEventPublisher eventPublisher) {
+        this.priceRepository = priceRepository;
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.taskScheduler = taskScheduler;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // aplica o que venceu com a aplicação parada e reagenda o restante
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        LocalDateTime now = LocalDateTime.now();
+        for (ProductPrice pending : priceRepository.findByAppliedFalseOrderByValidFromAsc()) {
+            if (pending.getValidFrom().isAfter(now)) {
+                scheduleSwitch(pending);
+            } else {
+                apply(pending.getId());
+            }
+        }
+    }
+
+    // troca imediata (cadastro/alteração): o produto já foi gravado com o novo preço
+    public void recordCurrent(Long productId, double price) {
+        priceRepository.save(new ProductPrice(productId, LocalDateTime.now(), price, true));
+    }
+
+    public void recordCurrent(Map<Long, Double> prices) {
+        if (prices.isEmpty()) return;
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, new ArrayList<>(prices.entrySet()), prices.size(), (ps, entry) -> {
+            ps.setLong(1, entry.getKey());
+            ps.setTimestamp(2, now);
+            ps.setDouble(3, entry.getValue());
+        });
+    }
+
+    public ProductPriceDto schedule(Long productId, ProductPriceScheduleDto scheduleDto) {
+        if (!productRepository.existsById(productId)) {
+            throw new ProductNotFoundException(String.format(MessageConstants.PRODUCT_NOT_FOUND, productId));
+        }
+        ProductPrice saved = priceRepository.save(new ProductPrice(productId, scheduleDto.validFrom(), scheduleDto.price(), false));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleSwitch(saved);
+                }
+            });
+        } else {
+            scheduleSwitch(saved);
+        }
+        return new ProductPriceDto(saved);
+    }
+
+    public ProductPriceDto priceAt(Long productId, LocalDateTime at) {
+        return priceRepository.findFirstByProductIdAndValidFromLessThanEqualOrderByValidFromDesc(productId, at)
+                .map(ProductPriceDto::new)
+                .orElseThrow(() -> new ProductNotFoundException(String.format(MessageConstants.PRICE_NOT_FOUND, productId, at)));
+    }
+
+    void apply(Long priceId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            ProductPrice pending = priceRepository.findById(priceId).orElse(null);
+            if (pending == null || pending.isApplied()) return;
+            Product product = productRepository.findById(pending.getProductId()).orElse(null);
+            if (product != null) {
+                product.productUpdateData(new ProductUpdateDto(pending.getPrice(), null, null, null));
+                productRepository.save(product);
+                eventPublisher.publishEvent(ProductCatalogChangedEvent.of(product.getId()));
+            }
+            pending.markApplied();
+            priceRepository.save(pending);
+        });
+    }
+
+    private void scheduleSwitch(ProductPrice pending) {
+        Long priceId = pending.getId();
+        taskScheduler.schedule(() -> apply(priceId), pending.getValidFrom().atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,242 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductReorderSuggestionDto;
+import com.api.rest.conveniencestore.product.repository.ReorderSuggestionRepository;
+import com.api.rest.conveniencestore.shared.utils.LongIntHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Cálculo noturno do ponto de pedido. A demanda diária por produto é lida num cursor
+ * forward-only já ordenada por produto, então só os produtos do lote em andamento ficam em
+ * memória; cada lote completo vai para um ForkJoinPool enquanto o cursor segue lendo.
+ * O resultado substitui o conteúdo de reorder_suggestions numa transação.
+ */
+@Component
+public class ProductReorderEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductReorderEngine.class);
+
+    private static final int NO_STOCK = -1;
+    // Connector/J: com Integer.MIN_VALUE o resultado chega linha a linha em vez de inteiro na memória
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private static final String DEMAND_SQL = """
+            SELECT si.product_id, DATE(s.date_sale) AS sale_day, SUM(si.quantity) AS units
+            FROM sales s
+            JOIN sale_items si ON si.sale_id = s.id
+            WHERE s.date_sale >= ?
+              AND s.date_sale < ?
+              AND s.status <> 'CANCELLED'
+            GROUP BY si.product_id, DATE(s.date_sale)
+            ORDER BY si.product_id
+            """;
+    private static final String STOCK_SQL = "SELECT id, stock_quantity FROM products WHERE status <> 'INACTIVE'";
+    private static final String DELETE_SQL = "DELETE FROM reorder_suggestions";
+    private static final String INSERT_SQL = """
+            INSERT INTO reorder_suggestions (product_id, avg_daily_demand, demand_std_dev, lead_time_days,
+                safety_stock, reorder_point, stock_quantity, suggested_quantity, computed_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReorderSuggestionRepository suggestionRepository;
+    private final int windowDays;
+    private final int leadTimeDays;
+    private final double serviceLevelZ;
+    private final int coverageDays;
+    private final int parallelism;
+    private final int taskSize;
+
+    public ProductReorderEngine(JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                ReorderSuggestionRepository suggestionRepository,
+                                @Value("${products.reorder.window-days:90}") int windowDays,
+                                @Value("${products.reorder.lead-time-days:3}") int leadTimeDays,
+                                @Value("${products.reorder.service-level-z:1.65}") double serviceLevelZ,
+                                @Value("${products.reorder.coverage-days:14}") int coverageDays,
+                                @Value("${products.reorder.parallelism:2}") int parallelism,
+                                @Value("${products.reorder.task-size:256}") int taskSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.suggestionRepository = suggestionRepository;
+        this.windowDays = windowDays;
+        this.leadTimeDays = leadTimeDays;
+        this.serviceLevelZ = serviceLevelZ;
+        this.coverageDays = coverageDays;
+        this.parallelism = parallelism;
+        this.taskSize = taskSize;
+    }
+
+    public Page<ProductReorderSuggestionDto> suggestions(Pageable pageable) {
+        return suggestionRepository.findSuggestions(pageable);
+    }
+
+    @Scheduled(cron = "${products.reorder.cron:0 30 1 * * *}")
+    public int run() {
+        long started = System.currentTimeMillis();
+        // só dias completos: a janela termina ontem
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(windowDays);
+        LongIntHashMap stockById = loadStock();
+
+        List<ForkJoinTask<List<Suggestion>>> tasks = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            DemandReader reader = new DemandReader(from, batch -> tasks.add(pool.submit(() -> suggestAll(batch, stockById))));
+            jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(DEMAND_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(STREAMING_FETCH_SIZE);
+                ps.setDate(1, Date.valueOf(from));
+                ps.setDate(2, Date.valueOf(today));
+                return ps;
+            }, reader);
+            reader.finish();
+
+            List<Suggestion> suggestions = new ArrayList<>();
+            for (ForkJoinTask<List<Suggestion>> task : tasks) {
+                suggestions.addAll(task.join());
+            }
+            write(suggestions);
+            log.info("Ponto de pedido calculado para {} produtos em {} ms", suggestions.size(), System.currentTimeMillis() - started);
+            return suggestions.size();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private LongIntHashMap loadStock() {
+        LongIntHashMap stockById = new LongIntHashMap(1024);
+        jdbcTemplate.query(STOCK_SQL, (RowCallbackHandler) rs -> stockById.put(rs.getLong("id"), rs.getInt("stock_quantity")));
+        return stockById;
+    }
+
+    private List<Suggestion> suggestAll(List<ProductDemand> batch, LongIntHashMap stockById) {
+        List<Suggestion> suggestions = new ArrayList<>(batch.size());
+        for (ProductDemand demand : batch) {
+            int stock = stockById.get(demand.productId(), NO_STOCK);
+            // produto inativo ou removido depois da venda: não há o que repor
+            if (stock != NO_STOCK) {
+                suggestions.add(suggest(demand.productId(), demand.dailyUnits(), stock));
+            }
+        }
+        return suggestions;
+    }
+
+    // dias sem venda contam como demanda zero; estoque de segurança = z * desvio * raiz(prazo)
+    Suggestion suggest(long productId, int[] dailyUnits, int stock) {
+        double sum = 0;
+        double sumSquares = 0;
+        for (int units : dailyUnits) {
+            sum += units;
+            sumSquares += (double) units * units;
+        }
+        double mean = sum / dailyUnits.length;
+        double stdDev = Math.sqrt(Math.max(sumSquares / dailyUnits.length - mean * mean, 0));
+        int safetyStock = (int) Math.ceil(serviceLevelZ * stdDev * Math.sqrt(leadTimeDays));
+        int reorderPoint = (int) Math.ceil(mean * leadTimeDays) + safetyStock;
+        int target = reorderPoint + (int) Math.ceil(mean * coverageDays);
+        int suggested = stock <= reorderPoint ? Math.max(target - stock, 0) : 0;
+        return new Suggestion(productId, round(mean), round(stdDev), safetyStock, reorderPoint, stock, suggested);
+    }
+
+    private void write(List<Suggestion> suggestions) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update(DELETE_SQL);
+            jdbcTemplate.batchUpdate(INSERT_SQL, suggestions, INSERT_BATCH_SIZE, (ps, s) -> {
+                ps.setLong(1, s.productId());
+                ps.setDouble(2, s.avgDailyDemand());
+                ps.setDouble(3, s.demandStdDev());
+                ps.setInt(4, leadTimeDays);
+                ps.setInt(5, s.safetyStock());
+                ps.setInt(6, s.reorderPoint());
+                ps.setInt(7, s.stockQuantity());
+                ps.setInt(8, s.suggestedQuantity());
+                ps.setTimestamp(9, now);
+            });
+        });
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+
+    record Suggestion(long productId, double avgDailyDemand, double demandStdDev, int safetyStock,
+                      int reorderPoint, int stockQuantity, int suggestedQuantity) {
+    }
+
+    private record ProductDemand(long productId, int[] dailyUnits) {
+    }
+
+    // as linhas chegam ordenadas por produto: troca de product_id fecha a série do anterior
+    private final class DemandReader implements RowCallbackHandler {
+
+        private final LocalDate from;
+        private final Consumer<List<ProductDemand>> submit;
+        private List<ProductDemand> batch = new ArrayList<>(taskSize);
+        private long currentProduct = -1;
+        private int[] currentDays;
+
+        DemandReader(LocalDate from, Consumer<List<ProductDemand>> submit) {
+            this.from = from;
+            this.submit = submit;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long productId = rs.getLong("product_id");
+            if (productId != currentProduct) {
+                closeCurrent();
+                currentProduct = productId;
+                currentDays = new int[windowDays];
+            }
+            int day = (int) ChronoUnit.DAYS.between(from, rs.getDate("sale_day").toLocalDate());
+            if (day >= 0 && day < windowDays) {
+                currentDays[day] += rs.getInt("units");
+            }
+        }
+
+        void finish() {
+            closeCurrent();
+            if (!batch.isEmpty()) {
+                submit.accept(batch);
+                batch = new ArrayList<>(taskSize);
+            }
+        }
+
+        private void closeCurrent() {
+            if (currentDays == null) return;
+            batch.add(new ProductDemand(currentProduct, currentDays));
+            currentDays = null;
+            if (batch.size() == taskSize) {
+                submit.accept(batch);
+                batch = new ArrayList<>(taskSize);
+            }
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductSearchDto;
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import com.api.rest.conveniencestore.product.projection.ProductNameProjection;
+import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice em memória dos nomes de produtos para a busca do caixa.
+ * Prefixo por array ordenado de termos (nome completo e cada palavra) e
+ * trigramas para tolerar erros de digitação. Nenhuma busca consulta o banco.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final int MIN_FUZZY_QUERY_LENGTH = 3;
+    private static final double MIN_SIMILARITY = 0.3;
+
+    private final ProductRepository productRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, String> names = new HashMap<>();
+
+    // termos normalizados em ordem, com o id do produto na mesma posição
+    private String[] terms = new String[0];
+    private long[] termIds = new long[0];
+    private int size;
+
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, Integer> trigramCounts = new HashMap<>();
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<ProductNameProjection> all = productRepository.findAllNames();
+        lock.writeLock().lock();
+        try {
+            names.clear();
+            postings.clear();
+            trigramCounts.clear();
+            // todos os termos de uma vez e uma única ordenação: inserir um a um desloca o array a cada termo
+            List<TermEntry> entries = new ArrayList<>();
+            for (ProductNameProjection p : all) {
+                if (p.getId() == null || p.getName() == null) continue;
+                for (String term : addName(p.getId(), p.getName())) {
+                    entries.add(new TermEntry(term, p.getId()));
+                }
+            }
+            entries.sort(Comparator.comparing(TermEntry::term).thenComparingLong(TermEntry::id));
+            size = entries.size();
+            terms = new String[Math.max(16, size)];
+            termIds = new long[terms.length];
+            for (int i = 0; i < size; i++) {
+                terms[i] = entries.get(i).term();
+                termIds[i] = entries.get(i).id();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // nomes não mudam depois do cadastro: só produtos ainda desconhecidos precisam ser lidos
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(ProductCatalogChangedEvent event) {
+        List<Long> missing;
+        lock.readLock().lock();
+        try {
+            missing = event.productIds().stream().filter(id -> !names.containsKey(id)).toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (missing.isEmpty()) return;
+        for (ProductNameProjection product : productRepository.findNamesByIdIn(missing)) {
+            put(product.getId(), product.getName());
+        }
+    }
+
+    public void put(Long id, String name) {
+        if (id == null || name == null) return;
+        lock.writeLock().lock();
+        try {
+            String current = names.get(id);
+            if (name.equals(current)) return;
+            if (current != null) {
+                remove(id, current);
+            }
+            add(id, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ProductSearchDto> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Set<Long> hits = new LinkedHashSet<>();
+            for (int i = lowerBound(normalized); i < size && hits.size() < limit && terms[i].startsWith(normalized); i++) {
+                hits.add(termIds[i]);
+            }
+            // trigramas só entram quando o prefixo não achou nada (provável erro de digitação)
+            if (hits.isEmpty() && normalized.length() >= MIN_FUZZY_QUERY_LENGTH) {
+                hits.addAll(fuzzyMatches(normalized, limit));
+            }
+
+            List<ProductSearchDto> result = new ArrayList<>(hits.size());
+            for (Long id : hits) {
+                result.add(new ProductSearchDto(id, names.get(id)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<Long> fuzzyMatches(String normalized, int limit) {
+        Set<String> queryTrigrams = trigrams(normalized);
+        Map<Long, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids == null) continue;
+            for (Long id : ids) {
+                shared.merge(id, 1, Integer::sum);
+            }
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        shared.forEach((id, count) -> {
+            double similarity = 2.0 * count / (queryTrigrams.size() + trigramCounts.get(id));
+            if (similarity >= MIN_SIMILARITY) {
+                scores.put(id, similarity);
+            }
+        });
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(e -> names.get(e.getKey())))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private void add(Long id, String name) {
+        for (String term : addName(id, name)) {
+            insertTerm(term, id);
+        }
+    }
+
+    // registra nome e trigramas; os termos de prefixo ficam com quem chamou
+    private Set<String> addName(Long id, String name) {
+        names.put(id, name);
+        String normalized = normalize(name);
+        Set<String> nameTrigrams = trigrams(normalized);
+        for (String trigram : nameTrigrams) {
+            postings.computeIfAbsent(trigram, t -> new HashSet<>()).add(id);
+        }
+        trigramCounts.put(id, nameTrigrams.size());
+        return terms(normalized);
+    }
+
+    private void remove(Long id, String name) {
+        names.remove(id);
+        String normalized = normalize(name);
+        for (String term : terms(normalized)) {
+            removeTerm(term, id);
+        }
+        for (String trigram : trigrams(normalized)) {
+            Set<Long> ids = postings.get(trigram);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                postings.remove(trigram);
+            }
+        }
+        trigramCounts.remove(id);
+    }
+
+    private void insertTerm(String term, long id) {
+        int pos = lowerBound(term);
+        if (size == terms.length) {
+            int capacity = Math.max(16, size * 2);
+            terms = Arrays.copyOf(terms, capacity);
+            termIds = Arrays.copyOf(termIds, capacity);
+        }
+        System.arraycopy(terms, pos, terms, pos + 1, size - pos);
+        System.arraycopy(termIds, pos, termIds, pos + 1, size - pos);
+        terms[pos] = term;
+        termIds[pos] = id;
+        size++;
+    }
+
+    private void removeTerm(String term, long id) {
+        for (int pos = lowerBound(term); pos < size && terms[pos].equals(term); pos++) {
+            if (termIds[pos] == id) {
+                System.arraycopy(terms, pos + 1, terms, pos, size - pos - 1);
+                System.arraycopy(termIds, pos + 1, termIds, pos, size - pos - 1);
+                size--;
+                terms[size] = null;
+                return;
+            }
+        }
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // nome completo + cada palavra a partir da segunda, para achar "cola" em "coca cola"
+    private static Set<String> terms(String normalized) {
+        Set<String> result = new LinkedHashSet<>();
+        if (normalized.isEmpty()) return result;
+        result.add(normalized);
+        String[] words = normalized.split(" ");
+        for (int i = 1; i < words.length; i++) {
+            result.add(words[i]);
+        }
+        return result;
+    }
+
+    private static Set<String> trigrams(String normalized) {
+        Set<String> result = new HashSet<>();
+        for (String word : normalized.split(" ")) {
+            if (word.isEmpty()) continue;
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                result.add(padded.substring(i, i + 3));
+            }
+        }
+        return result;
+    }
+
+    static String normalize(String value) {
+        if (value == null) return "";
+        String withoutAccents = Normalizer.normalize(value, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return withoutAccents.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", " ").trim();
+    }
+
+    private record TermEntry(String term, long id) {
+    }
+}
@@ -1,30 +1,87 @@
 package com.api.rest.conveniencestore.product.service;
 
+import com.api.rest.conveniencestore.product.dto.ProductBarcodeDto;
+import com.api.rest.conveniencestore.product.dto.ProductChangeDto;
+import com.api.rest.conveniencestore.product.dto.ProductChangesDto;
 import com.api.rest.conveniencestore.product.dto.ProductDto;
+import com.api.rest.conveniencestore.product.dto.ProductExpiryDto;
 import com.api.rest.conveniencestore.product.dto.ProductListingDto;
+import com.api.rest.conveniencestore.product.dto.ProductSearchDto;
+import com.api.rest.conveniencestore.product.dto.ProductStockAtDto;
 import com.api.rest.conveniencestore.product.dto.ProductUpdateDto;
+import com.api.rest.conveniencestore.product.dto.ProductVelocityDto;
+import com.api.rest.conveniencestore.product.event.ProductBarcodeRegisteredEvent;
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import com.api.rest.conveniencestore.shared.enums.Category;
 import com.api.rest.conveniencestore.shared.enums.Status;
+import com.api.rest.conveniencestore.shared.enums.StockMovementType;
 import com.api.rest.conveniencestore.shared.exception.ProductDateInvalidException;
 import com.api.rest.conveniencestore.shared.exception.ProductInactiveException;
 import com.api.rest.conveniencestore.shared.exception.ProductNotFoundException;
 import com.api.rest.conveniencestore.product.model.Product;
+import com.api.rest.conveniencestore.product.model.ProductBarcode;
+import com.api.rest.conveniencestore.product.repository.ProductBarcodeRepository;
 import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import com.api.rest.conveniencestore.shared.exception.UserRegistrationException;
+import com.api.rest.conveniencestore.shared.validation.BarcodeValidator;
+import com.api.rest.conveniencestore.shared.validation.ProductValidator;
 import com.api.rest.conveniencestore.shared.utils.MessageConstants;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import jakarta.transaction.Transactional;
 
-import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
 public class ProductService {
 
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final int MAX_CHANGES_PAGE = 1000;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductBarcodeRepository productBarcodeRepository;
+
+    @Autowired
+    private ProductBarcodeIndex productBarcodeIndex;
+
+    @Autowired
+    private ProductExpiryIndex productExpiryIndex;
+
+    @Autowired
+    private ProductCatalogWatermark catalogWatermark;
+
+    @Autowired
+    private ProductChangeSequence productChangeSequence;
+
+    @Autowired
+    private LowStockDetector lowStockDetector;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private ProductVelocityTracker velocityTracker;
+
+    @Autowired
+    private ProductLotService productLotService;
+
+    @Autowired
+    private ProductPriceService productPriceService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public boolean existsByName(String name) {
         return productRepository.existsByName(name);
     }
@@ -35,21 +92,43 @@ public class ProductService {
 
     @Transactional
     public Product registerProduct(ProductDto productDto) {
-        if (productDto.price() <= 0) {
-            throw new ProductDateInvalidException(MessageConstants.INVALID_PRICE);
-        }
-        if (productDto.stockQuantity() < 0) {
-            throw new ProductDateInvalidException(MessageConstants.INVALID_STOCK);
+        ProductValidator.validateProduct(productDto);
+        Product savedProduct = productRepository.save(new Product(productDto));
+        if (savedProduct.getStockQuantity() != 0) {
+            stockLedger.record(savedProduct.getId(), StockMovementType.ADJUST,
+                    savedProduct.getStockQuantity(), savedProduct.getStockQuantity(), null);
         }
-        if (productDto.expirationDate() != null && productDto.expirationDate().isBefore(LocalDate.now())) {
-            throw new ProductDateInvalidException(MessageConstants.INVALID_EXPIRATION_DATE);
+        productPriceService.recordCurrent(savedProduct.getId(), savedProduct.getPrice());
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.of(savedProduct.getId()));
+        return savedProduct;
+    }
+
+    // projeção direto no DTO: sem entidades gerenciadas, snapshots de dirty-check ou @Version
+    public Page<ProductListingDto> listProducts(Category category, Status status, Pageable pageable) {
+        return productRepository.findListing(category, status, pageable)
+                .map(product -> product.withDaysOfStockLeft(velocityTracker.daysOfStockLeft(product.id(), product.stockQuantity())));
+    }
+
+    public String catalogETag(Category category, Status status, Pageable pageable) {
+        return catalogWatermark.eTag(pageable, category, status);
+    }
+
+    // token = último change_seq entregue; nunca passa de um valor com transação pendente
+    public ProductChangesDto findChanges(long since, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_CHANGES_PAGE);
+        long from = Math.max(since, 0);
+        long upTo = productChangeSequence.stableWatermark();
+        if (from >= upTo) {
+            return new ProductChangesDto(from, false, List.of());
         }
-        return productRepository.save(new Product(productDto));
+        List<ProductChangeDto> changes = productRepository.findChanges(from, upTo, PageRequest.of(0, pageSize));
+        boolean hasMore = changes.size() == pageSize;
+        long token = hasMore ? changes.get(changes.size() - 1).changeSeq() : upTo;
+        return new ProductChangesDto(token, hasMore, changes);
     }
 
-    public Page<ProductListingDto> listProducts(Pageable pageable) {
-        return productRepository.findAll(pageable)
-                .map(ProductListingDto::new);
+    public List<ProductSearchDto> searchProducts(String query, int limit) {
+        return productSearchIndex.search(query, Math.min(limit, MAX_SEARCH_RESULTS));
     }
 
     @Transactional
@@ -64,7 +143,50 @@ public class ProductService {
             throw new ProductInactiveException(MessageConstants.PRODUCT_INACTIVE_UPDATE);
         }
 
+        if (productLotService.isLotTracked(id) && changesLotDerivedFields(product, updateDto)) {
+            throw new IllegalArgumentException(MessageConstants.PRODUCT_LOT_TRACKED_UPDATE);
+        }
+
+        int previousStock = product.getStockQuantity();
+        double previousPrice = product.getPrice();
         product.productUpdateData(updateDto);
+        Product savedProduct = productRepository.save(product);
+        if (savedProduct.getStockQuantity() != previousStock) {
+            stockLedger.record(savedProduct.getId(), StockMovementType.ADJUST,
+                    savedProduct.getStockQuantity() - previousStock, savedProduct.getStockQuantity(), null);
+        }
+        if (savedProduct.getPrice() != previousPrice) {
+            productPriceService.recordCurrent(savedProduct.getId(), savedProduct.getPrice());
+        }
+        lowStockDetector.check(savedProduct, previousStock);
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.of(savedProduct.getId()));
+        return savedProduct;
+    }
+
+    private static boolean changesLotDerivedFields(Product product, ProductUpdateDto updateDto) {
+        return (updateDto.stockQuantity() != null && updateDto.stockQuantity() != product.getStockQuantity())
+                || (updateDto.expirationDate() != null && !updateDto.expirationDate().equals(product.getExpirationDate()));
+    }
+
+    public ProductStockAtDto stockAt(Long id, LocalDateTime at) {
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException(String.format(MessageConstants.PRODUCT_NOT_FOUND, id)));
+        return stockLedger.stockAt(id, at, product.getStockQuantity());
+    }
+
+    public ProductVelocityDto velocity(Long id) {
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException(String.format(MessageConstants.PRODUCT_NOT_FOUND, id)));
+        double unitsPerHour = velocityTracker.unitsPerHour(id);
+        return new ProductVelocityDto(id, unitsPerHour, unitsPerHour * 24, product.getStockQuantity(),
+                velocityTracker.daysOfStockLeft(id, product.getStockQuantity()));
+    }
+
+    @Transactional
+    public Product updateLowStockThreshold(Long id, Integer threshold) {
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException(String.format(MessageConstants.PRODUCT_NOT_FOUND, id)));
+        product.setLowStockThreshold(threshold);
         return productRepository.save(product);
     }
 
@@ -73,7 +195,31 @@ public class ProductService {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new ProductNotFoundException(String.format(MessageConstants.PRODUCT_NOT_FOUND, id)));
         product.setStatus(status);
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(ProductCatalogChangedEvent.of(savedProduct.getId()));
+        return savedProduct;
+    }
+
+    @Transactional
+    public ProductBarcodeDto registerBarcode(Long id, String code) {
+        long barcode = BarcodeValidator.parseBarcode(code);
+        Product product = productRepository.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException(String.format(MessageConstants.PRODUCT_NOT_FOUND, id)));
+        if (productBarcodeRepository.existsByCode(barcode)) {
+            throw new UserRegistrationException(MessageConstants.BARCODE_ALREADY_EXISTS + code);
+        }
+        productBarcodeRepository.save(new ProductBarcode(product.getId(), barcode));
+        eventPublisher.publishEvent(new ProductBarcodeRegisteredEvent(barcode, product.getId(), product.getName(), product.getPrice(), product.getStatus()));
+        return new ProductBarcodeDto(BarcodeValidator.formatBarcode(barcode), product.getId(), product.getName(), product.getPrice(), product.getStatus());
+    }
+
+    public ProductBarcodeDto findByBarcode(String code) {
+        long barcode = BarcodeValidator.parseBarcode(code);
+        ProductBarcodeDto product = productBarcodeIndex.find(barcode);
+        if (product == null) {
+            throw new ProductNotFoundException(String.format(MessageConstants.BARCODE_NOT_FOUND, code));
+        }
+        return product;
     }
 
     @Transactional
@@ -81,12 +227,11 @@ public class ProductService {
         return updateProductStatus(id, status);
     }
 
-    public List<Product> searchExpiredProducts() {
-        return productRepository.findByExpirationDateLessThanEqual(LocalDate.now());
+    public Page<ProductExpiryDto> searchExpiredProducts(Pageable pageable) {
+        return productExpiryIndex.expired(pageable);
     }
 
-    public List<Product> searchProductsNearExpiration(int days) {
-        LocalDate today = LocalDate.now();
-        return productRepository.findByExpirationDateBetween(today.plusDays(1), today.plusDays(days));
+    public Page<ProductExpiryDto> searchProductsNearExpiration(int days, Pageable pageable) {
+        return productExpiryIndex.expiring(days, pageable);
     }
 }
@@ -0,0 +1,57 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductChangeDto;
+import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import com.api.rest.conveniencestore.product.snapshot.ProductSnapshotWriter;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * Snapshot binário do catálogo para a carga inicial dos terminais.
+ * Gerado uma vez por versão do catálogo (marca d'água) e servido do cache até a próxima alteração.
+ */
+@Service
+public class ProductSnapshotService {
+
+    private final ProductRepository productRepository;
+    private final ProductCatalogWatermark catalogWatermark;
+    private final ProductChangeSequence changeSequence;
+
+    private volatile CachedSnapshot cached;
+
+    public ProductSnapshotService(ProductRepository productRepository,
+                                  ProductCatalogWatermark catalogWatermark,
+                                  ProductChangeSequence changeSequence) {
+        this.productRepository = productRepository;
+        this.catalogWatermark = catalogWatermark;
+        this.changeSequence = changeSequence;
+    }
+
+    public byte[] snapshot(boolean gzip) {
+        String version = catalogWatermark.current();
+        CachedSnapshot current = cached;
+        if (current == null || !current.catalogVersion().equals(version)) {
+            current = rebuild(version);
+        }
+        return gzip ? current.gzipped() : current.raw();
+    }
+
+    private synchronized CachedSnapshot rebuild(String version) {
+        CachedSnapshot current = cached;
+        if (current != null && current.catalogVersion().equals(version)) {
+            return current;
+        }
+        // token lido antes da consulta: linhas mais novas só fazem o terminal recebê-las de novo no delta
+        long token = changeSequence.stableWatermark();
+        List<ProductChangeDto> products = productRepository.findAllForSnapshot();
+        ByteBuffer snapshot = ProductSnapshotWriter.write(token, products);
+        current = new CachedSnapshot(version, snapshot.array(), ProductSnapshotWriter.gzip(snapshot));
+        cached = current;
+        return current;
+    }
+
+    private record CachedSnapshot(String catalogVersion, byte[] raw, byte[] gzipped) {
+    }
+}
@@ -0,0 +1,231 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductBulkUpdateErrorDto;
+import com.api.rest.conveniencestore.product.dto.ProductStocktakeCategoryDto;
+import com.api.rest.conveniencestore.product.dto.ProductStocktakeCountDto;
+import com.api.rest.conveniencestore.product.dto.ProductStocktakeResultDto;
+import com.api.rest.conveniencestore.product.dto.ProductStocktakeVarianceDto;
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import com.api.rest.conveniencestore.shared.enums.Category;
+import com.api.rest.conveniencestore.shared.enums.StockMovementType;
+import com.api.rest.conveniencestore.shared.utils.MessageConstants;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inventário: recebe as contagens da loja inteira, ordena por id e cruza com o estoque atual
+ * num merge único, lendo os produtos em blocos pela chave primária. Os ajustes vão num
+ * batchUpdate só, dentro de uma transação com tempo limite.
+ */
+@Service
+public class ProductStocktakeService {
+
+    private static final String SELECT_SQL = """
+            SELECT id, name, category, price, stock_quantity, low_stock_threshold
+            FROM products
+            WHERE id IN (%s)
+            ORDER BY id
+            """;
+    // só aplica se o estoque ainda é o lido: uma venda no meio do inventário vira erro, não ajuste errado
+    private static final String UPDATE_SQL = """
+            UPDATE products
+            SET stock_quantity = ?,
+                version = version + 1,
+                change_seq = ?
+            WHERE id = ?
+              AND stock_quantity = ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductChangeSequence changeSequence;
+    private final ProductLotService productLotService;
+    private final StockLedger stockLedger;
+    private final LowStockDetector lowStockDetector;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final int maxItems;
+
+    public ProductStocktakeService(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   ProductChangeSequence changeSequence,
+                                   ProductLotService productLotService,
+                                   StockLedger stockLedger,
+                                   LowStockDetector lowStockDetector,
+                                   ApplicationEventPublisher eventPublisher,
+                                   @Value("${products.stocktake.chunk-size:1000}") int chunkSize,
+                                   @Value("${products.stocktake.max-items:50000}") int maxItems,
+                                   @Value("${products.stocktake.timeout-seconds:30}") int timeoutSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setTimeout(timeoutSeconds);
+        this.changeSequence = changeSequence;
+        this.productLotService = productLotService;
+        this.stockLedger = stockLedger;
+        this.lowStockDetector = lowStockDetector;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    public ProductStocktakeResultDto submit(List<ProductStocktakeCountDto> counts) {
+        if (counts.size() > maxItems) {
+            throw new IllegalArgumentException(String.format(MessageConstants.STOCKTAKE_TOO_LARGE, maxItems));
+        }
+        List<ProductBulkUpdateErrorDto> errors = new ArrayList<>();
+        List<ProductStocktakeCountDto> sorted = uniqueSortedCounts(counts, errors);
+        return transactionTemplate.execute(status -> apply(counts.size(), sorted, errors));
+    }
+
+    // um id contado duas vezes não tem contagem confiável: todas as linhas dele são recusadas
+    private static List<ProductStocktakeCountDto> uniqueSortedCounts(List<ProductStocktakeCountDto> counts,
+                                                                     List<ProductBulkUpdateErrorDto> errors) {
+        List<ProductStocktakeCountDto> sorted = new ArrayList<>(counts);
+        sorted.sort(Comparator.comparing(ProductStocktakeCountDto::productId));
+        List<ProductStocktakeCountDto> unique = new ArrayList<>(sorted.size());
+        int i = 0;
+        while (i < sorted.size()) {
+            int j = i + 1;
+            while (j < sorted.size() && sorted.get(j).productId().equals(sorted.get(i).productId())) {
+                j++;
+            }
+            if (j - i == 1) {
+                unique.add(sorted.get(i));
+            } else {
+                errors.add(new ProductBulkUpdateErrorDto(sorted.get(i).productId(), MessageConstants.STOCKTAKE_DUPLICATE_COUNT));
+            }
+            i = j;
+        }
+        return unique;
+    }
+
+    private ProductStocktakeResultDto apply(int requested, List<ProductStocktakeCountDto> counts,
+                                            List<ProductBulkUpdateErrorDto> errors) {
+        List<Adjustment> adjustments = new ArrayList<>();
+        List<Adjustment> matched = new ArrayList<>(counts.size());
+        for (int from = 0; from < counts.size(); from += chunkSize) {
+            merge(counts.subList(from, Math.min(from + chunkSize, counts.size())), matched, adjustments, errors);
+        }
+
+        Set<Long> conflicted = new LinkedHashSet<>();
+        if (!adjustments.isEmpty()) {
+            int[][] results = jdbcTemplate.batchUpdate(UPDATE_SQL, adjustments, adjustments.size(), (ps, adjustment) -> {
+                ps.setInt(1, adjustment.counted());
+                ps.setLong(2, changeSequence.next());
+                ps.setLong(3, adjustment.row().id());
+                ps.setInt(4, adjustment.row().stock());
+            });
+            int index = 0;
+            for (int[] batch : results) {
+                for (int count : batch) {
+                    Adjustment adjustment = adjustments.get(index++);
+                    if (count == 0) {
+                        conflicted.add(adjustment.row().id());
+                        errors.add(new ProductBulkUpdateErrorDto(adjustment.row().id(), MessageConstants.STOCKTAKE_STOCK_CHANGED));
+                    }
+                }
+            }
+        }
+
+        Set<Long> adjustedIds = new LinkedHashSet<>();
+        List<ProductStocktakeVarianceDto> variances = new ArrayList<>();
+        Map<Category, CategoryTotals> totals = new EnumMap<>(Category.class);
+        CategoryTotals overall = new CategoryTotals();
+        for (Adjustment adjustment : matched) {
+            CurrentRow row = adjustment.row();
+            if (conflicted.contains(row.id())) continue;
+            int unitsVariance = adjustment.counted() - row.stock();
+            double valueVariance = unitsVariance * row.price();
+            totals.computeIfAbsent(row.category(), category -> new CategoryTotals()).add(unitsVariance, valueVariance);
+            overall.add(unitsVariance, valueVariance);
+            if (unitsVariance == 0) continue;
+
+            variances.add(new ProductStocktakeVarianceDto(row.id(), row.name(), row.category(),
+                    row.stock(), adjustment.counted(), unitsVariance, roundCents(valueVariance)));
+            adjustedIds.add(row.id());
+            stockLedger.record(row.id(), StockMovementType.ADJUST, unitsVariance, adjustment.counted(), null);
+            lowStockDetector.check(row.id(), row.name(), row.category(), row.lowStockThreshold(), row.stock(), adjustment.counted());
+        }
+
+        List<ProductStocktakeCategoryDto> categories = new ArrayList<>(totals.size());
+        totals.forEach((category, categoryTotals) -> categories.add(new ProductStocktakeCategoryDto(category,
+                categoryTotals.products, categoryTotals.units, roundCents(categoryTotals.value))));
+        if (!adjustedIds.isEmpty()) {
+            eventPublisher.publishEvent(new ProductCatalogChangedEvent(adjustedIds));
+        }
+        return new ProductStocktakeResultDto(requested, adjustedIds.size(), overall.units, roundCents(overall.value),
+                variances, categories, errors);
+    }
+
+    // contagens e linhas do banco vêm ordenadas por id: um ponteiro em cada lista
+    private void merge(List<ProductStocktakeCountDto> chunk, List<Adjustment> matched,
+                       List<Adjustment> adjustments, List<ProductBulkUpdateErrorDto> errors) {
+        String placeholders = String.join(",", Collections.nCopies(chunk.size(), "?"));
+        List<CurrentRow> rows = jdbcTemplate.query(String.format(SELECT_SQL, placeholders),
+                (rs, rowNum) -> new CurrentRow(
+                        rs.getLong("id"),
+                        rs.getString("name"),
+                        Category.valueOf(rs.getString("category")),
+                        rs.getDouble("price"),
+                        rs.getInt("stock_quantity"),
+                        rs.getObject("low_stock_threshold", Integer.class)),
+                chunk.stream().map(ProductStocktakeCountDto::productId).toArray());
+
+        int r = 0;
+        for (ProductStocktakeCountDto count : chunk) {
+            long id = count.productId();
+            while (r < rows.size() && rows.get(r).id() < id) {
+                r++;
+            }
+            if (r == rows.size() || rows.get(r).id() != id) {
+                errors.add(new ProductBulkUpdateErrorDto(id, String.format(MessageConstants.PRODUCT_NOT_FOUND, id)));
+                continue;
+            }
+            CurrentRow row = rows.get(r++);
+            if (productLotService.isLotTracked(id)) {
+                errors.add(new ProductBulkUpdateErrorDto(id, MessageConstants.PRODUCT_LOT_TRACKED_UPDATE));
+                continue;
+            }
+            Adjustment adjustment = new Adjustment(row, count.counted());
+            matched.add(adjustment);
+            if (count.counted() != row.stock()) {
+                adjustments.add(adjustment);
+            }
+        }
+    }
+
+    private static double roundCents(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    private record CurrentRow(long id, String name, Category category, double price, int stock, Integer lowStockThreshold) {
+    }
+
+    private record Adjustment(CurrentRow row, int counted) {
+    }
+
+    private static final class CategoryTotals {
+        private int products;
+        private int units;
+        private double value;
+
+        void add(int unitsVariance, double valueVariance) {
+            products++;
+            units += unitsVariance;
+            value += valueVariance;
+        }
+    }
+}
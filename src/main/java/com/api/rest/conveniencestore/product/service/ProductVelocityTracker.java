@@ -0,0 +1,219 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.model.ProductVelocity;
+import com.api.rest.conveniencestore.product.repository.ProductVelocityRepository;
+import com.api.rest.conveniencestore.shared.utils.LongIntHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Média móvel exponencial de unidades vendidas por hora, por produto. Cada venda soma
+ * quantidade/tau ao valor decaído até o instante dela, então a atualização é O(1) e não
+ * consulta sale_items. Os valores ficam em arrays primitivos indexados pelo slot do produto
+ * e são gravados periodicamente em product_velocity para sobreviver a reinícios.
+ */
+@Component
+public class ProductVelocityTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductVelocityTracker.class);
+
+    private static final int NO_SLOT = -1;
+    private static final double MILLIS_PER_HOUR = 3_600_000d;
+    // abaixo disso o produto é considerado parado (menos de uma unidade a cada ~40 dias)
+    private static final double MIN_UNITS_PER_HOUR = 0.001;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO product_velocity (product_id, units_per_hour, updated_at)
+            VALUES (?, ?, ?)
+            ON DUPLICATE KEY UPDATE
+                units_per_hour = VALUES(units_per_hour),
+                updated_at = VALUES(updated_at)
+            """;
+
+    private final ProductVelocityRepository velocityRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final double tauMillis;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongIntHashMap slotsByProduct = new LongIntHashMap(1024);
+    private long[] productIds = new long[64];
+    private double[] rates = new double[64];
+    private long[] updatedAt = new long[64];
+    private final BitSet dirty = new BitSet();
+    private int slotCount;
+
+    public ProductVelocityTracker(ProductVelocityRepository velocityRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  @Value("${products.velocity.half-life-hours:72}") double halfLifeHours) {
+        this.velocityRepository = velocityRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.tauMillis = halfLifeHours * MILLIS_PER_HOUR / Math.log(2);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        List<ProductVelocity> checkpoints = velocityRepository.findAll();
+        lock.writeLock().lock();
+        try {
+            for (ProductVelocity checkpoint : checkpoints) {
+                int slot = slotFor(checkpoint.getProductId());
+                rates[slot] = checkpoint.getUnitsPerHour();
+                updatedAt[slot] = toMillis(checkpoint.getUpdatedAt());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // contabiliza só depois do commit, para uma venda desfeita não inflar a média
+    public void recordSale(Long productId, int quantity) {
+        afterCommit(() -> add(productId, quantity, System.currentTimeMillis()));
+    }
+
+    // retira a contribuição da venda como ela estaria hoje, decaída desde a data original
+    public void reverseSale(Long productId, int quantity, LocalDateTime soldAt) {
+        afterCommit(() -> add(productId, -quantity, toMillis(soldAt)));
+    }
+
+    void add(long productId, int quantity, long atMillis) {
+        lock.writeLock().lock();
+        try {
+            int slot = slotFor(productId);
+            double contribution = quantity * MILLIS_PER_HOUR / tauMillis;
+            if (atMillis >= updatedAt[slot]) {
+                rates[slot] = decay(rates[slot], atMillis - updatedAt[slot]) + contribution;
+                updatedAt[slot] = atMillis;
+            } else {
+                rates[slot] += decay(contribution, updatedAt[slot] - atMillis);
+            }
+            if (rates[slot] < 0) {
+                rates[slot] = 0;
+            }
+            dirty.set(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public double unitsPerHour(long productId) {
+        return unitsPerHour(productId, System.currentTimeMillis());
+    }
+
+    double unitsPerHour(long productId, long nowMillis) {
+        lock.readLock().lock();
+        try {
+            int slot = slotsByProduct.get(productId, NO_SLOT);
+            if (slot == NO_SLOT) return 0;
+            return decay(rates[slot], Math.max(nowMillis - updatedAt[slot], 0));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // null quando o produto não tem vendas recentes (estoque não se esgota)
+    public Double daysOfStockLeft(long productId, int stockQuantity) {
+        return daysOfStockLeft(unitsPerHour(productId), stockQuantity);
+    }
+
+    static Double daysOfStockLeft(double unitsPerHour, int stockQuantity) {
+        if (unitsPerHour < MIN_UNITS_PER_HOUR) return null;
+        double days = Math.max(stockQuantity, 0) / (unitsPerHour * 24);
+        return Math.round(days * 10) / 10.0;
+    }
+
+    @Scheduled(fixedDelayString = "${products.velocity.checkpoint-interval-ms:300000}")
+    public void checkpoint() {
+        List<ProductVelocity> rows = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            for (int slot = dirty.nextSetBit(0); slot >= 0; slot = dirty.nextSetBit(slot + 1)) {
+                rows.add(new ProductVelocity(productIds[slot], rates[slot], toLocalDateTime(updatedAt[slot])));
+            }
+            dirty.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (rows.isEmpty()) return;
+
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, row) -> {
+                ps.setLong(1, row.getProductId());
+                ps.setDouble(2, row.getUnitsPerHour());
+                ps.setTimestamp(3, Timestamp.valueOf(row.getUpdatedAt()));
+            });
+        } catch (DataAccessException e) {
+            log.warn("Falha ao gravar checkpoint de velocidade de {} produtos: {}", rows.size(), e.getMostSpecificCause().getMessage());
+            lock.writeLock().lock();
+            try {
+                for (ProductVelocity row : rows) {
+                    dirty.set(slotsByProduct.get(row.getProductId(), NO_SLOT));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private double decay(double value, long elapsedMillis) {
+        return value * Math.exp(-elapsedMillis / tauMillis);
+    }
+
+    private int slotFor(long productId) {
+        int slot = slotsByProduct.get(productId, NO_SLOT);
+        if (slot == NO_SLOT) {
+            slot = slotCount++;
+            ensureCapacity(slotCount);
+            slotsByProduct.put(productId, slot);
+            productIds[slot] = productId;
+        }
+        return slot;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= productIds.length) return;
+        int capacity = Math.max(required, productIds.length * 2);
+        productIds = Arrays.copyOf(productIds, capacity);
+        rates = Arrays.copyOf(rates, capacity);
+        updatedAt = Arrays.copyOf(updatedAt, capacity);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static long toMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,289 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductStockAtDto;
+import com.api.rest.conveniencestore.product.model.StockMovement;
+import com.api.rest.conveniencestore.product.model.StockSnapshot;
+import com.api.rest.conveniencestore.product.repository.StockMovementRepository;
+import com.api.rest.conveniencestore.product.repository.StockSnapshotRepository;
+import com.api.rest.conveniencestore.shared.enums.StockMovementType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Ledger append-only do estoque. As movimentações entram num buffer em memória depois do
+ * commit e são gravadas em lote por um agendamento, então a venda não paga nenhum INSERT
+ * a mais. A cada N movimentações de um produto grava-se também o saldo (checkpoint), o que
+ * limita a reconstrução a um checkpoint mais no máximo N linhas.
+ * <p>
+ * O buffer não é durável: numa queda as movimentações ainda não gravadas (até um intervalo
+ * de flush) se perdem, e {@link #stockAt} passa a reconstruir a partir do que chegou ao banco,
+ * sem elas. O saldo atual em {@code products} não depende do ledger e segue correto.
+ * <p>
+ * Uma linha rejeitada pelo banco (ex.: produto excluído antes do flush, que quebra a FK) não
+ * trava as demais: o lote é dividido ao meio até isolá-la, o resto é gravado e ela volta ao
+ * buffer; depois de {@code max-attempts} rejeições é descartada com log e métrica. Falhas
+ * de conexão devolvem o lote inteiro, limitado a {@code max-pending} linhas.
+ */
+@Component
+public class StockLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(StockLedger.class);
+
+    private static final String INSERT_MOVEMENT_SQL = """
+            INSERT INTO stock_movements (id, product_id, type, quantity, reference_id, occurred_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+    private static final String INSERT_SNAPSHOT_SQL = """
+            INSERT INTO stock_snapshots (product_id, movement_id, stock_quantity, taken_at)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StockMovementRepository movementRepository;
+    private final StockSnapshotRepository snapshotRepository;
+    private final int snapshotEvery;
+    private final int maxAttempts;
+    private final int maxPending;
+    private final Counter discarded;
+
+    private long lastId;
+    private List<PendingMovement> pending = new ArrayList<>();
+    // movimentações desde o último checkpoint; produto ausente = ainda sem checkpoint nesta execução
+    private final Map<Long, Integer> sinceSnapshot = new HashMap<>();
+
+    public StockLedger(JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate,
+                       StockMovementRepository movementRepository,
+                       StockSnapshotRepository snapshotRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${products.stock-ledger.snapshot-every:100}") int snapshotEvery,
+                       @Value("${products.stock-ledger.max-attempts:3}") int maxAttempts,
+                       @Value("${products.stock-ledger.max-pending:100000}") int maxPending) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.movementRepository = movementRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.snapshotEvery = snapshotEvery;
+        this.maxAttempts = maxAttempts;
+        this.maxPending = maxPending;
+        this.discarded = Counter.builder("stock.ledger.discarded").register(meterRegistry);
+        meterRegistry.gauge("stock.ledger.pending", this, StockLedger::pendingCount);
+    }
+
+    // antes dos jobs que rodam na inicialização e já registram movimentações
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void initialize() {
+        lastId = Math.max(lastId, movementRepository.findMaxId());
+    }
+
+    // dentro de uma transação só entra no buffer se ela confirmar
+    public void record(Long productId, StockMovementType type, int quantity, int stockAfter, Long referenceId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append(productId, type, quantity, stockAfter, referenceId);
+                }
+            });
+        } else {
+            append(productId, type, quantity, stockAfter, referenceId);
+        }
+    }
+
+    synchronized void append(Long productId, StockMovementType type, int quantity, int stockAfter, Long referenceId) {
+        LocalDateTime now = LocalDateTime.now();
+        StockMovement movement = new StockMovement(++lastId, productId, type, quantity, referenceId, now);
+
+        StockSnapshot snapshot = null;
+        Integer count = sinceSnapshot.get(productId);
+        if (count == null || count + 1 >= snapshotEvery || type == StockMovementType.IMPORT) {
+            snapshot = new StockSnapshot(productId, movement.getId(), stockAfter, now);
+            sinceSnapshot.put(productId, 0);
+        } else {
+            sinceSnapshot.put(productId, count + 1);
+        }
+        pending.add(new PendingMovement(movement, snapshot));
+    }
+
+    @Scheduled(fixedDelayString = "${products.stock-ledger.flush-interval-ms:1000}")
+    public void flush() {
+        List<PendingMovement> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) return;
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+        List<PendingMovement> rejected = new ArrayList<>();
+        List<PendingMovement> deferred = new ArrayList<>();
+        writeIsolating(batch, rejected, deferred);
+        if (rejected.isEmpty() && deferred.isEmpty()) return;
+
+        List<PendingMovement> retry = new ArrayList<>(deferred);
+        for (PendingMovement entry : rejected) {
+            if (++entry.failures < maxAttempts) {
+                retry.add(entry);
+            } else {
+                discard(entry);
+            }
+        }
+        requeue(retry);
+    }
+
+    // lote recusado por uma linha é dividido até isolá-la; falha de outra natureza devolve o trecho inteiro
+    private void writeIsolating(List<PendingMovement> batch, List<PendingMovement> rejected, List<PendingMovement> deferred) {
+        try {
+            // movimentações e checkpoints na mesma transação: se um falha o outro é desfeito e a
+            // nova tentativa não esbarra em ids de movimentação já gravados
+            transactionTemplate.executeWithoutResult(status -> write(batch));
+        } catch (DataIntegrityViolationException e) {
+            if (batch.size() == 1) {
+                log.warn("Movimentação de estoque {} rejeitada: {}", batch.get(0).movement.getId(), e.getMostSpecificCause().getMessage());
+                rejected.add(batch.get(0));
+                return;
+            }
+            int middle = batch.size() / 2;
+            writeIsolating(batch.subList(0, middle), rejected, deferred);
+            writeIsolating(batch.subList(middle, batch.size()), rejected, deferred);
+        } catch (DataAccessException | TransactionException e) {
+            log.warn("Falha ao gravar {} movimentações de estoque, nova tentativa no próximo ciclo: {}",
+                    batch.size(), e.getMessage());
+            deferred.addAll(batch);
+        }
+    }
+
+    // devolve ao início do buffer, mantendo a ordem; acima do limite descarta as mais antigas
+    private void requeue(List<PendingMovement> retry) {
+        if (retry.isEmpty()) return;
+        retry.sort(Comparator.comparingLong(entry -> entry.movement.getId()));
+        int dropped = 0;
+        long firstDropped = 0, lastDropped = 0;
+        synchronized (this) {
+            retry.addAll(pending);
+            if (retry.size() > maxPending) {
+                dropped = retry.size() - maxPending;
+                firstDropped = retry.get(0).movement.getId();
+                lastDropped = retry.get(dropped - 1).movement.getId();
+                retry = new ArrayList<>(retry.subList(dropped, retry.size()));
+            }
+            pending = retry;
+        }
+        if (dropped > 0) {
+            log.error("Buffer do ledger acima de {} linhas: {} movimentações de estoque descartadas (ids {} a {})",
+                    maxPending, dropped, firstDropped, lastDropped);
+            discarded.increment(dropped);
+        }
+    }
+
+    private void discard(PendingMovement entry) {
+        StockMovement movement = entry.movement;
+        log.error("Movimentação de estoque {} descartada após {} rejeições: produto {}, {} {}, referência {}, em {}",
+                movement.getId(), entry.failures, movement.getProductId(), movement.getType(), movement.getQuantity(),
+                movement.getReferenceId(), movement.getOccurredAt());
+        discarded.increment();
+    }
+
+    private void write(List<PendingMovement> batch) {
+        List<StockSnapshot> snapshots = new ArrayList<>();
+        List<StockMovement> movements = new ArrayList<>(batch.size());
+        for (PendingMovement entry : batch) {
+            movements.add(entry.movement);
+            if (entry.snapshot != null) snapshots.add(entry.snapshot);
+        }
+        jdbcTemplate.batchUpdate(INSERT_MOVEMENT_SQL, movements, movements.size(), (ps, m) -> {
+            ps.setLong(1, m.getId());
+            ps.setLong(2, m.getProductId());
+            ps.setString(3, m.getType().name());
+            ps.setInt(4, m.getQuantity());
+            ps.setObject(5, m.getReferenceId(), Types.BIGINT);
+            ps.setTimestamp(6, Timestamp.valueOf(m.getOccurredAt()));
+        });
+        if (!snapshots.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SNAPSHOT_SQL, snapshots, snapshots.size(), (ps, s) -> {
+                ps.setLong(1, s.getProductId());
+                ps.setLong(2, s.getMovementId());
+                ps.setInt(3, s.getStockQuantity());
+                ps.setTimestamp(4, Timestamp.valueOf(s.getTakenAt()));
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Saldo do produto no instante informado: checkpoint mais recente até {@code at} e replay
+     * das movimentações seguintes. Antes do primeiro registro do produto o saldo é o anterior
+     * à primeira movimentação; sem nenhum registro, o estoque nunca mudou e vale o atual.
+     */
+    public ProductStockAtDto stockAt(Long productId, LocalDateTime at, int currentStock) {
+        flush();
+        Optional<StockSnapshot> base = snapshotRepository.findFirstByProductIdAndTakenAtLessThanEqualOrderByMovementIdDesc(productId, at);
+        if (base.isPresent()) {
+            List<StockMovement> replay = movementRepository
+                    .findByProductIdAndIdGreaterThanAndOccurredAtLessThanEqualOrderByIdAsc(productId, base.get().getMovementId(), at);
+            int stock = base.get().getStockQuantity();
+            for (StockMovement movement : replay) {
+                stock = movement.getType().applyTo(stock, movement.getQuantity());
+            }
+            return new ProductStockAtDto(productId, at, stock, replay.size());
+        }
+
+        Optional<StockSnapshot> first = snapshotRepository.findFirstByProductIdOrderByMovementIdAsc(productId);
+        if (first.isEmpty()) {
+            return new ProductStockAtDto(productId, at, currentStock, 0);
+        }
+        // o primeiro checkpoint é sempre o da primeira movimentação do produto
+        int before = movementRepository.findById(first.get().getMovementId())
+                .filter(movement -> movement.getType() != StockMovementType.IMPORT)
+                .map(movement -> first.get().getStockQuantity() - movement.getQuantity())
+                .orElse(0);
+        return new ProductStockAtDto(productId, at, before, 1);
+    }
+
+    synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    // o checkpoint anda junto da sua movimentação quando o lote é dividido
+    private static final class PendingMovement {
+        private final StockMovement movement;
+        private final StockSnapshot snapshot;
+        private int failures;
+
+        private PendingMovement(StockMovement movement, StockSnapshot snapshot) {
+            this.movement = movement;
+            this.snapshot = snapshot;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.api.rest.conveniencestore.product.snapshot;
+
+import java.util.List;
+
+public record ProductSnapshot(
+        long token,
+        List<ProductSnapshotEntry> products) {
+}
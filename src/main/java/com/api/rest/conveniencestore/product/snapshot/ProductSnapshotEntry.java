@@ -0,0 +1,16 @@
+package com.api.rest.conveniencestore.product.snapshot;
+
+import com.api.rest.conveniencestore.shared.enums.Category;
+import com.api.rest.conveniencestore.shared.enums.Status;
+
+import java.time.LocalDate;
+
+public record ProductSnapshotEntry(
+        long id,
+        String name,
+        Category category,
+        long priceCents,
+        int stockQuantity,
+        LocalDate expirationDate,
+        Status status) {
+}
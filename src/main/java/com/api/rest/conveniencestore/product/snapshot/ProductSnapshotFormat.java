@@ -0,0 +1,31 @@
+package com.api.rest.conveniencestore.product.snapshot;
+
+/**
+ * Layout do snapshot binário do catálogo (big-endian):
+ * <pre>
+ * cabeçalho  magic "CSPS" | formatVersion u16 | reservado u16 | token i64 | registros i32 | tabela de nomes i32
+ * registro   id i64 | preço em centavos i64 | estoque i32 | status i8 | categoria i8 |
+ *            validade em epoch-day i32 | offset do nome i32 | tamanho do nome u16
+ * nomes      UTF-8 concatenados
+ * </pre>
+ * Status e categoria são os ordinais dos enums; mudar os enums exige subir {@link #FORMAT_VERSION}.
+ * A versão 2 passou o preço para i64: em i32 qualquer preço acima de ~21,4 milhões estourava.
+ * O token é o change_seq a partir do qual o terminal segue com /products/changes.
+ */
+public final class ProductSnapshotFormat {
+
+    public static final String MEDIA_TYPE = "application/vnd.conveniencestore.product-snapshot";
+
+    static final int MAGIC = 0x43535053; // "CSPS"
+    static final short FORMAT_VERSION = 2;
+
+    static final int HEADER_BYTES = 4 + 2 + 2 + 8 + 4 + 4;
+    static final int RECORD_BYTES = 8 + 8 + 4 + 1 + 1 + 4 + 4 + 2;
+
+    static final byte NO_ORDINAL = -1;
+    static final int NO_EXPIRATION = Integer.MIN_VALUE;
+    static final int MAX_NAME_BYTES = 0xFFFF;
+
+    private ProductSnapshotFormat() {
+    }
+}
@@ -0,0 +1,93 @@
+package com.api.rest.conveniencestore.product.snapshot;
+
+import com.api.rest.conveniencestore.shared.enums.Category;
+import com.api.rest.conveniencestore.shared.enums.Status;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static com.api.rest.conveniencestore.product.snapshot.ProductSnapshotFormat.*;
+
+/**
+ * Leitor do snapshot binário para os terminais. Aceita o corpo com ou sem gzip.
+ */
+public final class ProductSnapshotReader {
+
+    private static final Status[] STATUSES = Status.values();
+    private static final Category[] CATEGORIES = Category.values();
+
+    private ProductSnapshotReader() {
+    }
+
+    public static ProductSnapshot read(byte[] data) {
+        boolean gzipped = data.length >= 2 && (data[0] & 0xFF) == 0x1F && (data[1] & 0xFF) == 0x8B;
+        return read(ByteBuffer.wrap(gzipped ? gunzip(data) : data));
+    }
+
+    public static ProductSnapshot read(ByteBuffer buffer) {
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IllegalArgumentException("Snapshot de produtos inválido.");
+        }
+        short version = buffer.getShort();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Versão de snapshot não suportada: " + version);
+        }
+        buffer.getShort();
+        long token = buffer.getLong();
+        int count = buffer.getInt();
+        int namesBytes = buffer.getInt();
+
+        int recordsStart = buffer.position();
+        int namesStart = recordsStart + count * RECORD_BYTES;
+        if (count < 0 || namesBytes < 0 || buffer.limit() < namesStart + namesBytes) {
+            throw new IllegalArgumentException("Snapshot de produtos truncado.");
+        }
+
+        List<ProductSnapshotEntry> products = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int record = recordsStart + i * RECORD_BYTES;
+            long id = buffer.getLong(record);
+            long priceCents = buffer.getLong(record + 8);
+            int stock = buffer.getInt(record + 16);
+            byte status = buffer.get(record + 20);
+            byte category = buffer.get(record + 21);
+            int expiry = buffer.getInt(record + 22);
+            int nameOffset = buffer.getInt(record + 26);
+            int nameLength = Short.toUnsignedInt(buffer.getShort(record + 30));
+
+            products.add(new ProductSnapshotEntry(
+                    id,
+                    decodeName(buffer, namesStart + nameOffset, nameLength),
+                    category == NO_ORDINAL ? null : CATEGORIES[category],
+                    priceCents,
+                    stock,
+                    expiry == NO_EXPIRATION ? null : LocalDate.ofEpochDay(expiry),
+                    status == NO_ORDINAL ? null : STATUSES[status]));
+        }
+        return new ProductSnapshot(token, products);
+    }
+
+    private static String decodeName(ByteBuffer buffer, int offset, int length) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset() + offset, length, StandardCharsets.UTF_8);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gunzip(byte[] data) {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.api.rest.conveniencestore.product.snapshot;
+
+import com.api.rest.conveniencestore.product.dto.ProductChangeDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static com.api.rest.conveniencestore.product.snapshot.ProductSnapshotFormat.*;
+
+public final class ProductSnapshotWriter {
+
+    private ProductSnapshotWriter() {
+    }
+
+    // tamanho exato calculado antes: um único buffer, sem cópias intermediárias
+    public static ByteBuffer write(long token, List<ProductChangeDto> products) {
+        byte[][] names = new byte[products.size()][];
+        int namesBytes = 0;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = encodeName(products.get(i).name());
+            namesBytes += names[i].length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + products.size() * RECORD_BYTES + namesBytes);
+        buffer.putInt(MAGIC)
+                .putShort(FORMAT_VERSION)
+                .putShort((short) 0)
+                .putLong(token)
+                .putInt(products.size())
+                .putInt(namesBytes);
+
+        int nameOffset = 0;
+        for (int i = 0; i < names.length; i++) {
+            ProductChangeDto product = products.get(i);
+            buffer.putLong(product.id())
+                    .putLong(Math.round(product.price() * 100))
+                    .putInt(product.stockQuantity())
+                    .put(product.status() != null ? (byte) product.status().ordinal() : NO_ORDINAL)
+                    .put(product.category() != null ? (byte) product.category().ordinal() : NO_ORDINAL)
+                    .putInt(product.expirationDate() != null ? Math.toIntExact(product.expirationDate().toEpochDay()) : NO_EXPIRATION)
+                    .putInt(nameOffset)
+                    .putShort((short) names[i].length);
+            nameOffset += names[i].length;
+        }
+        for (byte[] name : names) {
+            buffer.put(name);
+        }
+        return buffer.flip();
+    }
+
+    public static byte[] gzip(ByteBuffer snapshot) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, snapshot.remaining() / 3));
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            ByteBuffer source = snapshot.duplicate();
+            gzip.write(source.array(), source.arrayOffset() + source.position(), source.remaining());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] encodeName(String name) {
+        byte[] bytes = name != null ? name.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        return bytes.length <= MAX_NAME_BYTES ? bytes : Arrays.copyOf(bytes, MAX_NAME_BYTES);
+    }
+}
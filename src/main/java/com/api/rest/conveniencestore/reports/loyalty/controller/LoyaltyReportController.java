@@ -1,5 +1,6 @@
 package com.api.rest.conveniencestore.reports.loyalty.controller;
 
+import com.api.rest.conveniencestore.reports.loyalty.dto.LoyaltyLiabilityReportDto;
 import com.api.rest.conveniencestore.reports.loyalty.dto.LoyaltyReportDto;
 import com.api.rest.conveniencestore.reports.loyalty.service.LoyaltyReportService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -7,6 +8,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -26,4 +28,10 @@ public class LoyaltyReportController {
         LoyaltyReportDto report = loyaltyReportService.generateLoyaltyReport();
         return ResponseEntity.ok(report);
     }
+
+    @GetMapping("/liability")
+    @Operation(summary = "Outstanding points liability grouped by expiry week")
+    public ResponseEntity<LoyaltyLiabilityReportDto> getLiabilityReport(@RequestParam(defaultValue = "week") String bucket) {
+        return ResponseEntity.ok(loyaltyReportService.generateLiabilityReport(bucket));
+    }
 }
@@ -0,0 +1,10 @@
+package com.api.rest.conveniencestore.reports.loyalty.dto;
+
+import java.util.List;
+
+public record LoyaltyLiabilityReportDto(
+        String bucket,
+        long totalPoints,
+        List<LoyaltyLiabilityWeekDto> weeks
+) {
+}
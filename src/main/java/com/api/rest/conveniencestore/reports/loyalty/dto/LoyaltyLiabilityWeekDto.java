@@ -0,0 +1,9 @@
+package com.api.rest.conveniencestore.reports.loyalty.dto;
+
+import java.time.LocalDate;
+
+public record LoyaltyLiabilityWeekDto(
+        LocalDate weekStart,
+        long points
+) {
+}
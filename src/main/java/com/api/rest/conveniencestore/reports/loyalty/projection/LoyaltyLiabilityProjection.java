@@ -0,0 +1,8 @@
+package com.api.rest.conveniencestore.reports.loyalty.projection;
+
+import java.time.LocalDate;
+
+public interface LoyaltyLiabilityProjection {
+    LocalDate getExpiryWeek();
+    Long getPoints();
+}
@@ -1,20 +1,38 @@
 package com.api.rest.conveniencestore.reports.loyalty.repository;
 
 import com.api.rest.conveniencestore.loyalty.model.LoyaltyTransaction;
+import com.api.rest.conveniencestore.reports.loyalty.projection.LoyaltyLiabilityProjection;
 import com.api.rest.conveniencestore.reports.loyalty.projection.LoyaltySummaryProjection;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 public interface LoyaltyReportRepository extends Repository<LoyaltyTransaction, Long> {
 
+    // meses antes de :since vêm dos rollups; só as partições a partir de :since são lidas
     @Query(nativeQuery = true, value = """
             SELECT
-                COALESCE(SUM(CASE WHEN lt.type = 'EARN' THEN lt.points ELSE 0 END), 0) AS totalPointsGenerated,
-                COALESCE(SUM(CASE WHEN lt.type = 'REDEEM' THEN lt.points ELSE 0 END), 0) AS totalPointsRedeemed,
-                COALESCE(SUM(CASE WHEN lt.type = 'EXPIRE' THEN lt.points ELSE 0 END), 0) AS expiredPoints
-            FROM loyalty_transactions lt
+                COALESCE(SUM(CASE WHEN t.type = 'EARN' THEN t.points ELSE 0 END), 0) AS totalPointsGenerated,
+                COALESCE(SUM(CASE WHEN t.type = 'REDEEM' THEN t.points ELSE 0 END), 0) AS totalPointsRedeemed,
+                COALESCE(SUM(CASE WHEN t.type = 'EXPIRE' THEN t.points ELSE 0 END), 0) AS expiredPoints
+            FROM (
+                SELECT ms.type, ms.points
+                FROM loyalty_monthly_summary ms
+                WHERE ms.month_start < :since
+                UNION ALL
+                SELECT lt.type, lt.points
+                FROM loyalty_transactions lt
+                WHERE lt.created_at >= :since
+            ) t
             """)
-    LoyaltySummaryProjection findLoyaltySummary();
+    LoyaltySummaryProjection findLoyaltySummary(@Param("since") LocalDateTime since);
+
+    @Query("SELECT MAX(ms.monthStart) FROM LoyaltyMonthlySummary ms")
+    LocalDate findLastRolledMonth();
 
     @Query(nativeQuery = true, value = """
             SELECT COALESCE(SUM(s.discount), 0)
@@ -36,7 +54,17 @@ public interface LoyaltyReportRepository extends Repository<LoyaltyTransaction,
             SELECT COALESCE(SUM(lt.points), 0)
             FROM loyalty_transactions lt
             WHERE lt.type = 'EARN'
-              AND DATE(lt.created_at) = CURDATE()
+              AND lt.created_at >= CURDATE()
             """)
     long countPointsEarnedToday();
+
+    // semanas já vencidas só aparecem enquanto a expiração não as processou
+    @Query(nativeQuery = true, value = """
+            SELECT ll.expiry_week AS expiryWeek, SUM(ll.points) AS points
+            FROM loyalty_liability ll
+            GROUP BY ll.expiry_week
+            HAVING SUM(ll.points) <> 0
+            ORDER BY ll.expiry_week
+            """)
+    List<LoyaltyLiabilityProjection> findLiabilityByWeek();
 }
@@ -1,13 +1,22 @@
 package com.api.rest.conveniencestore.reports.loyalty.service;
 
+import com.api.rest.conveniencestore.reports.loyalty.dto.LoyaltyLiabilityReportDto;
+import com.api.rest.conveniencestore.reports.loyalty.dto.LoyaltyLiabilityWeekDto;
 import com.api.rest.conveniencestore.reports.loyalty.dto.LoyaltyReportDto;
 import com.api.rest.conveniencestore.reports.loyalty.projection.LoyaltySummaryProjection;
 import com.api.rest.conveniencestore.reports.loyalty.repository.LoyaltyReportRepository;
+import com.api.rest.conveniencestore.shared.utils.MessageConstants;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Service
 public class LoyaltyReportService {
 
+    private static final String WEEK_BUCKET = "week";
+
     private final LoyaltyReportRepository loyaltyReportRepository;
 
     public LoyaltyReportService(LoyaltyReportRepository loyaltyReportRepository) {
@@ -15,7 +24,7 @@ public class LoyaltyReportService {
     }
 
     public LoyaltyReportDto generateLoyaltyReport() {
-        LoyaltySummaryProjection summary = loyaltyReportRepository.findLoyaltySummary();
+        LoyaltySummaryProjection summary = loyaltyReportRepository.findLoyaltySummary(rolledUntil());
         double totalDiscountGiven = loyaltyReportRepository.findTotalDiscountGiven();
         long activeClients = loyaltyReportRepository.countActiveClients();
 
@@ -27,4 +36,21 @@ public class LoyaltyReportService {
                 summary.getExpiredPoints()
         );
     }
+
+    // início do primeiro mês sem rollup; sem nenhum rollup, tudo sai de loyalty_transactions
+    private LocalDateTime rolledUntil() {
+        LocalDate lastRolled = loyaltyReportRepository.findLastRolledMonth();
+        return lastRolled == null ? LocalDate.EPOCH.atStartOfDay() : lastRolled.plusMonths(1).atStartOfDay();
+    }
+
+    public LoyaltyLiabilityReportDto generateLiabilityReport(String bucket) {
+        if (!WEEK_BUCKET.equalsIgnoreCase(bucket)) {
+            throw new IllegalArgumentException(String.format(MessageConstants.LOYALTY_LIABILITY_BUCKET_UNSUPPORTED, bucket));
+        }
+        List<LoyaltyLiabilityWeekDto> weeks = loyaltyReportRepository.findLiabilityByWeek().stream()
+                .map(week -> new LoyaltyLiabilityWeekDto(week.getExpiryWeek(), week.getPoints()))
+                .toList();
+        long total = weeks.stream().mapToLong(LoyaltyLiabilityWeekDto::points).sum();
+        return new LoyaltyLiabilityReportDto(WEEK_BUCKET, total, weeks);
+    }
 }
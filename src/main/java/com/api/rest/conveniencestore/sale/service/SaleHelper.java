@@ -3,6 +3,7 @@ package com.api.rest.conveniencestore.sale.service;
 import com.api.rest.conveniencestore.sale.dto.SaleDto;
 import com.api.rest.conveniencestore.shared.enums.PaymentMethod;
 import com.api.rest.conveniencestore.shared.enums.Status;
+import com.api.rest.conveniencestore.shared.exception.ProductDateInvalidException;
 import com.api.rest.conveniencestore.shared.exception.ProductInactiveException;
 import com.api.rest.conveniencestore.shared.exception.ProductInsufficientStockException;
 import com.api.rest.conveniencestore.shared.exception.ProductNotFoundException;
@@ -68,6 +69,11 @@ public class SaleHelper {
             throw new ProductInactiveException(MessageConstants.INVALID_PRODUCT + product.getName());
         }
 
+        // o job de vencimento só roda após a meia-noite; até lá o produto ainda pode estar ativo
+        if (product.isExpired()) {
+            throw new ProductDateInvalidException(MessageConstants.PRODUCT_EXPIRED_SALE + product.getName());
+        }
+
         if (product.getStockQuantity() < quantity) {
             throw new ProductInsufficientStockException("Estoque insuficiente para o produto: " + product.getName() + " " + product.getStockQuantity() + ", unidades em estoque.");
         }
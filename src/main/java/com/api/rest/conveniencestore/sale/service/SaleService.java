@@ -4,24 +4,38 @@ import com.api.rest.conveniencestore.sale.dto.SaleDto;
 import com.api.rest.conveniencestore.sale.dto.SaleListingDto;
 import com.api.rest.conveniencestore.shared.enums.PaymentMethod;
 import com.api.rest.conveniencestore.shared.enums.Status;
+import com.api.rest.conveniencestore.shared.enums.StockMovementType;
 import com.api.rest.conveniencestore.shared.exception.*;
 import com.api.rest.conveniencestore.client.model.Client;
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import com.api.rest.conveniencestore.product.event.ProductStockChangedEvent;
 import com.api.rest.conveniencestore.product.model.Product;
 import com.api.rest.conveniencestore.sale.model.Sale;
 import com.api.rest.conveniencestore.user.model.User;
 import com.api.rest.conveniencestore.sale.model.SaleItem;
 import com.api.rest.conveniencestore.client.repository.ClientRepository;
 import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import com.api.rest.conveniencestore.product.service.LowStockDetector;
+import com.api.rest.conveniencestore.product.service.ProductLotService;
+import com.api.rest.conveniencestore.product.service.ProductVelocityTracker;
+import com.api.rest.conveniencestore.product.service.StockLedger;
 import com.api.rest.conveniencestore.sale.repository.SaleItemRepository;
 import com.api.rest.conveniencestore.sale.repository.SaleRepository;
 import com.api.rest.conveniencestore.loyalty.service.LoyaltyService;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 
 @Service
@@ -42,6 +56,21 @@ public class SaleService {
     @Autowired
     private LoyaltyService loyaltyService;
 
+    @Autowired
+    private LowStockDetector lowStockDetector;
+
+    @Autowired
+    private StockLedger stockLedger;
+
+    @Autowired
+    private ProductVelocityTracker velocityTracker;
+
+    @Autowired
+    private ProductLotService productLotService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     private SaleHelper saleHelper;
 
     @Autowired
@@ -90,6 +119,8 @@ public class SaleService {
 
         Sale savedSale = saleRepository.save(sale);
 
+        Map<Long, Integer> stockQuantities = new HashMap<>();
+        Set<Long> expirationChangedIds = new HashSet<>();
         for (int i = 0; i < saleDto.productIds().size(); i++) {
             Long productId = saleDto.productIds().get(i);
             Integer quantity = saleDto.quantity().get(i);
@@ -100,11 +131,26 @@ public class SaleService {
                 throw new ProductInsufficientStockException(
                         com.api.rest.conveniencestore.shared.utils.MessageConstants.STOCK_CANNOT_BE_NEGATIVE + product.getName());
             }
+            int previousStock = product.getStockQuantity();
+            LocalDate previousExpiration = product.getExpirationDate();
             product.setStockQuantity(newStock);
+            productLotService.consume(savedSale.getId(), product, quantity);
+            if (!Objects.equals(previousExpiration, product.getExpirationDate())) {
+                expirationChangedIds.add(productId);
+            }
             productRepository.save(product);
+            stockQuantities.put(productId, newStock);
+            stockLedger.record(productId, StockMovementType.SALE, -quantity, newStock, savedSale.getId());
+            velocityTracker.recordSale(productId, quantity);
+            lowStockDetector.check(product, previousStock);
 
             saleItemRepository.save(new SaleItem(savedSale, productId, quantity));
         }
+        // venda só mexe no estoque; o catálogo só é relido quando um lote esgotado mudou a validade
+        eventPublisher.publishEvent(new ProductStockChangedEvent(stockQuantities));
+        if (!expirationChangedIds.isEmpty()) {
+            eventPublisher.publishEvent(new ProductCatalogChangedEvent(expirationChangedIds));
+        }
 
         // acumula pontos sobre o valor final (após desconto)
         int pointsEarned = (int) Math.floor(finalValue);
@@ -125,12 +171,28 @@ public class SaleService {
         Sale sale = saleRepository.findById(id)
                 .orElseThrow(() -> new SaleListingNullException(com.api.rest.conveniencestore.shared.utils.MessageConstants.SALE_NOT_FOUND));
 
+        Map<Long, Integer> restocked = new HashMap<>();
+        Set<Long> expirationChangedIds = new HashSet<>();
         saleItemRepository.findBySaleId(id).forEach(item -> {
             productRepository.findById(item.getProductId()).ifPresent(product -> {
+                LocalDate previousExpiration = product.getExpirationDate();
                 product.setStockQuantity(product.getStockQuantity() + item.getQuantity());
+                productLotService.release(id, product);
+                if (!Objects.equals(previousExpiration, product.getExpirationDate())) {
+                    expirationChangedIds.add(item.getProductId());
+                }
                 productRepository.save(product);
+                stockLedger.record(item.getProductId(), StockMovementType.CANCEL, item.getQuantity(), product.getStockQuantity(), id);
+                velocityTracker.reverseSale(item.getProductId(), item.getQuantity(), sale.getSaleDate());
+                restocked.put(item.getProductId(), product.getStockQuantity());
             });
         });
+        if (!restocked.isEmpty()) {
+            eventPublisher.publishEvent(new ProductStockChangedEvent(restocked));
+        }
+        if (!expirationChangedIds.isEmpty()) {
+            eventPublisher.publishEvent(new ProductCatalogChangedEvent(expirationChangedIds));
+        }
 
         // estorna pontos da venda (saldo pode ficar negativo — comportamento esperado)
         loyaltyService.cancelPoints(id);
@@ -43,13 +43,15 @@ public class ConfigurationSecurity {
                         .requestMatchers(HttpMethod.PATCH, "/users/*/status").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PATCH, "/users/*/roles").hasRole("ADMIN")
                         // apenas ADMIN pode criar/editar/desativar produtos
-                        .requestMatchers(HttpMethod.POST, "/products").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.POST, "/products/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PUT, "/products/**").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.PATCH, "/products/**").hasRole("ADMIN")
                         // apenas ADMIN pode cancelar vendas
                         .requestMatchers(HttpMethod.PATCH, "/sales/*/status").hasRole("ADMIN")
                         // apenas ADMIN pode ver extrato de pontos de clientes
                         .requestMatchers(HttpMethod.GET, "/loyalty/clients/*/transactions").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/loyalty/clients/*/expiring").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/loyalty/reconciliation").hasRole("ADMIN")
                         .requestMatchers(HttpMethod.GET, "/clients/*/points").hasRole("ADMIN")
                         // qualquer autenticado para o restante
                         .anyRequest().authenticated())
@@ -0,0 +1,13 @@
+package com.api.rest.conveniencestore.shared.enums;
+
+public enum StockMovementType {
+    SALE,
+    CANCEL,
+    ADJUST,
+    // carga da matriz (CSV ou lote): a quantidade é o saldo resultante, não a diferença
+    IMPORT;
+
+    public int applyTo(int stock, int quantity) {
+        return this == IMPORT ? quantity : stock + quantity;
+    }
+}
@@ -2,6 +2,7 @@ package com.api.rest.conveniencestore.shared.exception;
 
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.persistence.OptimisticLockException;
+import org.springframework.context.MessageSourceResolvable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -9,6 +10,7 @@ import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.util.stream.Collectors;
@@ -86,6 +88,11 @@ public class GlobalExceptionHandler {
         return build(HttpStatus.BAD_REQUEST, "INVALID_DATE", except.getMessage());
     }
 
+    @ExceptionHandler(ProductBarcodeInvalidException.class)
+    public ResponseEntity<ErrorResponse> productBarcodeInvalidException(ProductBarcodeInvalidException except) {
+        return build(HttpStatus.BAD_REQUEST, "INVALID_BARCODE", except.getMessage());
+    }
+
     @ExceptionHandler(SaleNotValidPaymentMethodException.class)
     public ResponseEntity<ErrorResponse> saleNotValidPaymentMethodException(SaleNotValidPaymentMethodException except) {
         return build(HttpStatus.BAD_REQUEST, "INVALID_PAYMENT_METHOD", except.getMessage());
@@ -142,6 +149,16 @@ public class GlobalExceptionHandler {
         return build(HttpStatus.BAD_REQUEST, "VALIDATION_ERROR", "Dados inválidos: " + fields);
     }
 
+    // validação de itens de listas no corpo (ex.: List<@Valid ...>)
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<ErrorResponse> handleMethodValidationErrors(HandlerMethodValidationException except) {
+        String fields = except.getAllErrors()
+                .stream()
+                .map(MessageSourceResolvable::getDefaultMessage)
+                .collect(Collectors.joining(", "));
+        return build(HttpStatus.BAD_REQUEST, "VALIDATION_ERROR", "Dados inválidos: " + fields);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> illegalArgumentException(IllegalArgumentException except) {
         return build(HttpStatus.BAD_REQUEST, "INVALID_ARGUMENT", except.getMessage());
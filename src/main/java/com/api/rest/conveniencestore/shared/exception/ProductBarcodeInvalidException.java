@@ -0,0 +1,7 @@
+package com.api.rest.conveniencestore.shared.exception;
+
+public class ProductBarcodeInvalidException extends RuntimeException {
+    public ProductBarcodeInvalidException(String message) {
+        super(message);
+    }
+}
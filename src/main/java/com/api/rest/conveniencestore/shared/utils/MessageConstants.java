@@ -31,6 +31,15 @@ public class MessageConstants {
     public static final String INVALID_EXPIRATION_DATE = "A data de validade não pode ser anterior a hoje.";
     public static final String PRODUCT_EXPIRED_UPDATE = "Produto vencido não pode ser alterado.";
     public static final String PRODUCT_INACTIVE_UPDATE = "Produto inativo não pode ser alterado.";
+    public static final String PRODUCT_EXPIRED_SALE = "Produto vencido não pode ser vendido: ";
+    public static final String PRICE_NOT_FOUND = "Produto com ID: %d não tinha preço registrado em %s.";
+    public static final String PRODUCT_LOT_TRACKED_UPDATE = "Estoque e validade de produto controlado por lotes são alterados pelos lotes.";
+    public static final String STOCKTAKE_TOO_LARGE = "O inventário aceita no máximo %d contagens por envio.";
+    public static final String STOCKTAKE_DUPLICATE_COUNT = "Produto contado mais de uma vez no mesmo inventário.";
+    public static final String LOYALTY_LIABILITY_BUCKET_UNSUPPORTED = "Agrupamento não suportado: %s. Use week.";
+    public static final String STOCKTAKE_STOCK_CHANGED = "O estoque mudou durante o inventário; conte o produto novamente.";
     public static final String SALE_LISTS_SIZE_MISMATCH = "A lista de produtos e a lista de quantidades devem ter o mesmo tamanho.";
     public static final String STOCK_CANNOT_BE_NEGATIVE = "Estoque não pode ficar negativo para o produto: ";
+    public static final String BARCODE_NOT_FOUND = "Produto com código de barras %s não foi encontrado.";
+    public static final String BARCODE_ALREADY_EXISTS = "Código de barras já cadastrado: ";
 }
\ No newline at end of file
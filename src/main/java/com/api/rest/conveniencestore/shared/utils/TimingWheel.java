@@ -0,0 +1,138 @@
+package com.api.rest.conveniencestore.shared.utils;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Roda de tempo hierárquica para ids long com prazo em milissegundos. O nível 0 tem uma posição
+ * por tick; cada nível acima cobre uma volta inteira do nível de baixo por posição e, quando o
+ * relógio chega ao início dessa posição, redistribui as entradas para os níveis inferiores.
+ * Inserir e disparar custam O(1) por entrada. Prazos além do horizonte são recusados.
+ * Não é thread-safe: quem usa controla o acesso.
+ */
+public class TimingWheel {
+
+    private final long tickMillis;
+    private final int[] wheelSizes;
+    // quantos ticks do nível 0 cada posição do nível cobre
+    private final long[] ticksPerSlot;
+    private final long spanTicks;
+    private final Bucket[][] levels;
+    private final Bucket due = new Bucket();
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickMillis, int[] wheelSizes, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.wheelSizes = wheelSizes.clone();
+        this.ticksPerSlot = new long[wheelSizes.length];
+        this.levels = new Bucket[wheelSizes.length][];
+        long ticks = 1;
+        for (int level = 0; level < wheelSizes.length; level++) {
+            ticksPerSlot[level] = ticks;
+            levels[level] = new Bucket[wheelSizes[level]];
+            for (int slot = 0; slot < wheelSizes[level]; slot++) {
+                levels[level][slot] = new Bucket();
+            }
+            ticks *= wheelSizes[level];
+        }
+        this.spanTicks = ticks;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    // primeiro instante que não cabe mais na roda
+    public long horizonMillis() {
+        return (currentTick + spanTicks - 1) * tickMillis + 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Agenda o id. Prazo já vencido sai no próximo advance; além do horizonte retorna false.
+     * O prazo é arredondado para o tick seguinte: o id nunca dispara antes dele.
+     */
+    public boolean add(long id, long deadlineMillis) {
+        long tick = -Math.floorDiv(-deadlineMillis, tickMillis);
+        if (tick <= currentTick) {
+            due.add(id, tick);
+        } else if (!place(id, tick)) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Avança o relógio até nowMillis entregando, em ordem de tick, cada id cujo prazo passou.
+     */
+    public void advance(long nowMillis, LongConsumer expired) {
+        drain(due, expired);
+        long target = nowMillis / tickMillis;
+        while (currentTick < target) {
+            currentTick++;
+            for (int level = levels.length - 1; level > 0; level--) {
+                if (currentTick % ticksPerSlot[level] == 0) {
+                    cascade(levels[level][slotOf(level, currentTick)]);
+                }
+            }
+            drain(levels[0][slotOf(0, currentTick)], expired);
+        }
+    }
+
+    private boolean place(long id, long tick) {
+        long delta = tick - currentTick;
+        if (delta >= spanTicks) return false;
+        for (int level = 0; level < levels.length; level++) {
+            if (delta < ticksPerSlot[level] * wheelSizes[level]) {
+                levels[level][slotOf(level, tick)].add(id, tick);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int slotOf(int level, long tick) {
+        return (int) ((tick / ticksPerSlot[level]) % wheelSizes[level]);
+    }
+
+    private void cascade(Bucket bucket) {
+        int count = bucket.size;
+        long[] ids = Arrays.copyOf(bucket.ids, count);
+        long[] ticks = Arrays.copyOf(bucket.ticks, count);
+        bucket.clear();
+        // a posição começa no tick atual: nada aqui venceu antes dele, e o que vence agora cai no nível 0
+        for (int i = 0; i < count; i++) {
+            place(ids[i], ticks[i]);
+        }
+    }
+
+    private void drain(Bucket bucket, LongConsumer expired) {
+        for (int i = 0; i < bucket.size; i++) {
+            expired.accept(bucket.ids[i]);
+        }
+        size -= bucket.size;
+        bucket.clear();
+    }
+
+    private static final class Bucket {
+
+        private long[] ids = new long[4];
+        private long[] ticks = new long[4];
+        private int size;
+
+        void add(long id, long tick) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size << 1);
+                ticks = Arrays.copyOf(ticks, size << 1);
+            }
+            ids[size] = id;
+            ticks[size++] = tick;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
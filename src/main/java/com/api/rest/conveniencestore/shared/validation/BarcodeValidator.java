@@ -0,0 +1,33 @@
+package com.api.rest.conveniencestore.shared.validation;
+
+import com.api.rest.conveniencestore.shared.exception.ProductBarcodeInvalidException;
+
+import java.util.regex.Pattern;
+
+public class BarcodeValidator {
+
+    private static final String REGEX_GTIN = "^(\\d{8}|\\d{12,14})$"; // EAN-8, UPC-A, EAN-13 e GTIN-14
+    private static final String ERROR_INVALID_FORMAT = "O código de barras deve conter 8, 12, 13 ou 14 dígitos: ";
+    private static final String ERROR_INVALID_CHECK_DIGIT = "Dígito verificador inválido no código de barras: ";
+
+    // valida o GTIN e devolve o valor numérico (zeros à esquerda não alteram o código)
+    public static long parseBarcode(String code) throws ProductBarcodeInvalidException {
+        if (code == null || !Pattern.matches(REGEX_GTIN, code)) {
+            throw new ProductBarcodeInvalidException(ERROR_INVALID_FORMAT + code);
+        }
+
+        int sum = 0;
+        for (int i = code.length() - 2, weight = 3; i >= 0; i--, weight = 4 - weight) {
+            sum += (code.charAt(i) - '0') * weight;
+        }
+        int checkDigit = (10 - sum % 10) % 10;
+        if (checkDigit != code.charAt(code.length() - 1) - '0') {
+            throw new ProductBarcodeInvalidException(ERROR_INVALID_CHECK_DIGIT + code);
+        }
+        return Long.parseLong(code);
+    }
+
+    public static String formatBarcode(long code) {
+        return String.format("%013d", code);
+    }
+}
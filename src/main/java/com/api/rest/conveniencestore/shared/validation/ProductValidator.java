@@ -0,0 +1,22 @@
+package com.api.rest.conveniencestore.shared.validation;
+
+import com.api.rest.conveniencestore.product.dto.ProductDto;
+import com.api.rest.conveniencestore.shared.exception.ProductDateInvalidException;
+import com.api.rest.conveniencestore.shared.utils.MessageConstants;
+
+import java.time.LocalDate;
+
+public class ProductValidator {
+
+    public static void validateProduct(ProductDto productDto) throws ProductDateInvalidException {
+        if (productDto.price() <= 0) {
+            throw new ProductDateInvalidException(MessageConstants.INVALID_PRICE);
+        }
+        if (productDto.stockQuantity() < 0) {
+            throw new ProductDateInvalidException(MessageConstants.INVALID_STOCK);
+        }
+        if (productDto.expirationDate() != null && productDto.expirationDate().isBefore(LocalDate.now())) {
+            throw new ProductDateInvalidException(MessageConstants.INVALID_EXPIRATION_DATE);
+        }
+    }
+}
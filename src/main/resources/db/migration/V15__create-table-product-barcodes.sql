@@ -0,0 +1,7 @@
+CREATE TABLE product_barcodes (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    code BIGINT NOT NULL,
+    CONSTRAINT uk_product_barcodes_code UNIQUE (code),
+    CONSTRAINT fk_product_barcodes_product FOREIGN KEY (product_id) REFERENCES products(id)
+);
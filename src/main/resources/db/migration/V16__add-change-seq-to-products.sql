@@ -0,0 +1,6 @@
+-- Sequência monotônica de alterações para a sincronização incremental dos terminais
+ALTER TABLE products ADD COLUMN change_seq BIGINT NOT NULL DEFAULT 0;
+
+UPDATE products SET change_seq = id;
+
+CREATE INDEX idx_products_change_seq ON products (change_seq);
@@ -0,0 +1,2 @@
+-- Listagem por categoria/status ordenada por nome direto do índice
+CREATE INDEX idx_products_category_status_name ON products (category, status, name);
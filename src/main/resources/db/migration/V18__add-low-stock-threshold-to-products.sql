@@ -0,0 +1,2 @@
+-- Limite de estoque baixo por produto (NULL = usa o limite da categoria ou o padrão)
+ALTER TABLE products ADD COLUMN low_stock_threshold INT NULL;
@@ -0,0 +1,23 @@
+-- Ledger append-only das movimentações de estoque e saldos de checkpoint para reconstrução
+CREATE TABLE stock_movements (
+    id BIGINT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    quantity INT NOT NULL,
+    reference_id BIGINT NULL,
+    occurred_at DATETIME(6) NOT NULL,
+    CONSTRAINT fk_stock_movements_product FOREIGN KEY (product_id) REFERENCES products(id)
+);
+
+CREATE INDEX idx_stock_movements_product_id ON stock_movements (product_id, id);
+
+CREATE TABLE stock_snapshots (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    movement_id BIGINT NOT NULL,
+    stock_quantity INT NOT NULL,
+    taken_at DATETIME(6) NOT NULL,
+    CONSTRAINT fk_stock_snapshots_product FOREIGN KEY (product_id) REFERENCES products(id)
+);
+
+CREATE INDEX idx_stock_snapshots_product_taken_at ON stock_snapshots (product_id, taken_at);
@@ -0,0 +1,7 @@
+-- Checkpoint da média móvel exponencial de vendas por produto (unidades/hora)
+CREATE TABLE product_velocity (
+    product_id BIGINT PRIMARY KEY,
+    units_per_hour DOUBLE NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    CONSTRAINT fk_product_velocity_product FOREIGN KEY (product_id) REFERENCES products(id)
+);
@@ -0,0 +1,10 @@
+-- Registro dos produtos desativados automaticamente por vencimento
+CREATE TABLE product_deactivations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    expiration_date DATE NOT NULL,
+    deactivated_at DATETIME(6) NOT NULL,
+    CONSTRAINT fk_product_deactivations_product FOREIGN KEY (product_id) REFERENCES products(id)
+);
+
+CREATE INDEX idx_product_deactivations_deactivated_at ON product_deactivations (deactivated_at);
@@ -0,0 +1,27 @@
+-- Lotes de produto (FEFO) e o registro de quais lotes atenderam cada venda
+CREATE TABLE product_lots (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    lot_code VARCHAR(50) NULL,
+    quantity INT NOT NULL,
+    received_quantity INT NOT NULL,
+    expiration_date DATE NULL,
+    received_at DATETIME(6) NOT NULL,
+    CONSTRAINT fk_product_lots_product FOREIGN KEY (product_id) REFERENCES products(id),
+    CONSTRAINT chk_product_lots_quantity CHECK (quantity >= 0)
+);
+
+-- só os lotes abertos são carregados na inicialização
+CREATE INDEX idx_product_lots_open ON product_lots (quantity, product_id);
+
+CREATE TABLE product_lot_allocations (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    sale_id BIGINT NOT NULL,
+    product_id BIGINT NOT NULL,
+    lot_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+    CONSTRAINT fk_product_lot_allocations_sale FOREIGN KEY (sale_id) REFERENCES sales(id),
+    CONSTRAINT fk_product_lot_allocations_lot FOREIGN KEY (lot_id) REFERENCES product_lots(id)
+);
+
+CREATE INDEX idx_product_lot_allocations_sale ON product_lot_allocations (sale_id, product_id);
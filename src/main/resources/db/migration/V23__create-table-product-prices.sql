@@ -0,0 +1,16 @@
+-- Histórico de preços com vigência; applied = FALSE marca uma troca agendada ainda não aplicada
+CREATE TABLE product_prices (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    valid_from DATETIME(6) NOT NULL,
+    price DOUBLE NOT NULL,
+    applied BOOLEAN NOT NULL,
+    CONSTRAINT uk_product_prices_product_valid_from UNIQUE (product_id, valid_from),
+    CONSTRAINT fk_product_prices_product FOREIGN KEY (product_id) REFERENCES products(id)
+);
+
+CREATE INDEX idx_product_prices_pending ON product_prices (applied, valid_from);
+
+-- preço atual como ponto de partida do histórico
+INSERT INTO product_prices (product_id, valid_from, price, applied)
+SELECT id, '1970-01-01 00:00:00', price, TRUE FROM products;
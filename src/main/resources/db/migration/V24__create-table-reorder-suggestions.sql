@@ -0,0 +1,15 @@
+-- Resultado do cálculo noturno de ponto de pedido; a tabela é regravada a cada execução
+CREATE TABLE reorder_suggestions (
+    product_id BIGINT PRIMARY KEY,
+    avg_daily_demand DOUBLE NOT NULL,
+    demand_std_dev DOUBLE NOT NULL,
+    lead_time_days INT NOT NULL,
+    safety_stock INT NOT NULL,
+    reorder_point INT NOT NULL,
+    stock_quantity INT NOT NULL,
+    suggested_quantity INT NOT NULL,
+    computed_at DATETIME(6) NOT NULL,
+    CONSTRAINT fk_reorder_suggestions_product FOREIGN KEY (product_id) REFERENCES products(id)
+);
+
+CREATE INDEX idx_reorder_suggestions_suggested ON reorder_suggestions (suggested_quantity);
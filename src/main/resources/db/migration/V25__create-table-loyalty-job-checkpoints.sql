@@ -0,0 +1,8 @@
+-- Progresso dos jobs de fidelidade: um job interrompido retoma do último id confirmado
+CREATE TABLE loyalty_job_checkpoints (
+    job_name VARCHAR(50) PRIMARY KEY,
+    running BOOLEAN NOT NULL,
+    cutoff DATETIME(6) NOT NULL,
+    last_id BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL
+);
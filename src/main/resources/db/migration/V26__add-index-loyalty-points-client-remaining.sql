@@ -0,0 +1,5 @@
+-- Resgate FIFO: os lotes abertos do cliente são lidos em blocos direto do índice (coberto: id vem junto)
+CREATE INDEX idx_loyalty_points_client_remaining_created ON loyalty_points (client_id, remaining_points, created_at);
+
+-- O índice novo começa por client_id e atende a FK
+DROP INDEX idx_loyalty_points_client ON loyalty_points;
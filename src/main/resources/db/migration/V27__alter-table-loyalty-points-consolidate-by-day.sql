@@ -0,0 +1,35 @@
+-- Um lote por cliente e dia: o acúmulo passa a ser upsert em (client_id, earn_date)
+ALTER TABLE loyalty_points ADD COLUMN earn_date DATE NULL;
+
+-- O dia do lote começa às 02:00, horário padrão da expiração noturna (loyalty.expiry.cron):
+-- lotes criados entre duas execuções vencem na mesma execução 90 dias depois
+UPDATE loyalty_points SET earn_date = DATE(created_at - INTERVAL 2 HOUR);
+
+-- O lote de menor id de cada dia recebe a soma dos demais, com a validade mais cedo do dia.
+-- Como todas vencem na mesma execução noturna, nenhum ponto passa a vencer antes ou depois
+UPDATE loyalty_points p
+JOIN (
+    SELECT MIN(id) AS keep_id,
+           SUM(points) AS points,
+           SUM(remaining_points) AS remaining_points,
+           MIN(expiration_date) AS expiration_date,
+           MIN(created_at) AS created_at
+    FROM loyalty_points
+    GROUP BY client_id, earn_date
+    HAVING COUNT(*) > 1
+) g ON p.id = g.keep_id
+SET p.points = g.points,
+    p.remaining_points = g.remaining_points,
+    p.expiration_date = g.expiration_date,
+    p.created_at = g.created_at;
+
+DELETE p FROM loyalty_points p
+JOIN (
+    SELECT client_id, earn_date, MIN(id) AS keep_id
+    FROM loyalty_points
+    GROUP BY client_id, earn_date
+    HAVING COUNT(*) > 1
+) g ON p.client_id = g.client_id AND p.earn_date = g.earn_date AND p.id <> g.keep_id;
+
+ALTER TABLE loyalty_points MODIFY earn_date DATE NOT NULL;
+ALTER TABLE loyalty_points ADD CONSTRAINT uk_loyalty_points_client_earn_date UNIQUE (client_id, earn_date);
@@ -0,0 +1,16 @@
+-- Pontos em aberto por semana de vencimento (segunda-feira). Cada semana é dividida em 16 faixas
+-- por client_id para que as vendas do dia não disputem a mesma linha
+CREATE TABLE loyalty_liability (
+    expiry_week DATE NOT NULL,
+    slot INT NOT NULL,
+    points BIGINT NOT NULL,
+    PRIMARY KEY (expiry_week, slot)
+);
+
+INSERT INTO loyalty_liability (expiry_week, slot, points)
+SELECT DATE_SUB(DATE(expiration_date), INTERVAL WEEKDAY(expiration_date) DAY) AS expiry_week,
+       MOD(client_id, 16) AS slot,
+       SUM(remaining_points)
+FROM loyalty_points
+WHERE remaining_points > 0
+GROUP BY expiry_week, slot;
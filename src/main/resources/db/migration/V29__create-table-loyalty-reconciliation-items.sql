@@ -0,0 +1,16 @@
+-- Resultado da conciliação do razão de pontos; a tabela é regravada a cada execução
+CREATE TABLE loyalty_reconciliation_items (
+    client_id BIGINT PRIMARY KEY,
+    ledger_points BIGINT NOT NULL,
+    balance_points INT NOT NULL,
+    batch_points INT NOT NULL,
+    balance_mismatch BOOLEAN NOT NULL,
+    batches_mismatch BOOLEAN NOT NULL,
+    repaired BOOLEAN NOT NULL,
+    checked_at DATETIME(6) NOT NULL,
+    CONSTRAINT fk_loyalty_reconciliation_items_client FOREIGN KEY (client_id) REFERENCES clients(id)
+);
+
+-- a soma por cliente da conciliação sai só do índice, sem ler as linhas da tabela
+CREATE INDEX idx_loyalty_transactions_client_points ON loyalty_transactions (client_id, points);
+DROP INDEX idx_loyalty_transactions_client ON loyalty_transactions;
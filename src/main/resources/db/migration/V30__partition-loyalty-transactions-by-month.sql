@@ -0,0 +1,37 @@
+-- Totais por mês, cliente e tipo dos meses já fechados (LoyaltyMonthlyRollupJob)
+CREATE TABLE loyalty_monthly_summary (
+    month_start DATE NOT NULL,
+    client_id BIGINT NOT NULL,
+    type VARCHAR(20) NOT NULL,
+    points BIGINT NOT NULL,
+    transactions INT NOT NULL,
+    PRIMARY KEY (month_start, client_id, type)
+);
+
+-- MySQL não particiona tabela com chave estrangeira, e toda chave única precisa conter a coluna de partição
+ALTER TABLE loyalty_transactions DROP FOREIGN KEY fk_loyalty_transactions_client;
+ALTER TABLE loyalty_transactions DROP PRIMARY KEY, ADD PRIMARY KEY (id, created_at);
+
+-- uma partição por mês, do primeiro mês com transações até dois meses à frente, mais p_future;
+-- o job de rollup cria os meses seguintes a partir de p_future
+SET SESSION group_concat_max_len = 1048576;
+SET @first_month = (SELECT DATE_FORMAT(COALESCE(MIN(created_at), CURDATE()), '%Y-%m-01') FROM loyalty_transactions);
+SET @last_month = DATE_FORMAT(CURDATE(), '%Y-%m-01') + INTERVAL 2 MONTH;
+
+WITH RECURSIVE months (month_start) AS (
+    SELECT CAST(@first_month AS DATE)
+    UNION ALL
+    SELECT month_start + INTERVAL 1 MONTH FROM months WHERE month_start < @last_month
+)
+SELECT GROUP_CONCAT(
+           CONCAT('PARTITION p', DATE_FORMAT(month_start, '%Y%m'),
+                  ' VALUES LESS THAN (''', month_start + INTERVAL 1 MONTH, ''')')
+           ORDER BY month_start SEPARATOR ', ')
+INTO @partitions
+FROM months;
+
+SET @ddl = CONCAT('ALTER TABLE loyalty_transactions PARTITION BY RANGE COLUMNS (created_at) (',
+                  @partitions, ', PARTITION p_future VALUES LESS THAN (MAXVALUE))');
+PREPARE partition_stmt FROM @ddl;
+EXECUTE partition_stmt;
+DEALLOCATE PREPARE partition_stmt;
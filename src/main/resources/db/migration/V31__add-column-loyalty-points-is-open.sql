@@ -0,0 +1,9 @@
+-- Resgate FIFO: com o intervalo em remaining_points o índice de V26 não entrega as linhas em
+-- (created_at, id), então o MySQL ordenava e travava todos os lotes abertos do cliente.
+-- Com igualdade em is_open o índice já vem na ordem do ORDER BY e o LIMIT para a leitura.
+ALTER TABLE loyalty_points ADD COLUMN is_open TINYINT AS (remaining_points > 0) VIRTUAL;
+
+CREATE INDEX idx_loyalty_points_client_open_created ON loyalty_points (client_id, is_open, created_at, id);
+
+-- O índice novo começa por client_id e atende a FK
+DROP INDEX idx_loyalty_points_client_remaining_created ON loyalty_points;
@@ -1,14 +1,19 @@
 package com.api.rest.conveniencestore.loyalty.controller;
 
 import com.api.rest.conveniencestore.client.dto.ClientDto;
+import com.api.rest.conveniencestore.loyalty.dto.LoyaltyExpiringBatchDto;
+import com.api.rest.conveniencestore.loyalty.dto.LoyaltyExpiringPointsDto;
+import com.api.rest.conveniencestore.loyalty.dto.LoyaltyReconciliationItemDto;
 import com.api.rest.conveniencestore.loyalty.dto.LoyaltySimulateDto;
 import com.api.rest.conveniencestore.loyalty.dto.LoyaltySimulateResponseDto;
 import com.api.rest.conveniencestore.loyalty.dto.LoyaltyTransactionDto;
 import com.api.rest.conveniencestore.shared.enums.TransactionType;
+import com.api.rest.conveniencestore.shared.exception.ClientCpfNotFoundException;
 import com.api.rest.conveniencestore.client.model.Client;
 import com.api.rest.conveniencestore.user.repository.UserRepository;
 import com.api.rest.conveniencestore.security.ConfigurationSecurity;
 import com.api.rest.conveniencestore.client.service.ClientService;
+import com.api.rest.conveniencestore.loyalty.service.LoyaltyReconciliationJob;
 import com.api.rest.conveniencestore.loyalty.service.LoyaltyService;
 import com.api.rest.conveniencestore.user.service.TokenService;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -30,6 +35,7 @@ import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -51,6 +57,9 @@ class LoyaltyControllerTest {
     @MockBean
     private ClientService clientService;
 
+    @MockBean
+    private LoyaltyReconciliationJob reconciliationJob;
+
     @MockBean
     private TokenService tokenService;
 
@@ -120,4 +129,64 @@ class LoyaltyControllerTest {
         mockMvc.perform(get("/loyalty/clients/1/transactions"))
                 .andExpect(status().isForbidden());
     }
+
+    // === GET /loyalty/clients/{id}/expiring ===
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getExpiringPoints_ShouldReturn200WithBatches() throws Exception {
+        LocalDateTime expiration = LocalDateTime.of(2026, 3, 2, 10, 0);
+        LoyaltyExpiringPointsDto response = new LoyaltyExpiringPointsDto(1L, 30, 120,
+                List.of(new LoyaltyExpiringBatchDto(expiration, 120)));
+
+        when(loyaltyService.getExpiringPoints(1L, 30)).thenReturn(response);
+
+        mockMvc.perform(get("/loyalty/clients/1/expiring").param("days", "30"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalPoints").value(120))
+                .andExpect(jsonPath("$.batches[0].expirationDate").value("02/03/2026 10:00:00"))
+                .andExpect(jsonPath("$.batches[0].points").value(120));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getExpiringPoints_WhenClientDoesNotExist_ShouldReturn404() throws Exception {
+        when(clientService.findById(99L)).thenThrow(new ClientCpfNotFoundException("Cliente não encontrado"));
+
+        mockMvc.perform(get("/loyalty/clients/99/expiring"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getExpiringPoints_WhenNotAdmin_ShouldReturn403() throws Exception {
+        mockMvc.perform(get("/loyalty/clients/1/expiring"))
+                .andExpect(status().isForbidden());
+
+        verifyNoInteractions(loyaltyService);
+    }
+
+    // === GET /loyalty/reconciliation ===
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getReconciliation_ShouldReturn200WithDiscrepancies() throws Exception {
+        LoyaltyReconciliationItemDto item = new LoyaltyReconciliationItemDto(1L, "Maria", 300, 250, 300,
+                true, false, false, LocalDateTime.now());
+
+        when(reconciliationJob.items(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(item)));
+
+        mockMvc.perform(get("/loyalty/reconciliation"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].ledgerPoints").value(300))
+                .andExpect(jsonPath("$.content[0].balancePoints").value(250))
+                .andExpect(jsonPath("$.content[0].balanceMismatch").value(true));
+    }
+
+    @Test
+    @WithMockUser(roles = "USER")
+    void getReconciliation_WhenNotAdmin_ShouldReturn403() throws Exception {
+        mockMvc.perform(get("/loyalty/reconciliation"))
+                .andExpect(status().isForbidden());
+    }
 }
@@ -0,0 +1,169 @@
+package com.api.rest.conveniencestore.loyalty.service;
+
+import com.api.rest.conveniencestore.loyalty.model.LoyaltyJobCheckpoint;
+import com.api.rest.conveniencestore.loyalty.repository.LoyaltyJobCheckpointRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoyaltyExpiryJobTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private LoyaltyJobCheckpointRepository checkpointRepository;
+
+    @Mock
+    private LoyaltyLiabilityLedger liabilityLedger;
+
+    private static final LocalDateTime EXPIRATION = LocalDateTime.of(2026, 1, 7, 9, 30);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Object> deducted = Collections.synchronizedList(new ArrayList<>());
+    private final List<Object> inserted = Collections.synchronizedList(new ArrayList<>());
+    private LoyaltyExpiryJob job;
+
+    @BeforeEach
+    void setUp() {
+        // blocos de 2 lotes, 2 partições
+        job = new LoyaltyExpiryJob(jdbcTemplate, transactionTemplate, checkpointRepository, liabilityLedger, meterRegistry, 2, 2);
+    }
+
+    // lotes vencidos: {id, client_id, remaining_points}
+    @SuppressWarnings("unchecked")
+    private void givenExpiredBatches(long[][] rows, Set<Long> consumedMeanwhile) {
+        when(jdbcTemplate.query(contains("FROM loyalty_points"), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(invocation -> {
+                    RowMapper<Object> mapper = invocation.getArgument(1);
+                    long lastId = invocation.getArgument(2);
+                    int limit = invocation.getArgument(4);
+                    List<Object> page = new ArrayList<>();
+                    for (long[] row : rows) {
+                        if (row[0] <= lastId || page.size() == limit) continue;
+                        ResultSet rs = mock(ResultSet.class);
+                        when(rs.getLong("id")).thenReturn(row[0]);
+                        when(rs.getLong("client_id")).thenReturn(row[1]);
+                        when(rs.getInt("remaining_points")).thenReturn((int) row[2]);
+                        when(rs.getTimestamp("expiration_date")).thenReturn(Timestamp.valueOf(EXPIRATION));
+                        page.add(mapper.mapRow(rs, page.size()));
+                    }
+                    return page;
+                });
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(jdbcTemplate.batchUpdate(contains("UPDATE loyalty_points"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    List<LoyaltyExpiryJob.ExpiredBatch> batches = new ArrayList<>(invocation.getArgument(1));
+                    int[] counts = new int[batches.size()];
+                    for (int i = 0; i < counts.length; i++) {
+                        counts[i] = consumedMeanwhile.contains(batches.get(i).id()) ? 0 : 1;
+                    }
+                    return new int[][]{counts};
+                });
+        lenient().when(jdbcTemplate.batchUpdate(contains("UPDATE clients"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    deducted.addAll(invocation.getArgument(1));
+                    return new int[0][0];
+                });
+        lenient().when(jdbcTemplate.batchUpdate(contains("INSERT INTO loyalty_transactions"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    inserted.addAll(invocation.getArgument(1));
+                    return new int[0][0];
+                });
+    }
+
+    @Test
+    void run_ShouldExpireInChunksAndDeductOncePerClient() {
+        givenExpiredBatches(new long[][]{{1, 10, 100}, {2, 10, 50}, {3, 11, 30}}, Set.of());
+        when(checkpointRepository.findById(LoyaltyExpiryJob.JOB_NAME)).thenReturn(Optional.empty());
+
+        int expired = job.run();
+
+        assertThat(expired).isEqualTo(3);
+        // cliente 10 tem dois lotes no mesmo bloco: um único UPDATE de saldo
+        assertThat(deducted).containsExactlyInAnyOrder(Map.entry(10L, 150), Map.entry(11L, 30));
+        assertThat(inserted).hasSize(3);
+        verify(jdbcTemplate, times(2)).query(startsWith("SELECT id FROM clients"), any(RowMapper.class), any(Object[].class));
+
+        ArgumentCaptor<LoyaltyJobCheckpoint> saved = ArgumentCaptor.forClass(LoyaltyJobCheckpoint.class);
+        verify(checkpointRepository, atLeastOnce()).save(saved.capture());
+        assertThat(saved.getValue().getLastId()).isEqualTo(3);
+        assertThat(saved.getValue().isRunning()).isFalse();
+        assertThat(meterRegistry.counter("loyalty.expiry.batches").count()).isEqualTo(3.0);
+        assertThat(meterRegistry.counter("loyalty.expiry.points").count()).isEqualTo(180.0);
+        assertThat(meterRegistry.timer("loyalty.expiry.duration").count()).isEqualTo(1);
+    }
+
+    @Test
+    void run_WhenBatchWasConsumedMeanwhile_ShouldSkipIt() {
+        givenExpiredBatches(new long[][]{{1, 10, 100}, {2, 11, 50}}, Set.of(2L));
+        when(checkpointRepository.findById(LoyaltyExpiryJob.JOB_NAME)).thenReturn(Optional.empty());
+
+        int expired = job.run();
+
+        assertThat(expired).isEqualTo(1);
+        assertThat(deducted).containsExactly(Map.entry(10L, 100));
+        assertThat(inserted).hasSize(1);
+        verify(liabilityLedger).apply(List.of(new LoyaltyLiabilityLedger.Change(10L, EXPIRATION, -100)));
+    }
+
+    @Test
+    void run_WhenCheckpointIsRunning_ShouldResumeAfterLastId() {
+        givenExpiredBatches(new long[][]{{1, 10, 100}, {2, 10, 50}, {3, 11, 30}}, Set.of());
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(1);
+        LoyaltyJobCheckpoint checkpoint = new LoyaltyJobCheckpoint(LoyaltyExpiryJob.JOB_NAME);
+        checkpoint.start(cutoff);
+        checkpoint.advance(2);
+        when(checkpointRepository.findById(LoyaltyExpiryJob.JOB_NAME)).thenReturn(Optional.of(checkpoint));
+
+        int expired = job.run();
+
+        // o bloco já confirmado antes da queda não é relido
+        assertThat(expired).isEqualTo(1);
+        assertThat(deducted).containsExactly(Map.entry(11L, 30));
+        assertThat(checkpoint.getCutoff()).isEqualTo(cutoff);
+        assertThat(checkpoint.getLastId()).isEqualTo(3);
+        assertThat(checkpoint.isRunning()).isFalse();
+    }
+
+    @Test
+    void resumeInterrupted_WhenLastRunFinished_ShouldDoNothing() {
+        LoyaltyJobCheckpoint checkpoint = new LoyaltyJobCheckpoint(LoyaltyExpiryJob.JOB_NAME);
+        checkpoint.start(LocalDateTime.now());
+        checkpoint.finish();
+        when(checkpointRepository.findById(LoyaltyExpiryJob.JOB_NAME)).thenReturn(Optional.of(checkpoint));
+
+        job.resumeInterrupted();
+
+        verifyNoInteractions(jdbcTemplate, transactionTemplate);
+    }
+}
@@ -0,0 +1,99 @@
+package com.api.rest.conveniencestore.loyalty.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoyaltyExpiryWheelTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private LoyaltyExpiryJob expiryJob;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LoyaltyExpiryWheel wheel;
+
+    @BeforeEach
+    void setUp() {
+        wheel = new LoyaltyExpiryWheel(jdbcTemplate, expiryJob, meterRegistry, 1000);
+    }
+
+    private ResultSet row(long id, LocalDateTime expirationDate) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getTimestamp("expiration_date")).thenReturn(Timestamp.valueOf(expirationDate));
+        return rs;
+    }
+
+    private void givenOpenBatches(List<ResultSet> rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (ResultSet rs : rows) handler.processRow(rs);
+            return null;
+        }).doNothing().when(jdbcTemplate).query(contains("FROM loyalty_points"), any(RowCallbackHandler.class), any(Object[].class));
+    }
+
+    @Test
+    void tick_ShouldExpireOnlyDueBatches() throws Exception {
+        // o lote 1 venceu com a aplicação parada; o lote 2 vence daqui a duas horas
+        givenOpenBatches(List.of(row(1L, LocalDateTime.now().minusHours(1)), row(2L, LocalDateTime.now().plusHours(2))));
+        wheel.load();
+        when(expiryJob.expireDue(eq(List.of(1L)), any())).thenReturn(1);
+
+        int expired = wheel.tick();
+
+        assertThat(expired).isEqualTo(1);
+        verify(expiryJob).expireDue(eq(List.of(1L)), any());
+        assertThat(meterRegistry.get("loyalty.expiry.wheel.size").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void tick_WhenBatchExpiresLaterThisMinute_ShouldWaitForIt() throws Exception {
+        // vence no meio do minuto: disparar no início dele faria expireDue ignorar o lote para sempre
+        givenOpenBatches(List.of(row(1L, LocalDateTime.now().plusSeconds(30))));
+        wheel.load();
+
+        assertThat(wheel.tick()).isZero();
+
+        verifyNoInteractions(expiryJob);
+        assertThat(meterRegistry.get("loyalty.expiry.wheel.size").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void tick_WhenExpiryFails_ShouldRetryOnNextTick() throws Exception {
+        givenOpenBatches(List.of(row(1L, LocalDateTime.now().minusMinutes(5))));
+        wheel.load();
+        when(expiryJob.expireDue(eq(List.of(1L)), any()))
+                .thenThrow(new IllegalStateException("deadlock"))
+                .thenReturn(1);
+
+        assertThat(wheel.tick()).isZero();
+        assertThat(wheel.tick()).isEqualTo(1);
+
+        verify(expiryJob, times(2)).expireDue(eq(List.of(1L)), any());
+    }
+
+    @Test
+    void tick_BeforeLoad_ShouldDoNothing() {
+        assertThat(wheel.tick()).isZero();
+
+        verifyNoInteractions(jdbcTemplate, expiryJob);
+    }
+}
@@ -0,0 +1,64 @@
+package com.api.rest.conveniencestore.loyalty.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoyaltyLiabilityLedgerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @InjectMocks
+    private LoyaltyLiabilityLedger ledger;
+
+    @Test
+    void weekOf_ShouldReturnMondayOfTheExpiryWeek() {
+        // 2026-03-08 é domingo
+        assertThat(LoyaltyLiabilityLedger.weekOf(LocalDateTime.of(2026, 3, 8, 23, 59))).isEqualTo(LocalDate.of(2026, 3, 2));
+        assertThat(LoyaltyLiabilityLedger.weekOf(LocalDateTime.of(2026, 3, 2, 0, 0))).isEqualTo(LocalDate.of(2026, 3, 2));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void apply_ShouldAggregateByWeekAndSlotInKeyOrder() {
+        LocalDateTime nextWeek = LocalDateTime.of(2026, 3, 10, 8, 0);
+        LocalDateTime thisWeek = LocalDateTime.of(2026, 3, 4, 8, 0);
+
+        ledger.apply(List.of(
+                new LoyaltyLiabilityLedger.Change(17L, nextWeek, -40),
+                new LoyaltyLiabilityLedger.Change(1L, thisWeek, -100),
+                new LoyaltyLiabilityLedger.Change(1L, thisWeek.plusDays(1), -20),
+                // mesmo cliente, ganho e estorno na mesma semana se anulam
+                new LoyaltyLiabilityLedger.Change(2L, thisWeek, 30),
+                new LoyaltyLiabilityLedger.Change(2L, thisWeek, -30)));
+
+        ArgumentCaptor<Collection<Map.Entry<?, Long>>> rows = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(contains("loyalty_liability"), rows.capture(), eq(2), any(ParameterizedPreparedStatementSetter.class));
+        // cliente 17 cai na faixa 1, a mesma do cliente 1, mas em outra semana
+        assertThat(rows.getValue()).extracting(Map.Entry::getValue).containsExactly(-120L, -40L);
+    }
+
+    @Test
+    void apply_WhenNothingChanges_ShouldNotWrite() {
+        ledger.apply(List.of(new LoyaltyLiabilityLedger.Change(1L, LocalDateTime.now(), 0)));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
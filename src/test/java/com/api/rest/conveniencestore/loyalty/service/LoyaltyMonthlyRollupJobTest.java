@@ -0,0 +1,86 @@
+package com.api.rest.conveniencestore.loyalty.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoyaltyMonthlyRollupJobTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final YearMonth current = YearMonth.now();
+    private LoyaltyMonthlyRollupJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new LoyaltyMonthlyRollupJob(jdbcTemplate, transactionTemplate, 2);
+    }
+
+    private static String partition(YearMonth month) {
+        return String.format("p%04d%02d", month.getYear(), month.getMonthValue());
+    }
+
+    @Test
+    void run_ShouldRollEveryClosedMonthAfterTheLastRolledOne() {
+        when(jdbcTemplate.queryForList(contains("information_schema.PARTITIONS"), eq(String.class))).thenReturn(List.of());
+        when(jdbcTemplate.queryForObject(contains("loyalty_monthly_summary"), eq(LocalDate.class)))
+                .thenReturn(current.minusMonths(3).atDay(1));
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        int rolled = job.run();
+
+        // o mês corrente ainda está aberto e fica de fora
+        assertThat(rolled).isEqualTo(2);
+        verify(jdbcTemplate).update(startsWith("INSERT INTO loyalty_monthly_summary"),
+                eq(Date.valueOf(current.minusMonths(2).atDay(1))), any(Timestamp.class), any(Timestamp.class));
+        verify(jdbcTemplate).update(startsWith("INSERT INTO loyalty_monthly_summary"),
+                eq(Date.valueOf(current.minusMonths(1).atDay(1))), any(Timestamp.class),
+                eq(Timestamp.valueOf(current.atDay(1).atStartOfDay())));
+    }
+
+    @Test
+    void run_WhenOnlyCurrentMonthHasTransactions_ShouldRollNothing() {
+        when(jdbcTemplate.queryForList(contains("information_schema.PARTITIONS"), eq(String.class))).thenReturn(List.of());
+        when(jdbcTemplate.queryForObject(contains("loyalty_monthly_summary"), eq(LocalDate.class))).thenReturn(null);
+        when(jdbcTemplate.queryForObject(contains("MIN(created_at)"), eq(Timestamp.class)))
+                .thenReturn(Timestamp.valueOf(current.atDay(1).atTime(10, 0)));
+
+        assertThat(job.run()).isZero();
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    @Test
+    void run_ShouldSplitFuturePartitionUntilMonthsAhead() {
+        when(jdbcTemplate.queryForList(contains("information_schema.PARTITIONS"), eq(String.class)))
+                .thenReturn(List.of(partition(current.minusMonths(1)), partition(current), partition(current.plusMonths(1))));
+        when(jdbcTemplate.queryForObject(contains("loyalty_monthly_summary"), eq(LocalDate.class)))
+                .thenReturn(current.minusMonths(1).atDay(1));
+
+        job.run();
+
+        verify(jdbcTemplate).execute(contains("PARTITION " + partition(current.plusMonths(2)) + " VALUES LESS THAN ('"
+                + current.plusMonths(3).atDay(1) + "')"));
+        verify(jdbcTemplate, times(1)).execute(anyString());
+    }
+}
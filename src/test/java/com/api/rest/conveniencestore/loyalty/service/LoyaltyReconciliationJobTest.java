@@ -0,0 +1,151 @@
+package com.api.rest.conveniencestore.loyalty.service;
+
+import com.api.rest.conveniencestore.loyalty.repository.LoyaltyReconciliationItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LoyaltyReconciliationJobTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private LoyaltyReconciliationItemRepository itemRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<LoyaltyReconciliationJob.Discrepancy> written = new ArrayList<>();
+
+    private LoyaltyReconciliationJob job(boolean autoRepair) {
+        // 2 threads, 2 clientes por faixa
+        return new LoyaltyReconciliationJob(jdbcTemplate, transactionTemplate, itemRepository, meterRegistry, 2, 2, autoRepair);
+    }
+
+    private ResultSet row(String idColumn, long id, String valueColumn, long value) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(idColumn)).thenReturn(id);
+        if (valueColumn.equals("ledger_points")) {
+            when(rs.getLong(valueColumn)).thenReturn(value);
+        } else {
+            when(rs.getInt(valueColumn)).thenReturn((int) value);
+        }
+        return rs;
+    }
+
+    // razão {1: 100, 2: 50, 4: 30}; saldos {1: 100, 2: 40, 3: 20, 4: 30}; lotes {1: 100, 2: 40, 4: 10}
+    private void givenLedger() throws Exception {
+        List<ResultSet> ledger = List.of(row("client_id", 1, "ledger_points", 100),
+                row("client_id", 2, "ledger_points", 50), row("client_id", 4, "ledger_points", 30));
+        Map<Long, ResultSet> balances = Map.of(1L, row("id", 1, "points_balance", 100), 2L, row("id", 2, "points_balance", 40),
+                3L, row("id", 3, "points_balance", 20), 4L, row("id", 4, "points_balance", 30));
+        Map<Long, ResultSet> batches = Map.of(1L, row("client_id", 1, "batch_points", 100),
+                2L, row("client_id", 2, "batch_points", 40), 4L, row("client_id", 4, "batch_points", 10));
+
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (ResultSet rs : ledger) handler.processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        doAnswer(invocation -> replay(balances, invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3)))
+                .when(jdbcTemplate).query(contains("FROM clients"), any(RowCallbackHandler.class), any(Object[].class));
+        doAnswer(invocation -> replay(batches, invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3)))
+                .when(jdbcTemplate).query(contains("FROM loyalty_points"), any(RowCallbackHandler.class), any(Object[].class));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(jdbcTemplate.batchUpdate(contains("INSERT INTO loyalty_reconciliation_items"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    written.addAll(invocation.<Collection<LoyaltyReconciliationJob.Discrepancy>>getArgument(1));
+                    return new int[0][0];
+                });
+    }
+
+    // devolve as linhas da faixa (from, to] em ordem de id
+    private static Object replay(Map<Long, ResultSet> rows, RowCallbackHandler handler, long from, long to) throws Exception {
+        for (long id = from + 1; id <= Math.min(to, 10); id++) {
+            if (rows.containsKey(id)) handler.processRow(rows.get(id));
+        }
+        return null;
+    }
+
+    @Test
+    void compare_ShouldFlagOnlyBatchesBelowLedger() {
+        assertThat(LoyaltyReconciliationJob.compare(1L, 100, 100, 100)).isNull();
+        // saldo negativo seguido de acúmulo deixa lotes acima do razão: não é divergência
+        assertThat(LoyaltyReconciliationJob.compare(1L, 0, 0, 100)).isNull();
+        assertThat(LoyaltyReconciliationJob.compare(1L, -40, -40, 0)).isNull();
+
+        LoyaltyReconciliationJob.Discrepancy discrepancy = LoyaltyReconciliationJob.compare(1L, 100, 90, 60);
+        assertThat(discrepancy.balanceMismatch()).isTrue();
+        assertThat(discrepancy.batchesMismatch()).isTrue();
+        assertThat(discrepancy.repaired()).isFalse();
+    }
+
+    @Test
+    void run_ShouldCheckEveryClientRangeAndRewriteReport() throws Exception {
+        givenLedger();
+
+        int found = job(false).run();
+
+        // cliente 3 não tem transações e ainda assim é conferido pela faixa que o cobre
+        assertThat(found).isEqualTo(3);
+        assertThat(written).extracting(LoyaltyReconciliationJob.Discrepancy::clientId).containsExactlyInAnyOrder(2L, 3L, 4L);
+        assertThat(written).filteredOn(d -> d.clientId() == 4L).singleElement()
+                .satisfies(d -> assertThat(d.balanceMismatch()).isFalse())
+                .satisfies(d -> assertThat(d.batchesMismatch()).isTrue());
+        verify(jdbcTemplate).update("DELETE FROM loyalty_reconciliation_items");
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE clients"), any(Object[].class));
+        assertThat(meterRegistry.counter("loyalty.reconciliation.discrepancies").count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void run_WhenAutoRepair_ShouldFixBalanceRecheckedUnderLock() throws Exception {
+        givenLedger();
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        // cliente 2 tinha uma transação em andamento na leitura: sob a trava o saldo já bate com o razão
+        Map<Long, Integer> lockedBalances = Map.of(2L, 50, 3L, 20);
+        Map<Long, Long> lockedLedgers = Map.of(2L, 50L, 3L, 0L);
+        when(jdbcTemplate.queryForObject(contains("FOR UPDATE"), eq(Integer.class), any(Object[].class)))
+                .thenAnswer(invocation -> lockedBalances.get(invocation.<Long>getArgument(2)));
+        when(jdbcTemplate.queryForObject(contains("FROM loyalty_transactions"), eq(Long.class), any(Object[].class)))
+                .thenAnswer(invocation -> lockedLedgers.get(invocation.<Long>getArgument(2)));
+
+        job(true).run();
+
+        verify(jdbcTemplate).update("UPDATE clients SET points_balance = ? WHERE id = ?", 0, 3L);
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE clients"), anyInt(), eq(2L));
+        assertThat(written).filteredOn(d -> d.clientId() == 3L).singleElement()
+                .satisfies(d -> assertThat(d.repaired()).isTrue());
+        // cliente 2 segue no relatório só pelos lotes
+        assertThat(written).filteredOn(d -> d.clientId() == 2L).singleElement()
+                .satisfies(d -> assertThat(d.balanceMismatch()).isFalse())
+                .satisfies(d -> assertThat(d.batchesMismatch()).isTrue());
+        assertThat(meterRegistry.counter("loyalty.reconciliation.repaired").count()).isEqualTo(1.0);
+    }
+}
@@ -0,0 +1,95 @@
+package com.api.rest.conveniencestore.loyalty.service;
+
+import com.api.rest.conveniencestore.client.dto.ClientDto;
+import com.api.rest.conveniencestore.client.model.Client;
+import com.api.rest.conveniencestore.client.repository.ClientRepository;
+import com.api.rest.conveniencestore.loyalty.model.LoyaltyPoint;
+import com.api.rest.conveniencestore.loyalty.repository.LoyaltyPointRepository;
+import com.api.rest.conveniencestore.shared.exception.LoyaltyException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+// banco próprio: as transações concorrentes precisam de commits reais, fora do rollback de teste
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:loyaltydb;DB_CLOSE_DELAY=-1;MODE=MySQL;LOCK_TIMEOUT=10000")
+class LoyaltyRedemptionConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private LoyaltyService loyaltyService;
+
+    @Autowired
+    private ClientRepository clientRepository;
+
+    @Autowired
+    private LoyaltyPointRepository loyaltyPointRepository;
+
+    @Test
+    void redeemPoints_WhenConcurrentForSameClient_ShouldNeverOverspend() throws Exception {
+        Client client = clientRepository.save(new Client(new ClientDto("Ana Souza", "529.982.247-25")));
+        loyaltyService.earnPoints(client, 300.0, null);
+        loyaltyService.earnPoints(client, 200.0, null);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(executor.submit(() -> {
+                    Client sameClient = clientRepository.findById(client.getId()).orElseThrow();
+                    start.await();
+                    try {
+                        loyaltyService.redeemPoints(sameClient, 100, 1000.0, null);
+                        return true;
+                    } catch (LoyaltyException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int redeemed = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) redeemed++;
+            }
+
+            // 500 pontos pagam exatamente cinco resgates de 100
+            assertThat(redeemed).isEqualTo(5);
+            assertThat(clientRepository.findPointsBalance(client.getId())).isZero();
+            assertThat(loyaltyPointRepository.findAll())
+                    .filteredOn(batch -> batch.getClientId().equals(client.getId()))
+                    .extracting(LoyaltyPoint::getRemainingPoints)
+                    .containsOnly(0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void earnPoints_WhenSameDay_ShouldMergeIntoOneBatch() {
+        Client client = clientRepository.save(new Client(new ClientDto("João Lima", "111.444.777-35")));
+        loyaltyService.earnPoints(client, 12.0, null);
+        loyaltyService.earnPoints(client, 8.0, null);
+        loyaltyService.earnPoints(client, 30.0, null);
+
+        assertThat(loyaltyPointRepository.findAll())
+                .filteredOn(batch -> batch.getClientId().equals(client.getId()))
+                .singleElement()
+                .satisfies(batch -> {
+                    assertThat(batch.getPoints()).isEqualTo(50);
+                    assertThat(batch.getRemainingPoints()).isEqualTo(50);
+                });
+        assertThat(clientRepository.findPointsBalance(client.getId())).isEqualTo(50);
+    }
+}
@@ -1,19 +1,22 @@
 package com.api.rest.conveniencestore.loyalty.service;
 
 import com.api.rest.conveniencestore.client.dto.ClientDto;
+import com.api.rest.conveniencestore.loyalty.dto.LoyaltyExpiringBatchDto;
+import com.api.rest.conveniencestore.loyalty.dto.LoyaltyExpiringPointsDto;
 import com.api.rest.conveniencestore.loyalty.dto.LoyaltySimulateResponseDto;
 import com.api.rest.conveniencestore.loyalty.dto.LoyaltyTransactionDto;
 import com.api.rest.conveniencestore.shared.enums.TransactionType;
 import com.api.rest.conveniencestore.shared.exception.LoyaltyException;
 import com.api.rest.conveniencestore.client.model.Client;
-import com.api.rest.conveniencestore.loyalty.model.LoyaltyPoint;
 import com.api.rest.conveniencestore.loyalty.model.LoyaltyTransaction;
+import com.api.rest.conveniencestore.loyalty.projection.LoyaltyBatchProjection;
 import com.api.rest.conveniencestore.client.repository.ClientRepository;
 import com.api.rest.conveniencestore.loyalty.repository.LoyaltyPointRepository;
 import com.api.rest.conveniencestore.loyalty.repository.LoyaltyTransactionRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -22,13 +25,21 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -43,14 +54,23 @@ class LoyaltyServiceTest {
     @Mock
     private LoyaltyTransactionRepository loyaltyTransactionRepository;
 
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private LoyaltyLiabilityLedger liabilityLedger;
+
     @InjectMocks
     private LoyaltyService loyaltyService;
 
+    private static final LocalDateTime EXPIRATION = LocalDateTime.of(2026, 3, 2, 10, 0);
+
     private Client client;
 
     @BeforeEach
     void setUp() {
         client = new Client(new ClientDto("Maria Silva", "123.456.789-09"));
+        ReflectionTestUtils.setField(loyaltyService, "expiryCron", "0 0 2 * * *");
     }
 
     // === earnPoints ===
@@ -60,49 +80,136 @@ class LoyaltyServiceTest {
         loyaltyService.earnPoints(client, 150.99, 1L);
 
         assertThat(client.getPointsBalance()).isEqualTo(150); // floor(150.99)
-        verify(clientRepository).save(client);
-        verify(loyaltyPointRepository).save(any(LoyaltyPoint.class));
+        verify(clientRepository).addPoints(client.getId(), 150);
+        verify(jdbcTemplate).update(contains("ON DUPLICATE KEY UPDATE"), any(), any(), eq(150), eq(150), any(), any());
+        verify(liabilityLedger).apply(any(), any(LocalDateTime.class), eq(150));
         verify(loyaltyTransactionRepository).save(any(LoyaltyTransaction.class));
     }
 
+    @Test
+    void creditBatch_ShouldStartTheBatchDayAtTheNightlyExpiryRun() {
+        LocalDate day = LocalDate.of(2026, 3, 10);
+
+        // 01:00 do dia 10 vence às 01:00 de 08/06 e sai na execução das 02:00 de 08/06
+        loyaltyService.creditBatch(1L, 10, day.atTime(1, 0));
+        // 10:00 do dia 10 e 01:00 do dia 11 saem ambos na execução das 02:00 de 09/06: mesmo lote
+        loyaltyService.creditBatch(1L, 20, day.atTime(10, 0));
+        loyaltyService.creditBatch(1L, 30, day.plusDays(1).atTime(1, 0));
+
+        verify(jdbcTemplate).update(contains("LEAST(expiration_date, VALUES(expiration_date))"), eq(1L),
+                eq(Date.valueOf(day.minusDays(1))), eq(10), eq(10), eq(Timestamp.valueOf(day.atTime(1, 0).plusDays(90))), any());
+        verify(jdbcTemplate).update(anyString(), eq(1L), eq(Date.valueOf(day)), eq(20), eq(20), any(), any());
+        verify(jdbcTemplate).update(anyString(), eq(1L), eq(Date.valueOf(day)), eq(30), eq(30), any(), any());
+        assertThat(loyaltyService.batchDay(day.atTime(2, 0))).isEqualTo(day);
+        assertThat(loyaltyService.batchDay(day.atTime(1, 59, 59))).isEqualTo(day.minusDays(1));
+    }
+
     @Test
     void earnPoints_WhenValueIsZero_ShouldNotAddPoints() {
         loyaltyService.earnPoints(client, 0.50, 1L);
 
         assertThat(client.getPointsBalance()).isEqualTo(0);
-        verify(clientRepository, never()).save(any());
+        verifyNoInteractions(clientRepository);
     }
 
     // === redeemPoints ===
 
+    private static LoyaltyBatchProjection batch(long id, int remainingPoints) {
+        return new LoyaltyBatchProjection() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public int getRemainingPoints() {
+                return remainingPoints;
+            }
+
+            @Override
+            public LocalDateTime getExpirationDate() {
+                return EXPIRATION.plusDays(id);
+            }
+        };
+    }
+
+    private static LoyaltyService.Deduction deduction(long batchId, int points) {
+        return new LoyaltyService.Deduction(batchId, points);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<LoyaltyService.Deduction> deductions() {
+        ArgumentCaptor<Collection<LoyaltyService.Deduction>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(anyString(), captor.capture(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        return captor.getAllValues().stream().flatMap(Collection::stream).toList();
+    }
+
     @Test
     void redeemPoints_ShouldDeductFIFOAndReturnDiscount() {
         client.addPoints(500);
-        LoyaltyPoint batch = new LoyaltyPoint(1L, 500);
-
-        when(loyaltyPointRepository.findByClientIdAndRemainingPointsGreaterThanOrderByCreatedAtAsc(any(), eq(0)))
-                .thenReturn(List.of(batch));
+        when(clientRepository.deductPointsIfAvailable(any(), eq(200))).thenReturn(1);
+        when(loyaltyPointRepository.lockOpenBatchesSkipLocked(any(), anyInt())).thenReturn(List.of(batch(1L, 150), batch(2L, 350)));
 
         double discount = loyaltyService.redeemPoints(client, 200, 100.0, 1L);
 
         assertThat(discount).isEqualTo(2.0); // 200pts / 100 = R$2
         assertThat(client.getPointsBalance()).isEqualTo(300); // 500 - 200
-        assertThat(batch.getRemainingPoints()).isEqualTo(300);
+        assertThat(deductions()).containsExactly(deduction(1L, 150), deduction(2L, 50));
+        verify(loyaltyPointRepository, never()).lockOpenBatches(any(), anyInt());
+        // o passivo sai da semana de vencimento de cada lote consumido
+        verify(liabilityLedger).apply(List.of(
+                new LoyaltyLiabilityLedger.Change(null, EXPIRATION.plusDays(1), -150),
+                new LoyaltyLiabilityLedger.Change(null, EXPIRATION.plusDays(2), -50)));
         verify(loyaltyTransactionRepository).save(any(LoyaltyTransaction.class));
     }
 
+    @Test
+    void redeemPoints_WhenBatchesAreLocked_ShouldWaitForTheRemainder() {
+        client.addPoints(500);
+        when(clientRepository.deductPointsIfAvailable(any(), eq(200))).thenReturn(1);
+        // o lote 1 está travado pela expiração e não vem na primeira passada
+        when(loyaltyPointRepository.lockOpenBatchesSkipLocked(any(), anyInt())).thenReturn(List.of(batch(2L, 120)));
+        when(loyaltyPointRepository.lockOpenBatches(any(), anyInt())).thenReturn(List.of(batch(1L, 300)));
+
+        loyaltyService.redeemPoints(client, 200, 100.0, 1L);
+
+        assertThat(deductions()).containsExactly(deduction(2L, 120), deduction(1L, 80));
+    }
+
+    @Test
+    void redeemPoints_WhenFirstChunkDoesNotCover_ShouldReadOnlyTheNextOne() {
+        client.addPoints(1000);
+        when(clientRepository.deductPointsIfAvailable(any(), eq(300))).thenReturn(1);
+        List<LoyaltyBatchProjection> oldest = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            oldest.add(batch(id, 10));
+        }
+        // o primeiro bloco cheio é zerado; a segunda leitura já começa no lote 21
+        when(loyaltyPointRepository.lockOpenBatchesSkipLocked(any(), anyInt()))
+                .thenReturn(oldest)
+                .thenReturn(List.of(batch(21L, 500), batch(22L, 300)));
+
+        loyaltyService.redeemPoints(client, 300, 1000.0, 1L);
+
+        List<LoyaltyService.Deduction> deductions = deductions();
+        assertThat(deductions).hasSize(21);
+        assertThat(deductions.get(20)).isEqualTo(deduction(21L, 100));
+        verify(loyaltyPointRepository, times(2)).lockOpenBatchesSkipLocked(any(), anyInt());
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(loyaltyPointRepository, never()).lockOpenBatches(any(), anyInt());
+    }
+
     @Test
     void redeemPoints_ShouldRespectMax50Percent() {
         client.addPoints(10000);
-        LoyaltyPoint batch = new LoyaltyPoint(1L, 10000);
-
-        when(loyaltyPointRepository.findByClientIdAndRemainingPointsGreaterThanOrderByCreatedAtAsc(any(), eq(0)))
-                .thenReturn(List.of(batch));
+        when(clientRepository.deductPointsIfAvailable(any(), eq(500))).thenReturn(1);
+        when(loyaltyPointRepository.lockOpenBatchesSkipLocked(any(), anyInt())).thenReturn(List.of(batch(1L, 10000)));
 
         double discount = loyaltyService.redeemPoints(client, 10000, 10.0, 1L);
 
         assertThat(discount).isEqualTo(5.0); // max 50% de R$10
         assertThat(client.getPointsBalance()).isEqualTo(9500); // 10000 - 500pts efetivos
+        assertThat(deductions()).containsExactly(deduction(1L, 500));
     }
 
     @Test
@@ -126,10 +233,13 @@ class LoyaltyServiceTest {
     @Test
     void redeemPoints_WhenInsufficientBalance_ShouldThrow() {
         client.addPoints(100);
+        when(clientRepository.deductPointsIfAvailable(any(), eq(200))).thenReturn(0);
+        when(clientRepository.findPointsBalance(any())).thenReturn(100);
 
         assertThatThrownBy(() -> loyaltyService.redeemPoints(client, 200, 100.0, 1L))
                 .isInstanceOf(LoyaltyException.class)
                 .hasMessageContaining("insuficiente");
+        verifyNoInteractions(loyaltyPointRepository, loyaltyTransactionRepository);
     }
 
     // === cancelPoints ===
@@ -145,6 +255,7 @@ class LoyaltyServiceTest {
         loyaltyService.cancelPoints(1L);
 
         assertThat(client.getPointsBalance()).isEqualTo(0); // 100 - 100
+        verify(clientRepository).addPoints(1L, -100);
         verify(loyaltyTransactionRepository).save(any(LoyaltyTransaction.class));
     }
 
@@ -161,6 +272,51 @@ class LoyaltyServiceTest {
         assertThat(client.getPointsBalance()).isEqualTo(-100); // 0 - 100
     }
 
+    @Test
+    void cancelPoints_WhenEarnIsStillInBatch_ShouldRemoveWhatIsLeft() {
+        client.addPoints(100);
+        LoyaltyTransaction earnTx = new LoyaltyTransaction(1L, 100, TransactionType.EARN, 1L);
+
+        when(loyaltyTransactionRepository.findByReferenceId(1L)).thenReturn(List.of(earnTx));
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
+        // 40 dos 100 pontos já foram resgatados
+        when(loyaltyPointRepository.lockBatchOfDay(1L, loyaltyService.batchDay(earnTx.getCreatedAt()))).thenReturn(Optional.of(batch(5L, 60)));
+
+        loyaltyService.cancelPoints(1L);
+
+        verify(jdbcTemplate).update(contains("remaining_points - ?"), eq(60), eq(5L));
+        verify(liabilityLedger).apply(1L, EXPIRATION.plusDays(5), -60);
+    }
+
+    @Test
+    void cancelPoints_WhenRedeem_ShouldCreditTodaysBatch() {
+        LoyaltyTransaction redeemTx = new LoyaltyTransaction(1L, -200, TransactionType.REDEEM, 1L);
+
+        when(loyaltyTransactionRepository.findByReferenceId(1L)).thenReturn(List.of(redeemTx));
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
+
+        loyaltyService.cancelPoints(1L);
+
+        assertThat(client.getPointsBalance()).isEqualTo(200);
+        verify(jdbcTemplate).update(contains("ON DUPLICATE KEY UPDATE"), eq(1L), any(), eq(200), eq(200), any(), any());
+        verify(liabilityLedger).apply(eq(1L), any(LocalDateTime.class), eq(200));
+    }
+
+    // === getExpiringPoints ===
+
+    @Test
+    void getExpiringPoints_ShouldSumBatchesInsideTheWindow() {
+        when(loyaltyPointRepository.findExpiring(eq(1L), any(), any())).thenReturn(List.of(
+                new LoyaltyExpiringBatchDto(EXPIRATION, 120),
+                new LoyaltyExpiringBatchDto(EXPIRATION.plusDays(3), 30)));
+
+        LoyaltyExpiringPointsDto result = loyaltyService.getExpiringPoints(1L, 1000);
+
+        assertThat(result.totalPoints()).isEqualTo(150);
+        assertThat(result.days()).isEqualTo(365);
+        assertThat(result.batches()).hasSize(2);
+    }
+
     // === simulate ===
 
     @Test
@@ -197,22 +353,4 @@ class LoyaltyServiceTest {
         assertThat(result.getContent()).hasSize(1);
         assertThat(result.getContent().get(0).type()).isEqualTo(TransactionType.EARN);
     }
-
-    // === expirePoints ===
-
-    @Test
-    void expirePoints_ShouldZeroBatchAndDeductFromClient() {
-        client.addPoints(200);
-        LoyaltyPoint expiredBatch = new LoyaltyPoint(1L, 200);
-
-        when(loyaltyPointRepository.findByExpirationDateBeforeAndRemainingPointsGreaterThan(any(LocalDateTime.class), eq(0)))
-                .thenReturn(List.of(expiredBatch));
-        when(clientRepository.findById(1L)).thenReturn(Optional.of(client));
-
-        loyaltyService.expirePoints();
-
-        assertThat(client.getPointsBalance()).isEqualTo(0); // 200 - 200
-        assertThat(expiredBatch.getRemainingPoints()).isEqualTo(0);
-        verify(loyaltyTransactionRepository).save(any(LoyaltyTransaction.class));
-    }
 }
@@ -1,14 +1,43 @@
 package com.api.rest.conveniencestore.product.controller;
 
+import com.api.rest.conveniencestore.product.dto.ProductBarcodeDto;
+import com.api.rest.conveniencestore.product.dto.ProductBarcodeRegisterDto;
+import com.api.rest.conveniencestore.product.dto.ProductBulkUpdateErrorDto;
+import com.api.rest.conveniencestore.product.dto.ProductBulkUpdateResultDto;
+import com.api.rest.conveniencestore.product.dto.ProductChangeDto;
+import com.api.rest.conveniencestore.product.dto.ProductChangesDto;
 import com.api.rest.conveniencestore.product.dto.ProductDto;
+import com.api.rest.conveniencestore.product.dto.ProductExpiryDto;
+import com.api.rest.conveniencestore.product.dto.ProductImportErrorDto;
+import com.api.rest.conveniencestore.product.dto.ProductImportResultDto;
 import com.api.rest.conveniencestore.product.dto.ProductListingDto;
+import com.api.rest.conveniencestore.product.dto.ProductLotDto;
+import com.api.rest.conveniencestore.product.dto.ProductPriceDto;
+import com.api.rest.conveniencestore.product.dto.ProductReorderSuggestionDto;
+import com.api.rest.conveniencestore.product.dto.ProductSearchDto;
+import com.api.rest.conveniencestore.product.dto.ProductStockAtDto;
+import com.api.rest.conveniencestore.product.dto.ProductStocktakeCategoryDto;
+import com.api.rest.conveniencestore.product.dto.ProductStocktakeResultDto;
+import com.api.rest.conveniencestore.product.dto.ProductStocktakeVarianceDto;
 import com.api.rest.conveniencestore.product.dto.ProductUpdateDto;
+import com.api.rest.conveniencestore.product.dto.ProductVelocityDto;
 import com.api.rest.conveniencestore.shared.enums.Category;
 import com.api.rest.conveniencestore.shared.enums.Status;
+import com.api.rest.conveniencestore.shared.exception.ProductNotFoundException;
 import com.api.rest.conveniencestore.product.model.Product;
 import com.api.rest.conveniencestore.product.repository.ProductRepository;
 import com.api.rest.conveniencestore.user.repository.UserRepository;
+import com.api.rest.conveniencestore.product.service.LowStockAlertBroadcaster;
+import com.api.rest.conveniencestore.product.service.ProductLotService;
+import com.api.rest.conveniencestore.product.service.ProductPriceService;
+import com.api.rest.conveniencestore.product.service.ProductReorderEngine;
+import com.api.rest.conveniencestore.product.service.ProductBulkUpdateService;
+import com.api.rest.conveniencestore.product.service.ProductImportService;
 import com.api.rest.conveniencestore.product.service.ProductService;
+import com.api.rest.conveniencestore.product.service.ProductSnapshotService;
+import com.api.rest.conveniencestore.product.service.ProductStocktakeService;
+import com.api.rest.conveniencestore.product.snapshot.ProductSnapshotFormat;
+import com.api.rest.conveniencestore.shared.utils.MessageConstants;
 import com.api.rest.conveniencestore.user.service.TokenService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -19,12 +48,14 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -46,6 +77,30 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductImportService productImportService;
+
+    @MockBean
+    private ProductBulkUpdateService productBulkUpdateService;
+
+    @MockBean
+    private ProductSnapshotService productSnapshotService;
+
+    @MockBean
+    private LowStockAlertBroadcaster lowStockAlertBroadcaster;
+
+    @MockBean
+    private ProductLotService productLotService;
+
+    @MockBean
+    private ProductPriceService productPriceService;
+
+    @MockBean
+    private ProductStocktakeService productStocktakeService;
+
+    @MockBean
+    private ProductReorderEngine productReorderEngine;
+
     @MockBean
     private ProductRepository productRepository;
 
@@ -91,22 +146,115 @@ class ProductControllerTest {
                 .andExpect(status().isConflict());
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void importProducts_ShouldReturnImportSummary() throws Exception {
+        when(productImportService.importCsv(any())).thenReturn(
+                new ProductImportResultDto(2, 1, 1, List.of(new ProductImportErrorDto(3, "Categoria inválida: BREAD"))));
+
+        mockMvc.perform(post("/products/import")
+                        .with(csrf())
+                        .contentType("text/csv")
+                        .content("Coca-Cola,BEVERAGE,5.0,100,\nPão,BREAD,3.0,10,\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void bulkUpdate_ShouldReturnSummary() throws Exception {
+        when(productBulkUpdateService.bulkUpdate(any())).thenReturn(new ProductBulkUpdateResultDto(2, 1,
+                List.of(new ProductBulkUpdateErrorDto(2L, MessageConstants.PRODUCT_INACTIVE_UPDATE))));
+
+        mockMvc.perform(patch("/products/bulk")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"id\":1,\"price\":5.5},{\"id\":2,\"stockQuantity\":10}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.errors[0].id").value(2));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void bulkUpdate_WhenItemWithoutId_ShouldReturn400() throws Exception {
+        mockMvc.perform(patch("/products/bulk")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"price\":5.5}]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void stocktake_ShouldReturnVarianceReport() throws Exception {
+        when(productStocktakeService.submit(any())).thenReturn(new ProductStocktakeResultDto(2, 1, -3, -15.0,
+                List.of(new ProductStocktakeVarianceDto(1L, "Coca-Cola", Category.BEVERAGE, 100, 97, -3, -15.0)),
+                List.of(new ProductStocktakeCategoryDto(Category.BEVERAGE, 2, -3, -15.0)),
+                List.of()));
+
+        mockMvc.perform(post("/products/stocktake")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"productId\":1,\"counted\":97},{\"productId\":2,\"counted\":10}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.adjusted").value(1))
+                .andExpect(jsonPath("$.variances[0].unitsVariance").value(-3))
+                .andExpect(jsonPath("$.categories[0].valueVariance").value(-15.0));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void stocktake_WhenCountNegative_ShouldReturn400() throws Exception {
+        mockMvc.perform(post("/products/stocktake")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"productId\":1,\"counted\":-1}]"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @WithMockUser
     void list_WhenProductsExist_ShouldReturn200() throws Exception {
         Page<ProductListingDto> page = new PageImpl<>(List.of(new ProductListingDto(product)));
-        when(productService.listProducts(any(Pageable.class))).thenReturn(page);
+        when(productService.listProducts(any(), any(), any(Pageable.class))).thenReturn(page);
+
+        when(productService.catalogETag(any(), any(), any(Pageable.class))).thenReturn("\"3-7-0-1f\"");
 
         mockMvc.perform(get("/products"))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3-7-0-1f\""))
                 .andExpect(jsonPath("$.content[0].name").value("Coca-Cola"));
     }
 
+    @Test
+    @WithMockUser
+    void list_WithCategoryAndStatus_ShouldFilter() throws Exception {
+        when(productService.listProducts(eq(Category.BEVERAGE), eq(Status.ACTIVE), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(new ProductListingDto(product))));
+
+        mockMvc.perform(get("/products").param("category", "BEVERAGE").param("status", "ACTIVE"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].category").value("BEVERAGE"));
+    }
+
+    @Test
+    @WithMockUser
+    void list_WhenETagMatches_ShouldReturn304WithoutListing() throws Exception {
+        when(productService.catalogETag(any(), any(), any(Pageable.class))).thenReturn("\"3-7-0-1f\"");
+
+        mockMvc.perform(get("/products").header("If-None-Match", "\"3-7-0-1f\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(productService, never()).listProducts(any(), any(), any());
+    }
+
     @Test
     @WithMockUser
     void list_WhenNoProducts_ShouldReturnEmptyList() throws Exception {
         Page<ProductListingDto> page = new PageImpl<>(List.of());
-        when(productService.listProducts(any(Pageable.class))).thenReturn(page);
+        when(productService.listProducts(any(), any(), any(Pageable.class))).thenReturn(page);
 
         mockMvc.perform(get("/products"))
                 .andExpect(status().isOk())
@@ -114,6 +262,222 @@ class ProductControllerTest {
                 .andExpect(jsonPath("$.content").isEmpty());
     }
 
+    @Test
+    @WithMockUser
+    void changes_ShouldReturnDeltaAndNewToken() throws Exception {
+        when(productService.findChanges(10L, 500)).thenReturn(new ProductChangesDto(42L, false, List.of(
+                new ProductChangeDto(1L, "Coca-Cola", Category.BEVERAGE, 5.0, 100, null, Status.INACTIVE, 42L))));
+
+        mockMvc.perform(get("/products/changes").param("since", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").value(42))
+                .andExpect(jsonPath("$.products[0].status").value("INACTIVE"));
+    }
+
+    @Test
+    @WithMockUser
+    void snapshot_WhenClientAcceptsGzip_ShouldSendCompressedBody() throws Exception {
+        when(productSnapshotService.snapshot(true)).thenReturn(new byte[]{0x1f, (byte) 0x8b, 1});
+
+        mockMvc.perform(get("/products/snapshot").header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(content().contentType(ProductSnapshotFormat.MEDIA_TYPE))
+                .andExpect(content().bytes(new byte[]{0x1f, (byte) 0x8b, 1}));
+    }
+
+    @Test
+    @WithMockUser
+    void snapshot_WithoutGzip_ShouldSendRawBody() throws Exception {
+        when(productSnapshotService.snapshot(false)).thenReturn(new byte[]{0x43, 0x53});
+
+        mockMvc.perform(get("/products/snapshot"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(content().bytes(new byte[]{0x43, 0x53}));
+    }
+
+    @Test
+    @WithMockUser
+    void lowStockAlerts_ShouldOpenEventStream() throws Exception {
+        when(lowStockAlertBroadcaster.subscribe()).thenReturn(new SseEmitter());
+
+        mockMvc.perform(get("/products/alerts/stream").accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void updateLowStockThreshold_ShouldReturn200() throws Exception {
+        when(productService.updateLowStockThreshold(1L, 25)).thenReturn(product);
+
+        mockMvc.perform(patch("/products/1/low-stock-threshold")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"threshold\":25}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void updateLowStockThreshold_WhenNegative_ShouldReturn400() throws Exception {
+        mockMvc.perform(patch("/products/1/low-stock-threshold")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"threshold\":-1}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void stockAt_ShouldReturnReconstructedStock() throws Exception {
+        LocalDateTime at = LocalDateTime.of(2026, 10, 19, 14, 0);
+        when(productService.stockAt(1L, at)).thenReturn(new ProductStockAtDto(1L, at, 42, 3));
+
+        mockMvc.perform(get("/products/1/stock").param("at", "2026-10-19T14:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stockQuantity").value(42))
+                .andExpect(jsonPath("$.replayedMovements").value(3));
+    }
+
+    @Test
+    @WithMockUser
+    void velocity_ShouldReturnRateAndDaysOfStockLeft() throws Exception {
+        when(productService.velocity(1L)).thenReturn(new ProductVelocityDto(1L, 0.5, 12.0, 100, 8.3));
+
+        mockMvc.perform(get("/products/1/velocity"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unitsPerDay").value(12.0))
+                .andExpect(jsonPath("$.daysOfStockLeft").value(8.3));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void receiveLot_ShouldReturn201() throws Exception {
+        LocalDate expiration = LocalDate.now().plusDays(30);
+        when(productLotService.receive(eq(1L), any())).thenReturn(new ProductLotDto(5L, 1L, "A1", 12, expiration));
+
+        mockMvc.perform(post("/products/1/lots")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":12,\"expirationDate\":\"" + expiration + "\",\"lotCode\":\"A1\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.id").value(5));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void receiveLot_WhenQuantityNotPositive_ShouldReturn400() throws Exception {
+        mockMvc.perform(post("/products/1/lots")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"quantity\":0}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void schedulePrice_ShouldReturn201() throws Exception {
+        LocalDateTime validFrom = LocalDateTime.now().plusDays(1).withNano(0);
+        when(productPriceService.schedule(eq(1L), any())).thenReturn(new ProductPriceDto(1L, 4.5, validFrom));
+
+        mockMvc.perform(post("/products/1/prices")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\":4.5,\"validFrom\":\"" + validFrom + "\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.price").value(4.5));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void schedulePrice_WhenValidFromInPast_ShouldReturn400() throws Exception {
+        mockMvc.perform(post("/products/1/prices")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"price\":4.5,\"validFrom\":\"" + LocalDateTime.now().minusDays(1).withNano(0) + "\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser
+    void priceAt_ShouldReturnPriceInEffect() throws Exception {
+        LocalDateTime at = LocalDateTime.of(2024, 3, 1, 12, 0);
+        when(productPriceService.priceAt(1L, at)).thenReturn(new ProductPriceDto(1L, 5.0, at.minusDays(10)));
+
+        mockMvc.perform(get("/products/1/price").param("at", "2024-03-01T12:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.price").value(5.0));
+    }
+
+    @Test
+    @WithMockUser
+    void expiringLots_ShouldReturnLots() throws Exception {
+        when(productLotService.expiringLots(3)).thenReturn(List.of(new ProductLotDto(5L, 1L, "A1", 12, LocalDate.now().plusDays(2))));
+
+        mockMvc.perform(get("/products/lots/expiring").param("days", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].lotCode").value("A1"));
+    }
+
+    @Test
+    @WithMockUser
+    void reorder_ShouldReturnSuggestions() throws Exception {
+        when(productReorderEngine.suggestions(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(
+                new ProductReorderSuggestionDto(1L, "Coca-Cola", Category.BEVERAGE, 4.0, 1.5, 3, 5, 17, 10, 63, LocalDateTime.now()))));
+
+        mockMvc.perform(get("/products/reorder"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].reorderPoint").value(17))
+                .andExpect(jsonPath("$.content[0].suggestedQuantity").value(63));
+    }
+
+    @Test
+    @WithMockUser
+    void search_ShouldReturnMatches() throws Exception {
+        when(productService.searchProducts("coca", 10)).thenReturn(List.of(new ProductSearchDto(1L, "Coca-Cola")));
+
+        mockMvc.perform(get("/products/search").param("q", "coca"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].name").value("Coca-Cola"));
+    }
+
+    @Test
+    @WithMockUser
+    void findByBarcode_WhenExists_ShouldReturn200() throws Exception {
+        when(productService.findByBarcode("7891000100103"))
+                .thenReturn(new ProductBarcodeDto("7891000100103", 1L, "Coca-Cola", 5.0, Status.ACTIVE));
+
+        mockMvc.perform(get("/products/barcode/7891000100103"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.productId").value(1))
+                .andExpect(jsonPath("$.price").value(5.0));
+    }
+
+    @Test
+    @WithMockUser
+    void findByBarcode_WhenUnknown_ShouldReturn404() throws Exception {
+        when(productService.findByBarcode("7891000100103")).thenThrow(new ProductNotFoundException("not found"));
+
+        mockMvc.perform(get("/products/barcode/7891000100103"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void registerBarcode_ShouldReturn201() throws Exception {
+        when(productService.registerBarcode(1L, "7891000100103"))
+                .thenReturn(new ProductBarcodeDto("7891000100103", 1L, "Coca-Cola", 5.0, Status.ACTIVE));
+
+        mockMvc.perform(post("/products/1/barcodes")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(new ProductBarcodeRegisterDto("7891000100103"))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.code").value("7891000100103"));
+    }
+
     @Test
     @WithMockUser(roles = "ADMIN")
     void update_WhenProductExists_ShouldReturn200() throws Exception {
@@ -159,21 +523,35 @@ class ProductControllerTest {
     @Test
     @WithMockUser
     void duedate_WhenExpiredProductsExist_ShouldReturn200() throws Exception {
-        when(productService.searchExpiredProducts()).thenReturn(List.of(product));
+        when(productService.searchExpiredProducts(any())).thenReturn(new PageImpl<>(List.of(
+                new ProductExpiryDto(1L, "Coca-Cola", Category.BEVERAGE, 100, LocalDate.now()))));
 
-        mockMvc.perform(get("/products/duedate"))
-                .andExpect(status().isOk());
+        mockMvc.perform(get("/products/duedate").param("page", "0").param("size", "20"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("Coca-Cola"))
+                .andExpect(jsonPath("$.totalElements").value(1));
     }
 
     @Test
     @WithMockUser
     void duedate_WhenNoExpiredProducts_ShouldReturn204() throws Exception {
-        when(productService.searchExpiredProducts()).thenReturn(List.of());
+        when(productService.searchExpiredProducts(any())).thenReturn(Page.empty());
 
         mockMvc.perform(get("/products/duedate"))
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    @WithMockUser
+    void expiring_ShouldPassWindowAndPage() throws Exception {
+        when(productService.searchProductsNearExpiration(eq(3), any())).thenReturn(new PageImpl<>(List.of(
+                new ProductExpiryDto(1L, "Coca-Cola", Category.BEVERAGE, 100, LocalDate.now().plusDays(2)))));
+
+        mockMvc.perform(get("/products/expiring").param("days", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1));
+    }
+
     @Test
     void list_WhenNotAuthenticated_ShouldReturn403() throws Exception {
         mockMvc.perform(get("/products"))
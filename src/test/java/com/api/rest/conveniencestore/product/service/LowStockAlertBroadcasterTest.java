@@ -0,0 +1,37 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.event.ProductLowStockEvent;
+import com.api.rest.conveniencestore.shared.enums.Category;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LowStockAlertBroadcasterTest {
+
+    private final LowStockAlertBroadcaster broadcaster = new LowStockAlertBroadcaster(300, 60_000);
+
+    private static ProductLowStockEvent alert(long productId) {
+        return new ProductLowStockEvent(productId, "Produto", Category.FOOD, 5, 10, LocalDateTime.now());
+    }
+
+    @Test
+    void accept_ShouldDebouncePerProduct() {
+        Instant now = Instant.now();
+
+        assertThat(broadcaster.accept(alert(1L), now)).isTrue();
+        assertThat(broadcaster.accept(alert(1L), now.plusSeconds(60))).isFalse();
+        assertThat(broadcaster.accept(alert(2L), now.plusSeconds(60))).isTrue();
+        assertThat(broadcaster.accept(alert(1L), now.plusSeconds(301))).isTrue();
+    }
+
+    @Test
+    void subscribe_ShouldTrackEmitterUntilCompletion() {
+        broadcaster.subscribe();
+        broadcaster.subscribe();
+
+        assertThat(broadcaster.subscriberCount()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,66 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductDto;
+import com.api.rest.conveniencestore.product.event.ProductLowStockEvent;
+import com.api.rest.conveniencestore.product.model.Product;
+import com.api.rest.conveniencestore.shared.enums.Category;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LowStockDetectorTest {
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private Product product(Category category, int stock) {
+        return new Product(new ProductDto("Produto", category, 5.0, stock, null));
+    }
+
+    @Test
+    void check_WhenStockCrossesDefaultThreshold_ShouldPublishAlert() {
+        LowStockDetector detector = new LowStockDetector(eventPublisher, 10, "");
+
+        detector.check(product(Category.FOOD, 9), 12);
+
+        ArgumentCaptor<ProductLowStockEvent> captor = ArgumentCaptor.forClass(ProductLowStockEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        assertThat(captor.getValue().stockQuantity()).isEqualTo(9);
+        assertThat(captor.getValue().threshold()).isEqualTo(10);
+    }
+
+    @Test
+    void check_WhenAlreadyBelowThreshold_ShouldNotPublishAgain() {
+        LowStockDetector detector = new LowStockDetector(eventPublisher, 10, "");
+
+        detector.check(product(Category.FOOD, 7), 9);
+        detector.check(product(Category.FOOD, 50), 40);
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void thresholdFor_ShouldPreferProductThenCategoryThenDefault() {
+        LowStockDetector detector = new LowStockDetector(eventPublisher, 10, "fuel=500, FOOD=20");
+        Product withOwnThreshold = product(Category.FOOD, 30);
+        withOwnThreshold.setLowStockThreshold(3);
+
+        assertThat(detector.thresholdFor(withOwnThreshold)).isEqualTo(3);
+        assertThat(detector.thresholdFor(product(Category.FUEL, 30))).isEqualTo(500);
+        assertThat(detector.thresholdFor(product(Category.BEVERAGE, 30))).isEqualTo(10);
+    }
+
+    @Test
+    void parseCategoryThresholds_WhenMalformed_ShouldThrow() {
+        assertThatThrownBy(() -> LowStockDetector.parseCategoryThresholds("FOOD"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
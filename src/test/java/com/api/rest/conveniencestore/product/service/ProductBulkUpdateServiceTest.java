@@ -0,0 +1,146 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductBulkUpdateItemDto;
+import com.api.rest.conveniencestore.product.dto.ProductBulkUpdateResultDto;
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import com.api.rest.conveniencestore.product.projection.ProductStateProjection;
+import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import com.api.rest.conveniencestore.shared.enums.StockMovementType;
+import com.api.rest.conveniencestore.shared.enums.Status;
+import com.api.rest.conveniencestore.shared.utils.MessageConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductBulkUpdateServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private ProductPriceService productPriceService;
+
+    @Mock
+    private ProductLotService productLotService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProductBulkUpdateService bulkUpdateService;
+
+    @BeforeEach
+    void setUp() {
+        bulkUpdateService = new ProductBulkUpdateService(jdbcTemplate, productRepository, new ProductChangeSequence(jdbcTemplate), stockLedger, productPriceService, productLotService, eventPublisher, 500);
+    }
+
+    private void batchReturns(int[]... counts) {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(counts);
+    }
+
+    private static ProductStateProjection state(Long id, Status status, LocalDate expirationDate) {
+        return new ProductStateProjection() {
+            public Long getId() { return id; }
+            public Status getStatus() { return status; }
+            public LocalDate getExpirationDate() { return expirationDate; }
+        };
+    }
+
+    @Test
+    void bulkUpdate_ShouldApplyInOneBatchAndPublishOneEvent() {
+        batchReturns(new int[]{1, 1, 1});
+
+        ProductBulkUpdateResultDto result = bulkUpdateService.bulkUpdate(List.of(
+                new ProductBulkUpdateItemDto(1L, 5.5, null, null),
+                new ProductBulkUpdateItemDto(2L, null, 40, null),
+                new ProductBulkUpdateItemDto(3L, 9.9, 10, LocalDate.now().plusDays(10))));
+
+        assertThat(result.requested()).isEqualTo(3);
+        assertThat(result.updated()).isEqualTo(3);
+        assertThat(result.errors()).isEmpty();
+        verify(jdbcTemplate).batchUpdate(anyString(), anyCollection(), eq(500), any(ParameterizedPreparedStatementSetter.class));
+        verify(eventPublisher).publishEvent(new ProductCatalogChangedEvent(Set.of(1L, 2L, 3L)));
+        verify(stockLedger).record(2L, StockMovementType.IMPORT, 40, 40, null);
+        verify(stockLedger).record(3L, StockMovementType.IMPORT, 10, 10, null);
+        verifyNoMoreInteractions(stockLedger);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void bulkUpdate_ShouldExplainRowsRejectedBySqlRules() {
+        batchReturns(new int[]{1, 0, 0, 0});
+        when(productRepository.findStatesByIdIn(List.of(2L, 3L, 4L))).thenReturn(List.of(
+                state(2L, Status.ACTIVE, LocalDate.now().minusDays(1)),
+                state(3L, Status.INACTIVE, null)));
+
+        ProductBulkUpdateResultDto result = bulkUpdateService.bulkUpdate(List.of(
+                new ProductBulkUpdateItemDto(1L, 5.5, null, null),
+                new ProductBulkUpdateItemDto(2L, 5.5, null, null),
+                new ProductBulkUpdateItemDto(3L, 5.5, null, null),
+                new ProductBulkUpdateItemDto(4L, 5.5, null, null)));
+
+        assertThat(result.updated()).isEqualTo(1);
+        assertThat(result.errors()).extracting(e -> e.message()).containsExactly(
+                MessageConstants.PRODUCT_EXPIRED_UPDATE,
+                MessageConstants.PRODUCT_INACTIVE_UPDATE,
+                String.format(MessageConstants.PRODUCT_NOT_FOUND, 4L));
+        verify(eventPublisher).publishEvent(new ProductCatalogChangedEvent(Set.of(1L)));
+    }
+
+    @Test
+    void bulkUpdate_ShouldRejectInvalidValuesBeforeTouchingTheDatabase() {
+        batchReturns();
+
+        ProductBulkUpdateResultDto result = bulkUpdateService.bulkUpdate(List.of(
+                new ProductBulkUpdateItemDto(1L, 0.0, null, null),
+                new ProductBulkUpdateItemDto(2L, null, -1, null),
+                new ProductBulkUpdateItemDto(3L, null, null, LocalDate.now().minusDays(1))));
+
+        assertThat(result.updated()).isZero();
+        assertThat(result.errors()).extracting(e -> e.message()).containsExactly(
+                MessageConstants.INVALID_PRICE, MessageConstants.INVALID_STOCK, MessageConstants.INVALID_EXPIRATION_DATE);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void bulkUpdate_WhenProductIsLotTracked_ShouldRejectStockAndExpiryButAcceptPrice() {
+        batchReturns(new int[]{1, 1});
+        when(productLotService.isLotTracked(1L)).thenReturn(true);
+        when(productLotService.isLotTracked(2L)).thenReturn(true);
+
+        ProductBulkUpdateResultDto result = bulkUpdateService.bulkUpdate(List.of(
+                new ProductBulkUpdateItemDto(1L, null, 40, null),
+                new ProductBulkUpdateItemDto(2L, null, null, LocalDate.now().plusDays(10)),
+                new ProductBulkUpdateItemDto(1L, 7.5, null, null),
+                new ProductBulkUpdateItemDto(3L, null, 10, null)));
+
+        assertThat(result.updated()).isEqualTo(2);
+        assertThat(result.errors()).extracting(e -> e.id(), e -> e.message()).containsExactly(
+                tuple(1L, MessageConstants.PRODUCT_LOT_TRACKED_UPDATE),
+                tuple(2L, MessageConstants.PRODUCT_LOT_TRACKED_UPDATE));
+        verify(jdbcTemplate).batchUpdate(anyString(), argThat((Collection<ProductBulkUpdateItemDto> rows) ->
+                rows.stream().map(ProductBulkUpdateItemDto::id).toList().equals(List.of(1L, 3L))), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        verify(stockLedger, never()).record(eq(1L), any(), anyInt(), anyInt(), any());
+    }
+}
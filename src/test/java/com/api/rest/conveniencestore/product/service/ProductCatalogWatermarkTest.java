@@ -0,0 +1,89 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import com.api.rest.conveniencestore.product.event.ProductStockChangedEvent;
+import com.api.rest.conveniencestore.product.projection.ProductWatermarkProjection;
+import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import com.api.rest.conveniencestore.shared.enums.Category;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductCatalogWatermarkTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long HOUR = 3_600_000L;
+
+    private ProductCatalogWatermark watermark;
+
+    @BeforeEach
+    void setUp() {
+        watermark = new ProductCatalogWatermark(productRepository, 60);
+        when(productRepository.findWatermark()).thenReturn(new ProductWatermarkProjection() {
+            public Long getRowCount() { return 12L; }
+            public Long getVersionSum() { return 40L; }
+        });
+        watermark.initialize();
+    }
+
+    @Test
+    void eTag_ShouldBeStableWhileNothingChanges() {
+        String first = watermark.eTag(NOW, PageRequest.of(0, 20));
+
+        assertThat(watermark.eTag(NOW, PageRequest.of(0, 20))).isEqualTo(first);
+        assertThat(first).startsWith("\"12-40-0-").endsWith("\"");
+        verify(productRepository, times(1)).findWatermark();
+    }
+
+    @Test
+    void eTag_ShouldDifferPerPage() {
+        assertThat(watermark.eTag(NOW, PageRequest.of(0, 20))).isNotEqualTo(watermark.eTag(NOW, PageRequest.of(1, 20)));
+    }
+
+    @Test
+    void eTag_ShouldDifferPerFilter() {
+        assertThat(watermark.eTag(NOW, PageRequest.of(0, 20), Category.FOOD, null))
+                .isNotEqualTo(watermark.eTag(NOW, PageRequest.of(0, 20), Category.BEVERAGE, null));
+    }
+
+    @Test
+    void onCatalogChanged_ShouldAdvanceWithoutQueryingTheDatabase() {
+        String before = watermark.eTag(NOW, PageRequest.of(0, 20));
+
+        watermark.onCatalogChanged(ProductCatalogChangedEvent.of(1L));
+
+        assertThat(watermark.eTag(NOW, PageRequest.of(0, 20))).isNotEqualTo(before);
+        assertThat(watermark.current()).isEqualTo("12-40-1");
+        verify(productRepository, times(1)).findWatermark();
+    }
+
+    @Test
+    void onStockChanged_ShouldAdvanceGeneration() {
+        watermark.onStockChanged(new ProductStockChangedEvent(Map.of(1L, 5)));
+
+        assertThat(watermark.current()).isEqualTo("12-40-1");
+    }
+
+    @Test
+    void eTag_ShouldChangeWhenTheTimeBucketTurns() {
+        long bucketStart = NOW - NOW % HOUR;
+
+        assertThat(watermark.eTag(bucketStart + HOUR - 1, PageRequest.of(0, 20)))
+                .isEqualTo(watermark.eTag(bucketStart, PageRequest.of(0, 20)));
+        // daysOfStockLeft decai com o relógio: depois da faixa a listagem é servida de novo
+        assertThat(watermark.eTag(bucketStart + HOUR, PageRequest.of(0, 20)))
+                .isNotEqualTo(watermark.eTag(bucketStart, PageRequest.of(0, 20)));
+    }
+}
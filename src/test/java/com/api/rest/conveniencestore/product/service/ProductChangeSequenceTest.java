@@ -0,0 +1,68 @@
+package com.api.rest.conveniencestore.product.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductChangeSequenceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ProductChangeSequence sequence;
+
+    @BeforeEach
+    void setUp() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(100L);
+        sequence = new ProductChangeSequence(jdbcTemplate);
+        sequence.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void next_ShouldContinueFromDatabaseMaximum() {
+        assertThat(sequence.next()).isEqualTo(101L);
+        assertThat(sequence.next()).isEqualTo(102L);
+    }
+
+    @Test
+    void stableWatermark_ShouldStopBeforeOldestPendingValue() {
+        long first = sequence.next();
+        long second = sequence.next();
+
+        sequence.complete(second);
+        assertThat(sequence.stableWatermark()).isEqualTo(100L);
+
+        sequence.complete(first);
+        assertThat(sequence.stableWatermark()).isEqualTo(102L);
+    }
+
+    @Test
+    void next_InsideTransaction_ShouldBeReleasedOnCompletion() {
+        TransactionSynchronizationManager.initSynchronization();
+        sequence.next();
+        assertThat(sequence.stableWatermark()).isEqualTo(100L);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertThat(sequence.stableWatermark()).isEqualTo(101L);
+    }
+}
@@ -0,0 +1,125 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductExpiryDeactivationJobTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ProductLotService productLotService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProductExpiryDeactivationJob job;
+
+    private final List<Collection<?>> audited = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        job = new ProductExpiryDeactivationJob(jdbcTemplate, transactionTemplate, new ProductChangeSequence(jdbcTemplate), productLotService, eventPublisher, 2);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @SafeVarargs
+    private void selectReturns(List<Long>... chunks) throws Exception {
+        List<List<ResultSet>> results = new ArrayList<>();
+        for (List<Long> chunk : chunks) {
+            List<ResultSet> rows = new ArrayList<>();
+            for (Long id : chunk) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getLong("id")).thenReturn(id);
+                when(rs.getDate("expiration_date")).thenReturn(Date.valueOf(LocalDate.now().minusDays(1)));
+                rows.add(rs);
+            }
+            results.add(rows);
+        }
+        var stubbing = when(jdbcTemplate.query(contains("SELECT id"), any(RowMapper.class), any(), eq(2)));
+        for (List<ResultSet> rows : results) {
+            stubbing = stubbing.thenAnswer(invocation -> {
+                RowMapper<?> mapper = invocation.getArgument(1);
+                List<Object> mapped = new ArrayList<>();
+                for (ResultSet rs : rows) {
+                    mapped.add(mapper.mapRow(rs, 0));
+                }
+                return mapped;
+            });
+        }
+    }
+
+    private void updatesReturn(int[]... counts) {
+        var stubbing = when(jdbcTemplate.batchUpdate(contains("UPDATE products"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)));
+        for (int[] count : counts) {
+            stubbing = stubbing.thenReturn(new int[][]{count});
+        }
+        lenient().when(jdbcTemplate.batchUpdate(contains("product_deactivations"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    audited.add(invocation.getArgument(1));
+                    return new int[0][0];
+                });
+    }
+
+    @Test
+    void deactivateExpired_ShouldWorkInChunksUntilAShortOne() throws Exception {
+        selectReturns(List.of(1L, 2L), List.of(3L));
+        updatesReturn(new int[]{1, 1}, new int[]{1});
+
+        int total = job.deactivateExpired(LocalDate.now());
+
+        assertThat(total).isEqualTo(3);
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(eventPublisher).publishEvent(new ProductCatalogChangedEvent(Set.of(1L, 2L)));
+        verify(eventPublisher).publishEvent(new ProductCatalogChangedEvent(Set.of(3L)));
+        assertThat(audited).extracting(Collection::size).containsExactly(2, 1);
+    }
+
+    @Test
+    void deactivateExpired_ShouldAuditOnlyRowsTheUpdateChanged() throws Exception {
+        selectReturns(List.of(1L));
+        updatesReturn(new int[]{0});
+
+        int total = job.deactivateExpired(LocalDate.now());
+
+        assertThat(total).isZero();
+        assertThat(audited).isEmpty();
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void deactivateExpired_WhenNothingExpired_ShouldStopAfterOneQuery() throws Exception {
+        selectReturns(List.of());
+
+        assertThat(job.deactivateExpired(LocalDate.now())).isZero();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+}
@@ -0,0 +1,105 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductExpiryDto;
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import com.api.rest.conveniencestore.product.event.ProductStockChangedEvent;
+import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import com.api.rest.conveniencestore.shared.enums.Category;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductExpiryIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductExpiryIndex index;
+
+    private final LocalDate today = LocalDate.now();
+
+    private static ProductExpiryDto entry(long id, LocalDate expirationDate) {
+        return new ProductExpiryDto(id, "Produto " + id, Category.FOOD, 10, expirationDate);
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductExpiryIndex(productRepository);
+        when(productRepository.findAllForExpiryIndex()).thenReturn(List.of(
+                entry(1, today.minusDays(3)),
+                entry(2, today),
+                entry(3, today.plusDays(1)),
+                entry(4, today.plusDays(2)),
+                entry(5, today.plusDays(2)),
+                entry(6, today.plusDays(30))));
+        index.rebuild();
+    }
+
+    @Test
+    void expired_ShouldIncludeEverythingUpToToday() {
+        Page<ProductExpiryDto> page = index.expired(PageRequest.of(0, 20));
+
+        assertThat(page.getContent()).extracting(ProductExpiryDto::id).containsExactly(1L, 2L);
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+
+    @Test
+    void expiring_ShouldReadDayBucketsInDateOrderAndPaginate() {
+        Page<ProductExpiryDto> first = index.expiring(7, PageRequest.of(0, 2));
+        Page<ProductExpiryDto> second = index.expiring(7, PageRequest.of(1, 2));
+
+        assertThat(first.getContent()).extracting(ProductExpiryDto::id).containsExactly(3L, 4L);
+        assertThat(second.getContent()).extracting(ProductExpiryDto::id).containsExactly(5L);
+        assertThat(first.getTotalElements()).isEqualTo(3);
+    }
+
+    @Test
+    void expiring_WhenWindowIsNotPositive_ShouldBeEmpty() {
+        assertThat(index.expiring(0, Pageable.unpaged()).getTotalElements()).isZero();
+    }
+
+    @Test
+    void rollForward_ShouldMoveTheNewDayBucketIntoExpired() {
+        index.rollForward(today.plusDays(2));
+
+        assertThat(index.expired(Pageable.unpaged()).getContent())
+                .extracting(ProductExpiryDto::id).containsExactly(1L, 2L, 3L, 4L, 5L);
+    }
+
+    @Test
+    void onCatalogChanged_ShouldMoveProductToItsNewBucket() {
+        when(productRepository.findForExpiryIndexByIdIn(Set.of(3L, 6L))).thenReturn(List.of(entry(3, today.plusDays(30))));
+
+        index.onCatalogChanged(new ProductCatalogChangedEvent(Set.of(3L, 6L)));
+
+        assertThat(index.expiring(7, Pageable.unpaged()).getContent())
+                .extracting(ProductExpiryDto::id).containsExactly(4L, 5L);
+        assertThat(index.expiring(30, Pageable.unpaged()).getContent())
+                .extracting(ProductExpiryDto::id).containsExactly(4L, 5L, 3L);
+    }
+
+    @Test
+    void onStockChanged_ShouldUpdateStockInPlaceWithoutQuerying() {
+        index.onStockChanged(new ProductStockChangedEvent(Map.of(4L, 3, 99L, 7)));
+
+        assertThat(index.expiring(7, Pageable.unpaged()).getContent())
+                .extracting(ProductExpiryDto::id, ProductExpiryDto::stockQuantity)
+                .containsExactly(tuple(3L, 10), tuple(4L, 3), tuple(5L, 10));
+        verify(productRepository, never()).findForExpiryIndexByIdIn(any());
+    }
+}
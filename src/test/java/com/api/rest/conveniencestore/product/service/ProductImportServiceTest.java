@@ -0,0 +1,220 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductImportResultDto;
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import com.api.rest.conveniencestore.product.projection.ProductNameProjection;
+import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import com.api.rest.conveniencestore.shared.utils.MessageConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductImportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private ProductPriceService productPriceService;
+
+    @Mock
+    private ProductLotService productLotService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProductImportService importService;
+
+    private final List<Integer> batchSizes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        importService = new ProductImportService(jdbcTemplate, productRepository, new ProductChangeSequence(jdbcTemplate), stockLedger, productPriceService, productLotService, eventPublisher, 2);
+    }
+
+    private void recordBatches() {
+        doAnswer(invocation -> {
+            batchSizes.add(invocation.<Collection<?>>getArgument(1).size());
+            return new int[0][0];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    private static InputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void importCsv_ShouldWriteValidRowsInBatches() throws Exception {
+        recordBatches();
+        String future = LocalDate.now().plusDays(30).toString();
+
+        ProductImportResultDto result = importService.importCsv(csv("""
+                name,category,price,stockQuantity,expirationDate
+                Coca-Cola,BEVERAGE,5.0,100,%s
+                "Salgadinho, queijo",food,7.5,20,
+                Gasolina,FUEL,6.2,1000
+                """.formatted(future)));
+
+        assertThat(result.processed()).isEqualTo(3);
+        assertThat(result.imported()).isEqualTo(3);
+        assertThat(result.errors()).isEmpty();
+        assertThat(batchSizes).containsExactly(2, 1);
+        // por lote: os já existentes antes do upsert e os ids dos recém-inseridos depois dele
+        verify(productRepository, times(4)).findNamesByNameIn(anyCollection());
+    }
+
+    @Test
+    void importCsv_ShouldReportInvalidRowsWithLineNumbers() throws Exception {
+        recordBatches();
+
+        ProductImportResultDto result = importService.importCsv(csv("""
+                name,category,price,stockQuantity,expirationDate
+                Coca-Cola,BEVERAGE,0,100,
+                Pão,BREAD,3.0,10,
+                Água,BEVERAGE,abc,10,
+                Suco,BEVERAGE,4.0,-1,
+                Leite,FOOD,4.0,10,2000-01-01
+                Café,FOOD,9.0,10,
+                """));
+
+        assertThat(result.processed()).isEqualTo(6);
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.failed()).isEqualTo(5);
+        assertThat(result.errors()).extracting(e -> e.line()).containsExactly(2L, 3L, 4L, 5L, 6L);
+        assertThat(batchSizes).containsExactly(1);
+    }
+
+    @Test
+    void importCsv_WhenEveryRowFails_ShouldReportEachRow() throws Exception {
+        doThrow(new DataIntegrityViolationException("constraint"))
+                .when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+
+        ProductImportResultDto result = importService.importCsv(csv("""
+                Coca-Cola,BEVERAGE,5.0,100,
+                Guaraná,BEVERAGE,4.5,50,
+                """));
+
+        assertThat(result.imported()).isZero();
+        assertThat(result.failed()).isEqualTo(2);
+        assertThat(result.errors()).extracting(e -> e.line()).containsExactly(1L, 2L);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void importCsv_WhenBatchFails_ShouldRetryRowByRowAndKeepValidRows() throws Exception {
+        // o lote com "Guaraná" falha inteiro; sozinha, só a linha dele falha
+        doAnswer(invocation -> {
+            ParameterizedPreparedStatementSetter<Object> setter = invocation.getArgument(3);
+            List<String> names = new ArrayList<>();
+            for (Object row : invocation.<Collection<Object>>getArgument(1)) {
+                PreparedStatement ps = mock(PreparedStatement.class);
+                doAnswer(set -> names.add(set.getArgument(1))).when(ps).setString(eq(1), anyString());
+                setter.setValues(ps, row);
+            }
+            if (names.contains("Guaraná")) {
+                throw new DataIntegrityViolationException("Data too long for column 'category'");
+            }
+            batchSizes.add(names.size());
+            return new int[0][0];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        ProductNameProjection coca = mock(ProductNameProjection.class);
+        when(coca.getId()).thenReturn(1L);
+        when(coca.getName()).thenReturn("Coca-Cola");
+        when(productRepository.findNamesByNameIn(anyCollection())).thenReturn(List.of(coca));
+
+        ProductImportResultDto result = importService.importCsv(csv("""
+                Coca-Cola,BEVERAGE,5.0,100,
+                Guaraná,BEVERAGE,4.5,50,
+                """));
+
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.errors()).singleElement().satisfies(error -> {
+            assertThat(error.line()).isEqualTo(2L);
+            assertThat(error.message()).contains("Data too long");
+        });
+        assertThat(batchSizes).containsExactly(1);
+        verify(eventPublisher).publishEvent(any(ProductCatalogChangedEvent.class));
+    }
+
+    @Test
+    void importCsv_WhenProductIsLotTracked_ShouldRejectItsRow() throws Exception {
+        recordBatches();
+        ProductNameProjection coca = mock(ProductNameProjection.class);
+        when(coca.getId()).thenReturn(1L);
+        when(coca.getName()).thenReturn("Coca-Cola");
+        when(productRepository.findNamesByNameIn(anyCollection())).thenReturn(List.of(coca), List.of());
+        when(productLotService.isLotTracked(1L)).thenReturn(true);
+
+        ProductImportResultDto result = importService.importCsv(csv("""
+                coca-cola,BEVERAGE,5.0,100,
+                Guaraná,BEVERAGE,4.5,50,
+                """));
+
+        assertThat(result.imported()).isEqualTo(1);
+        assertThat(result.errors()).singleElement().satisfies(error -> {
+            assertThat(error.line()).isEqualTo(1L);
+            assertThat(error.message()).isEqualTo(MessageConstants.PRODUCT_LOT_TRACKED_UPDATE);
+        });
+        assertThat(batchSizes).containsExactly(1);
+        verify(stockLedger, never()).record(eq(1L), any(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void importCsv_ShouldRejectValuesThatDoNotFitTheColumns() throws Exception {
+        ProductImportResultDto result = importService.importCsv(csv("""
+                Coca-Cola,BEVERAGE,NaN,100,
+                Guaraná,BEVERAGE,Infinity,50,
+                Cerveja,BEVERAGE,1e12,50,
+                %s,FOOD,3.0,10,
+                """.formatted("a".repeat(256))));
+
+        assertThat(result.failed()).isEqualTo(4);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void importCsv_WhenFirstProductNameStartsWithName_ShouldNotSkipIt() throws Exception {
+        recordBatches();
+
+        ProductImportResultDto result = importService.importCsv(csv("""
+                Nameko mushrooms,FOOD,12.0,5,
+                Coca-Cola,BEVERAGE,5.0,100,
+                """));
+
+        assertThat(result.processed()).isEqualTo(2);
+        assertThat(result.imported()).isEqualTo(2);
+    }
+
+    @Test
+    void splitCsvLine_ShouldHandleQuotedFields() {
+        assertThat(ProductImportService.splitCsvLine("\"Biscoito \"\"Recheado\"\", 100g\",FOOD,3.5,10,"))
+                .containsExactly("Biscoito \"Recheado\", 100g", "FOOD", "3.5", "10", "");
+    }
+}
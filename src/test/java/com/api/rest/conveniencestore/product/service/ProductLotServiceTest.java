@@ -0,0 +1,169 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductDto;
+import com.api.rest.conveniencestore.product.dto.ProductLotDto;
+import com.api.rest.conveniencestore.product.dto.ProductLotRegisterDto;
+import com.api.rest.conveniencestore.product.model.Product;
+import com.api.rest.conveniencestore.product.model.ProductLot;
+import com.api.rest.conveniencestore.product.model.ProductLotAllocation;
+import com.api.rest.conveniencestore.product.repository.ProductLotAllocationRepository;
+import com.api.rest.conveniencestore.product.repository.ProductLotRepository;
+import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import com.api.rest.conveniencestore.shared.enums.Category;
+import com.api.rest.conveniencestore.shared.exception.ProductInsufficientStockException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductLotServiceTest {
+
+    @Mock
+    private ProductLotRepository lotRepository;
+
+    @Mock
+    private ProductLotAllocationRepository allocationRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProductLotService lotService;
+    private Product product;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        lotService = new ProductLotService(lotRepository, allocationRepository, productRepository, stockLedger, eventPublisher);
+        product = new Product(new ProductDto("Iogurte", Category.FOOD, 4.0, 0, null));
+        ReflectionTestUtils.setField(product, "id", 1L);
+    }
+
+    private static ProductLot lot(long id, int quantity, LocalDate expiration) {
+        ProductLot lot = new ProductLot(1L, "L" + id, quantity, expiration, LocalDateTime.now());
+        ReflectionTestUtils.setField(lot, "id", id);
+        return lot;
+    }
+
+    private void loadLots(ProductLot... lots) {
+        when(lotRepository.findTrackedProductIds()).thenReturn(List.of(1L));
+        when(lotRepository.findOpenLots()).thenReturn(List.of(lots));
+        lotService.load();
+    }
+
+    @Test
+    void consume_ShouldTakeFromEarliestExpiringLotsFirst() {
+        loadLots(lot(10L, 5, today.plusDays(20)), lot(11L, 3, today.plusDays(2)), lot(12L, 4, today.plusDays(9)));
+        when(lotRepository.consume(anyLong(), anyInt())).thenReturn(1);
+
+        lotService.consume(100L, product, 6);
+
+        verify(lotRepository).consume(11L, 3);
+        verify(lotRepository).consume(12L, 3);
+        verify(lotRepository, never()).consume(eq(10L), anyInt());
+        assertThat(product.getExpirationDate()).isEqualTo(today.plusDays(9));
+        assertThat(lotService.openLots(1L)).extracting(ProductLotDto::id, ProductLotDto::quantity)
+                .containsExactly(tuple(12L, 1), tuple(10L, 5));
+    }
+
+    @Test
+    void consume_WhenLotsRunOut_ShouldThrowAndKeepLotsIntact() {
+        loadLots(lot(10L, 2, today.plusDays(5)));
+
+        assertThatThrownBy(() -> lotService.consume(100L, product, 3))
+                .isInstanceOf(ProductInsufficientStockException.class);
+
+        assertThat(lotService.openLots(1L)).extracting(ProductLotDto::quantity).containsExactly(2);
+        verifyNoInteractions(allocationRepository);
+    }
+
+    @Test
+    void consume_WhenProductIsNotLotTracked_ShouldDoNothing() {
+        lotService.consume(100L, product, 3);
+
+        verifyNoInteractions(lotRepository, allocationRepository);
+    }
+
+    @Test
+    void receive_ShouldOpenLotForExistingStockAndUpdateProduct() {
+        product.setStockQuantity(8);
+        product.setExpirationDate(today.plusDays(3));
+        AtomicLong ids = new AtomicLong(20);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(lotRepository.save(any(ProductLot.class))).thenAnswer(invocation -> {
+            ProductLot saved = invocation.getArgument(0);
+            ReflectionTestUtils.setField(saved, "id", ids.incrementAndGet());
+            return saved;
+        });
+
+        ProductLotDto result = lotService.receive(1L, new ProductLotRegisterDto(12, today.plusDays(30), "A1"));
+
+        assertThat(result.quantity()).isEqualTo(12);
+        assertThat(product.getStockQuantity()).isEqualTo(20);
+        assertThat(product.getExpirationDate()).isEqualTo(today.plusDays(3));
+        assertThat(lotService.isLotTracked(1L)).isTrue();
+        assertThat(lotService.openLots(1L)).extracting(ProductLotDto::lotCode)
+                .containsExactly(ProductLotService.OPENING_LOT_CODE, "A1");
+    }
+
+    @Test
+    void release_ShouldReturnUnitsToTheLotsTheSaleUsed() {
+        loadLots(lot(11L, 1, today.plusDays(9)));
+        ProductLot depleted = lot(10L, 0, today.plusDays(2));
+        when(allocationRepository.findBySaleIdAndProductId(100L, 1L))
+                .thenReturn(List.of(new ProductLotAllocation(100L, 1L, 10L, 3), new ProductLotAllocation(100L, 1L, 11L, 2)));
+        when(lotRepository.findAllById(List.of(10L, 11L))).thenReturn(List.of(depleted, lot(11L, 1, today.plusDays(9))));
+
+        lotService.release(100L, product);
+
+        verify(lotRepository).restock(10L, 3);
+        verify(lotRepository).restock(11L, 2);
+        assertThat(product.getExpirationDate()).isEqualTo(today.plusDays(2));
+        assertThat(lotService.openLots(1L)).extracting(ProductLotDto::id, ProductLotDto::quantity)
+                .containsExactly(tuple(10L, 3), tuple(11L, 3));
+    }
+
+    @Test
+    void writeOffExpired_ShouldCloseExpiredLotsAndAdvanceExpiration() {
+        loadLots(lot(10L, 4, today.minusDays(1)), lot(11L, 6, today.plusDays(5)));
+        product.setStockQuantity(10);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        int count = lotService.writeOffExpired(today);
+
+        assertThat(count).isEqualTo(1);
+        verify(lotRepository).writeOff(List.of(10L));
+        assertThat(product.getStockQuantity()).isEqualTo(6);
+        assertThat(product.getExpirationDate()).isEqualTo(today.plusDays(5));
+        ArgumentCaptor<Integer> delta = ArgumentCaptor.forClass(Integer.class);
+        verify(stockLedger).record(eq(1L), any(), delta.capture(), eq(6), isNull());
+        assertThat(delta.getValue()).isEqualTo(-4);
+    }
+
+    @Test
+    void expiringLots_ShouldListOpenLotsInsideTheWindowByExpiration() {
+        loadLots(lot(10L, 4, today.plusDays(6)), lot(11L, 6, today.plusDays(1)), lot(12L, 1, today.plusDays(40)));
+
+        assertThat(lotService.expiringLots(7)).extracting(ProductLotDto::id).containsExactly(11L, 10L);
+    }
+}
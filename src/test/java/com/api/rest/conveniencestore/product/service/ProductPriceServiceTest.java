@@ -0,0 +1,161 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductDto;
+import com.api.rest.conveniencestore.product.dto.ProductPriceDto;
+import com.api.rest.conveniencestore.product.dto.ProductPriceScheduleDto;
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import com.api.rest.conveniencestore.product.model.Product;
+import com.api.rest.conveniencestore.product.model.ProductPrice;
+import com.api.rest.conveniencestore.product.repository.ProductPriceRepository;
+import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import com.api.rest.conveniencestore.shared.enums.Category;
+import com.api.rest.conveniencestore.shared.exception.ProductNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductPriceServiceTest {
+
+    @Mock
+    private ProductPriceRepository priceRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProductPriceService priceService;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        priceService = new ProductPriceService(priceRepository, productRepository, jdbcTemplate, transactionTemplate, taskScheduler, eventPublisher);
+        product = new Product(new ProductDto("Café", Category.FOOD, 10.0, 5, null));
+        ReflectionTestUtils.setField(product, "id", 1L);
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private static ProductPrice price(long id, double value, LocalDateTime validFrom, boolean applied) {
+        ProductPrice price = new ProductPrice(1L, validFrom, value, applied);
+        ReflectionTestUtils.setField(price, "id", id);
+        return price;
+    }
+
+    @Test
+    void apply_ShouldCopyPriceToProductAndMarkApplied() {
+        ProductPrice pending = price(7L, 12.5, LocalDateTime.now().minusMinutes(1), false);
+        when(priceRepository.findById(7L)).thenReturn(Optional.of(pending));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        priceService.apply(7L);
+
+        assertThat(product.getPrice()).isEqualTo(12.5);
+        assertThat(pending.isApplied()).isTrue();
+        verify(productRepository).save(product);
+        verify(priceRepository).save(pending);
+        verify(eventPublisher).publishEvent(ProductCatalogChangedEvent.of(1L));
+    }
+
+    @Test
+    void apply_WhenAlreadyApplied_ShouldDoNothing() {
+        when(priceRepository.findById(7L)).thenReturn(Optional.of(price(7L, 12.5, LocalDateTime.now(), true)));
+
+        priceService.apply(7L);
+
+        verifyNoInteractions(productRepository, eventPublisher);
+        verify(priceRepository, never()).save(any());
+    }
+
+    @Test
+    void initialize_ShouldApplyDuePricesAndScheduleFutureOnes() {
+        ProductPrice due = price(7L, 11.0, LocalDateTime.now().minusHours(1), false);
+        LocalDateTime future = LocalDateTime.now().plusDays(1);
+        ProductPrice scheduled = price(8L, 13.0, future, false);
+        when(priceRepository.findByAppliedFalseOrderByValidFromAsc()).thenReturn(List.of(due, scheduled));
+        when(priceRepository.findById(7L)).thenReturn(Optional.of(due));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        priceService.initialize();
+
+        assertThat(product.getPrice()).isEqualTo(11.0);
+        verify(taskScheduler).schedule(any(Runnable.class), eq(future.atZone(ZoneId.systemDefault()).toInstant()));
+        verify(priceRepository, never()).findById(8L);
+    }
+
+    @Test
+    void schedule_ShouldSavePendingPriceAndArmTimer() {
+        LocalDateTime validFrom = LocalDateTime.now().plusDays(2);
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(priceRepository.save(any(ProductPrice.class))).thenAnswer(invocation -> {
+            ProductPrice saved = invocation.getArgument(0);
+            ReflectionTestUtils.setField(saved, "id", 9L);
+            return saved;
+        });
+
+        ProductPriceDto result = priceService.schedule(1L, new ProductPriceScheduleDto(9.9, validFrom));
+
+        assertThat(result).isEqualTo(new ProductPriceDto(1L, 9.9, validFrom));
+        verify(taskScheduler).schedule(any(Runnable.class), any(Instant.class));
+        assertThat(product.getPrice()).isEqualTo(10.0);
+    }
+
+    @Test
+    void schedule_WhenProductNotFound_ShouldThrow() {
+        when(productRepository.existsById(99L)).thenReturn(false);
+
+        assertThatThrownBy(() -> priceService.schedule(99L, new ProductPriceScheduleDto(9.9, LocalDateTime.now().plusDays(1))))
+                .isInstanceOf(ProductNotFoundException.class);
+        verifyNoInteractions(priceRepository, taskScheduler);
+    }
+
+    @Test
+    void priceAt_ShouldReturnRowInEffect() {
+        LocalDateTime at = LocalDateTime.now().minusDays(3);
+        when(priceRepository.findFirstByProductIdAndValidFromLessThanEqualOrderByValidFromDesc(1L, at))
+                .thenReturn(Optional.of(price(3L, 8.0, at.minusDays(10), true)));
+
+        assertThat(priceService.priceAt(1L, at).price()).isEqualTo(8.0);
+    }
+
+    @Test
+    void priceAt_WhenNoRowBefore_ShouldThrow() {
+        LocalDateTime at = LocalDateTime.now();
+        when(priceRepository.findFirstByProductIdAndValidFromLessThanEqualOrderByValidFromDesc(1L, at)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> priceService.priceAt(1L, at))
+                .isInstanceOf(ProductNotFoundException.class);
+    }
+}
@@ -0,0 +1,127 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.repository.ReorderSuggestionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductReorderEngineTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private ReorderSuggestionRepository suggestionRepository;
+
+    private ProductReorderEngine engine;
+    private final LocalDate from = LocalDate.now().minusDays(4);
+
+    @BeforeEach
+    void setUp() {
+        // janela de 4 dias, prazo 3, z 1.65, cobertura 14, 2 threads, 1 produto por tarefa
+        engine = new ProductReorderEngine(jdbcTemplate, transactionTemplate, suggestionRepository, 4, 3, 1.65, 14, 2, 1);
+    }
+
+    private ResultSet demand(long productId, int day, int units) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("product_id")).thenReturn(productId);
+        when(rs.getDate("sale_day")).thenReturn(Date.valueOf(from.plusDays(day)));
+        when(rs.getInt("units")).thenReturn(units);
+        return rs;
+    }
+
+    private ResultSet stock(long id, int quantity) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getInt("stock_quantity")).thenReturn(quantity);
+        return rs;
+    }
+
+    @Test
+    void suggest_ShouldDeriveReorderPointFromMeanAndDeviation() {
+        // média 3/dia, desvio 1: segurança ceil(1.65 * 1 * raiz(3)) = 3, ponto 9 + 3 = 12, alvo 12 + 42 = 54
+        ProductReorderEngine.Suggestion below = engine.suggest(1L, new int[]{2, 4, 2, 4}, 10);
+        ProductReorderEngine.Suggestion above = engine.suggest(1L, new int[]{2, 4, 2, 4}, 20);
+
+        assertThat(below.avgDailyDemand()).isEqualTo(3.0);
+        assertThat(below.demandStdDev()).isEqualTo(1.0);
+        assertThat(below.safetyStock()).isEqualTo(3);
+        assertThat(below.reorderPoint()).isEqualTo(12);
+        assertThat(below.suggestedQuantity()).isEqualTo(44);
+        assertThat(above.suggestedQuantity()).isZero();
+    }
+
+    @Test
+    void suggest_WhenNoDemand_ShouldSuggestNothing() {
+        ProductReorderEngine.Suggestion suggestion = engine.suggest(1L, new int[4], 0);
+
+        assertThat(suggestion.reorderPoint()).isZero();
+        assertThat(suggestion.suggestedQuantity()).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void run_ShouldStreamDemandAndRewriteSuggestions() throws Exception {
+        List<ResultSet> stockRows = List.of(stock(1L, 10), stock(3L, 0));
+        List<ResultSet> demandRows = List.of(
+                demand(1L, 0, 2), demand(1L, 1, 4), demand(1L, 2, 2), demand(1L, 3, 4),
+                demand(2L, 0, 5),
+                demand(3L, 1, 8));
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (ResultSet rs : stockRows) handler.processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(contains("FROM products"), any(RowCallbackHandler.class));
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (ResultSet rs : demandRows) handler.processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        List<ProductReorderEngine.Suggestion> written = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(contains("INSERT INTO reorder_suggestions"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenAnswer(invocation -> {
+                    written.addAll(invocation.<Collection<ProductReorderEngine.Suggestion>>getArgument(1));
+                    return new int[0][0];
+                });
+
+        int computed = engine.run();
+
+        // produto 2 não está entre os ativos e fica de fora
+        assertThat(computed).isEqualTo(2);
+        assertThat(written).extracting(ProductReorderEngine.Suggestion::productId).containsExactly(1L, 3L);
+        assertThat(written.get(0).suggestedQuantity()).isEqualTo(44);
+        // média 2/dia, desvio raiz(12): segurança 10, ponto 16, alvo 16 + 28 = 44
+        assertThat(written.get(1).reorderPoint()).isEqualTo(16);
+        assertThat(written.get(1).suggestedQuantity()).isEqualTo(44);
+        verify(jdbcTemplate).update("DELETE FROM reorder_suggestions");
+    }
+}
@@ -0,0 +1,109 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductSearchDto;
+import com.api.rest.conveniencestore.product.projection.ProductNameProjection;
+import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSearchIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(productRepository);
+        index.put(1L, "Coca-Cola 350ml");
+        index.put(2L, "Água Mineral");
+        index.put(3L, "Pão de Queijo");
+        index.put(4L, "Coxinha");
+    }
+
+    @Test
+    void search_ByNamePrefix_ShouldReturnMatchesInOrder() {
+        List<ProductSearchDto> result = index.search("co", 10);
+
+        assertThat(result).extracting(ProductSearchDto::id).containsExactly(1L, 4L);
+    }
+
+    @Test
+    void search_ByWordPrefix_ShouldFindWordInsideName() {
+        assertThat(index.search("cola", 10)).extracting(ProductSearchDto::id).containsExactly(1L);
+        assertThat(index.search("queijo", 10)).extracting(ProductSearchDto::id).containsExactly(3L);
+    }
+
+    @Test
+    void search_ShouldIgnoreAccentsAndCase() {
+        assertThat(index.search("AGUA", 10)).extracting(ProductSearchDto::name).containsExactly("Água Mineral");
+        assertThat(index.search("pao", 10)).extracting(ProductSearchDto::id).containsExactly(3L);
+    }
+
+    @Test
+    void search_WithTypo_ShouldUseTrigrams() {
+        assertThat(index.search("minerla", 10)).extracting(ProductSearchDto::id).containsExactly(2L);
+        assertThat(index.search("coxinah", 10)).extracting(ProductSearchDto::id).contains(4L);
+    }
+
+    @Test
+    void search_ShouldRespectLimit() {
+        assertThat(index.search("co", 1)).hasSize(1);
+        assertThat(index.search("co", 0)).isEmpty();
+        assertThat(index.search("  ", 10)).isEmpty();
+    }
+
+    @Test
+    void put_WhenNameChanges_ShouldReplaceOldTerms() {
+        index.put(4L, "Empada");
+
+        assertThat(index.search("coxinha", 10)).isEmpty();
+        assertThat(index.search("emp", 10)).extracting(ProductSearchDto::id).containsExactly(4L);
+    }
+
+    @Test
+    void rebuild_ShouldLoadNamesFromRepository() {
+        ProductNameProjection projection = mock(ProductNameProjection.class);
+        when(projection.getId()).thenReturn(10L);
+        when(projection.getName()).thenReturn("Gasolina Comum");
+        when(productRepository.findAllNames()).thenReturn(List.of(projection));
+
+        index.rebuild();
+
+        assertThat(index.search("co", 10)).extracting(ProductSearchDto::id).containsExactly(10L);
+        assertThat(index.search("gas", 10)).extracting(ProductSearchDto::id).containsExactly(10L);
+    }
+
+    private static ProductNameProjection name(long id, String name) {
+        ProductNameProjection projection = mock(ProductNameProjection.class);
+        when(projection.getId()).thenReturn(id);
+        when(projection.getName()).thenReturn(name);
+        return projection;
+    }
+
+    @Test
+    void rebuild_ThenPut_ShouldKeepTermsSorted() {
+        List<ProductNameProjection> all = List.of(
+                name(20L, "Suco de Uva"), name(21L, "Coca-Cola Zero"), name(22L, "Cerveja Lata"), name(23L, "Suco de Laranja"));
+        when(productRepository.findAllNames()).thenReturn(all);
+
+        index.rebuild();
+        index.put(24L, "Cafe Expresso");
+
+        assertThat(index.search("suco", 10)).extracting(ProductSearchDto::id).containsExactly(23L, 20L);
+        assertThat(index.search("c", 10)).extracting(ProductSearchDto::id).containsExactly(24L, 22L, 21L);
+        assertThat(index.search("la", 10)).extracting(ProductSearchDto::id).containsExactlyInAnyOrder(22L, 23L);
+        // produtos do setUp saem no rebuild
+        assertThat(index.search("coxinha", 10)).isEmpty();
+    }
+}
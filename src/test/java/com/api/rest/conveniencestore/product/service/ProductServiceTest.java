@@ -1,13 +1,28 @@
 package com.api.rest.conveniencestore.product.service;
 
+import com.api.rest.conveniencestore.product.dto.ProductBarcodeDto;
+import com.api.rest.conveniencestore.product.dto.ProductChangeDto;
+import com.api.rest.conveniencestore.product.dto.ProductChangesDto;
 import com.api.rest.conveniencestore.product.dto.ProductDto;
+import com.api.rest.conveniencestore.product.dto.ProductExpiryDto;
 import com.api.rest.conveniencestore.product.dto.ProductListingDto;
+import com.api.rest.conveniencestore.product.dto.ProductSearchDto;
+import com.api.rest.conveniencestore.product.dto.ProductStockAtDto;
 import com.api.rest.conveniencestore.product.dto.ProductUpdateDto;
+import com.api.rest.conveniencestore.product.dto.ProductVelocityDto;
+import com.api.rest.conveniencestore.product.event.ProductBarcodeRegisteredEvent;
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
 import com.api.rest.conveniencestore.shared.enums.Category;
 import com.api.rest.conveniencestore.shared.enums.Status;
+import com.api.rest.conveniencestore.shared.enums.StockMovementType;
 import com.api.rest.conveniencestore.shared.exception.ProductDateInvalidException;
+import com.api.rest.conveniencestore.shared.exception.ProductBarcodeInvalidException;
 import com.api.rest.conveniencestore.shared.exception.ProductInactiveException;
+import com.api.rest.conveniencestore.shared.exception.ProductNotFoundException;
+import com.api.rest.conveniencestore.shared.exception.UserRegistrationException;
 import com.api.rest.conveniencestore.product.model.Product;
+import com.api.rest.conveniencestore.product.model.ProductBarcode;
+import com.api.rest.conveniencestore.product.repository.ProductBarcodeRepository;
 import com.api.rest.conveniencestore.product.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,12 +31,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,6 +53,39 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private ProductSearchIndex productSearchIndex;
+
+    @Mock
+    private ProductBarcodeRepository productBarcodeRepository;
+
+    @Mock
+    private ProductBarcodeIndex productBarcodeIndex;
+
+    @Mock
+    private ProductExpiryIndex productExpiryIndex;
+
+    @Mock
+    private ProductChangeSequence productChangeSequence;
+
+    @Mock
+    private LowStockDetector lowStockDetector;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private ProductPriceService productPriceService;
+
+    @Mock
+    private ProductVelocityTracker velocityTracker;
+
+    @Mock
+    private ProductLotService productLotService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProductService productService;
 
@@ -43,6 +94,7 @@ class ProductServiceTest {
     @BeforeEach
     void setUp() {
         product = new Product(new ProductDto("Coca-Cola", Category.BEVERAGE, 5.0, 100, LocalDate.now().plusDays(30)));
+        ReflectionTestUtils.setField(product, "id", 1L);
     }
 
     @Test
@@ -54,29 +106,103 @@ class ProductServiceTest {
 
         assertThat(result).isNotNull();
         verify(productRepository).save(any(Product.class));
+        verify(eventPublisher).publishEvent(ProductCatalogChangedEvent.of(1L));
+        verify(stockLedger).record(1L, StockMovementType.ADJUST, 100, 100, null);
+        verify(productPriceService).recordCurrent(1L, 5.0);
+    }
+
+    @Test
+    void findChanges_ShouldStopAtStableWatermark() {
+        when(productChangeSequence.stableWatermark()).thenReturn(42L);
+        when(productRepository.findChanges(10L, 42L, PageRequest.of(0, 500))).thenReturn(List.of(
+                new ProductChangeDto(1L, "Coca-Cola", Category.BEVERAGE, 5.0, 100, null, Status.ACTIVE, 15L)));
+
+        ProductChangesDto result = productService.findChanges(10L, 500);
+
+        assertThat(result.products()).hasSize(1);
+        assertThat(result.token()).isEqualTo(42L);
+        assertThat(result.hasMore()).isFalse();
+    }
+
+    @Test
+    void findChanges_WhenPageIsFull_ShouldReturnLastSequenceAsToken() {
+        when(productChangeSequence.stableWatermark()).thenReturn(42L);
+        when(productRepository.findChanges(0L, 42L, PageRequest.of(0, 1))).thenReturn(List.of(
+                new ProductChangeDto(1L, "Coca-Cola", Category.BEVERAGE, 5.0, 100, null, Status.ACTIVE, 15L)));
+
+        ProductChangesDto result = productService.findChanges(-5L, 1);
+
+        assertThat(result.token()).isEqualTo(15L);
+        assertThat(result.hasMore()).isTrue();
+    }
+
+    @Test
+    void findChanges_WhenTokenIsCurrent_ShouldNotQuery() {
+        when(productChangeSequence.stableWatermark()).thenReturn(42L);
+
+        ProductChangesDto result = productService.findChanges(42L, 500);
+
+        assertThat(result.products()).isEmpty();
+        assertThat(result.token()).isEqualTo(42L);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void searchProducts_ShouldCapLimitAndUseIndex() {
+        when(productSearchIndex.search("coca", 50)).thenReturn(List.of(new ProductSearchDto(1L, "Coca-Cola")));
+
+        List<ProductSearchDto> result = productService.searchProducts("coca", 500);
+
+        assertThat(result).extracting(ProductSearchDto::name).containsExactly("Coca-Cola");
+        verifyNoInteractions(productRepository);
     }
 
     @Test
     void listProducts_ShouldReturnAllProducts() {
         Pageable pageable = PageRequest.of(0, 10);
-        when(productRepository.findAll(pageable)).thenReturn(new PageImpl<>(List.of(product)));
+        when(productRepository.findListing(null, null, pageable)).thenReturn(new PageImpl<>(List.of(new ProductListingDto(product))));
+        when(velocityTracker.daysOfStockLeft(1L, 100)).thenReturn(12.5);
 
-        Page<ProductListingDto> result = productService.listProducts(pageable);
+        Page<ProductListingDto> result = productService.listProducts(null, null, pageable);
 
         assertThat(result.getContent()).hasSize(1);
-        verify(productRepository).findAll(pageable);
+        assertThat(result.getContent().get(0).daysOfStockLeft()).isEqualTo(12.5);
+        verify(productRepository, never()).findAll(pageable);
+    }
+
+    @Test
+    void velocity_ShouldCombineTrackerRateWithCurrentStock() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(velocityTracker.unitsPerHour(1L)).thenReturn(0.5);
+        when(velocityTracker.daysOfStockLeft(1L, 100)).thenReturn(8.3);
+
+        ProductVelocityDto result = productService.velocity(1L);
+
+        assertThat(result.unitsPerDay()).isEqualTo(12.0);
+        assertThat(result.daysOfStockLeft()).isEqualTo(8.3);
     }
 
     @Test
     void listProducts_WhenEmpty_ShouldReturnEmptyList() {
         Pageable pageable = PageRequest.of(0, 10);
-        when(productRepository.findAll(pageable)).thenReturn(new PageImpl<>(List.of()));
+        when(productRepository.findListing(null, null, pageable)).thenReturn(new PageImpl<>(List.of()));
 
-        Page<ProductListingDto> result = productService.listProducts(pageable);
+        Page<ProductListingDto> result = productService.listProducts(null, null, pageable);
 
         assertThat(result.getContent()).isEmpty();
     }
 
+    @Test
+    void listProducts_ShouldPassFiltersToProjectionQuery() {
+        Pageable pageable = PageRequest.of(0, 10);
+        when(productRepository.findListing(Category.BEVERAGE, Status.ACTIVE, pageable))
+                .thenReturn(new PageImpl<>(List.of(new ProductListingDto(1L, "Coca-Cola", Category.BEVERAGE, 5.0, 100, (LocalDate) null))));
+
+        Page<ProductListingDto> result = productService.listProducts(Category.BEVERAGE, Status.ACTIVE, pageable);
+
+        assertThat(result.getContent().get(0).expirationDate()).isEqualTo("N/A");
+    }
+
     @Test
     void updateProduct_ShouldCallSave() {
         when(productRepository.findById(1L)).thenReturn(Optional.of(product));
@@ -87,6 +213,47 @@ class ProductServiceTest {
 
         assertThat(result).isNotNull();
         verify(productRepository).save(product);
+        verify(lowStockDetector).check(product, 100);
+        verify(stockLedger).record(1L, StockMovementType.ADJUST, -50, 50, null);
+        verify(productPriceService).recordCurrent(1L, 6.0);
+    }
+
+    @Test
+    void stockAt_ShouldRebuildFromLedger() {
+        LocalDateTime at = LocalDateTime.now().minusHours(2);
+        ProductStockAtDto expected = new ProductStockAtDto(1L, at, 80, 3);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(stockLedger.stockAt(1L, at, 100)).thenReturn(expected);
+
+        assertThat(productService.stockAt(1L, at)).isEqualTo(expected);
+    }
+
+    @Test
+    void stockAt_WhenProductNotFound_ShouldThrow() {
+        when(productRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> productService.stockAt(99L, LocalDateTime.now()))
+                .isInstanceOf(ProductNotFoundException.class);
+    }
+
+    @Test
+    void updateProduct_WhenLotTrackedAndStockChanges_ShouldThrow() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productLotService.isLotTracked(1L)).thenReturn(true);
+
+        assertThatThrownBy(() -> productService.updateProduct(1L, new ProductUpdateDto(null, 50, null, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verify(productRepository, never()).save(any());
+    }
+
+    @Test
+    void updateLowStockThreshold_ShouldSetProductThreshold() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.save(product)).thenReturn(product);
+
+        Product result = productService.updateLowStockThreshold(1L, 25);
+
+        assertThat(result.getLowStockThreshold()).isEqualTo(25);
     }
 
     @Test
@@ -111,12 +278,25 @@ class ProductServiceTest {
     }
 
     @Test
-    void searchExpiredProducts_ShouldReturnTodayExpiredProducts() {
-        when(productRepository.findByExpirationDateLessThanEqual(any(LocalDate.class))).thenReturn(List.of(product));
+    void searchExpiredProducts_ShouldReadFromExpiryIndex() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(productExpiryIndex.expired(pageable)).thenReturn(new PageImpl<>(List.of(
+                new ProductExpiryDto(1L, "Coca-Cola", Category.BEVERAGE, 100, LocalDate.now())), pageable, 1));
 
-        List<Product> result = productService.searchExpiredProducts();
+        Page<ProductExpiryDto> result = productService.searchExpiredProducts(pageable);
 
-        assertThat(result).hasSize(1);
+        assertThat(result.getContent()).hasSize(1);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void searchProductsNearExpiration_ShouldReadFromExpiryIndex() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(productExpiryIndex.expiring(7, pageable)).thenReturn(Page.empty(pageable));
+
+        Page<ProductExpiryDto> result = productService.searchProductsNearExpiration(7, pageable);
+
+        assertThat(result.getTotalElements()).isZero();
     }
 
     @Test
@@ -173,4 +353,53 @@ class ProductServiceTest {
 
         assertThat(productService.existsById(1L)).isTrue();
     }
+
+    @Test
+    void registerBarcode_ShouldSaveAndPublishForTheIndex() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productBarcodeRepository.existsByCode(7891000100103L)).thenReturn(false);
+
+        ProductBarcodeDto result = productService.registerBarcode(1L, "7891000100103");
+
+        assertThat(result.code()).isEqualTo("7891000100103");
+        assertThat(result.name()).isEqualTo(product.getName());
+        verify(productBarcodeRepository).save(any(ProductBarcode.class));
+        // o índice só é atualizado pelo listener, depois do commit
+        verify(eventPublisher).publishEvent(new ProductBarcodeRegisteredEvent(
+                7891000100103L, 1L, product.getName(), product.getPrice(), product.getStatus()));
+        verifyNoInteractions(productBarcodeIndex);
+    }
+
+    @Test
+    void registerBarcode_WhenCodeAlreadyExists_ShouldThrow() {
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productBarcodeRepository.existsByCode(7891000100103L)).thenReturn(true);
+
+        assertThatThrownBy(() -> productService.registerBarcode(1L, "7891000100103"))
+                .isInstanceOf(UserRegistrationException.class);
+        verify(productBarcodeRepository, never()).save(any());
+    }
+
+    @Test
+    void findByBarcode_ShouldReadFromIndexOnly() {
+        when(productBarcodeIndex.find(7891000100103L))
+                .thenReturn(new ProductBarcodeDto("7891000100103", 1L, "Coca-Cola", 5.0, Status.ACTIVE));
+
+        ProductBarcodeDto result = productService.findByBarcode("7891000100103");
+
+        assertThat(result.price()).isEqualTo(5.0);
+        verifyNoInteractions(productRepository, productBarcodeRepository);
+    }
+
+    @Test
+    void findByBarcode_WhenUnknown_ShouldThrow() {
+        assertThatThrownBy(() -> productService.findByBarcode("7891000100103"))
+                .isInstanceOf(ProductNotFoundException.class);
+    }
+
+    @Test
+    void findByBarcode_WhenInvalidCode_ShouldThrow() {
+        assertThatThrownBy(() -> productService.findByBarcode("123"))
+                .isInstanceOf(ProductBarcodeInvalidException.class);
+    }
 }
@@ -0,0 +1,57 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductChangeDto;
+import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import com.api.rest.conveniencestore.product.snapshot.ProductSnapshot;
+import com.api.rest.conveniencestore.product.snapshot.ProductSnapshotReader;
+import com.api.rest.conveniencestore.shared.enums.Category;
+import com.api.rest.conveniencestore.shared.enums.Status;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSnapshotServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductCatalogWatermark catalogWatermark;
+
+    @Mock
+    private ProductChangeSequence changeSequence;
+
+    @InjectMocks
+    private ProductSnapshotService snapshotService;
+
+    @BeforeEach
+    void setUp() {
+        when(changeSequence.stableWatermark()).thenReturn(10L);
+        when(productRepository.findAllForSnapshot()).thenReturn(List.of(
+                new ProductChangeDto(1L, "Coca-Cola", Category.BEVERAGE, 5.0, 100, null, Status.ACTIVE, 10)));
+    }
+
+    @Test
+    void snapshot_ShouldBeCachedUntilCatalogVersionChanges() {
+        when(catalogWatermark.current()).thenReturn("1-1-0", "1-1-0", "1-1-1");
+
+        byte[] first = snapshotService.snapshot(false);
+        byte[] second = snapshotService.snapshot(true);
+        snapshotService.snapshot(false);
+
+        ProductSnapshot decoded = ProductSnapshotReader.read(second);
+        assertThat(decoded.token()).isEqualTo(10L);
+        assertThat(decoded.products()).hasSize(1);
+        assertThat(ProductSnapshotReader.read(first)).isEqualTo(decoded);
+        verify(productRepository, times(2)).findAllForSnapshot();
+    }
+}
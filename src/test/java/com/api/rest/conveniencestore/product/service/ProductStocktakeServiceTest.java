@@ -0,0 +1,163 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductBulkUpdateErrorDto;
+import com.api.rest.conveniencestore.product.dto.ProductStocktakeCategoryDto;
+import com.api.rest.conveniencestore.product.dto.ProductStocktakeCountDto;
+import com.api.rest.conveniencestore.product.dto.ProductStocktakeResultDto;
+import com.api.rest.conveniencestore.product.dto.ProductStocktakeVarianceDto;
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import com.api.rest.conveniencestore.shared.enums.Category;
+import com.api.rest.conveniencestore.shared.enums.StockMovementType;
+import com.api.rest.conveniencestore.shared.utils.MessageConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductStocktakeServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ProductLotService productLotService;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private LowStockDetector lowStockDetector;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ProductStocktakeService stocktakeService;
+
+    @BeforeEach
+    void setUp() {
+        stocktakeService = new ProductStocktakeService(jdbcTemplate, transactionManager, new ProductChangeSequence(jdbcTemplate),
+                productLotService, stockLedger, lowStockDetector, eventPublisher, 1000, 3, 30);
+    }
+
+    private static ResultSet row(long id, String name, Category category, double price, int stock) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(id);
+        when(rs.getString("name")).thenReturn(name);
+        when(rs.getString("category")).thenReturn(category.name());
+        when(rs.getDouble("price")).thenReturn(price);
+        when(rs.getInt("stock_quantity")).thenReturn(stock);
+        return rs;
+    }
+
+    private void selectReturns(ResultSet... rows) {
+        when(jdbcTemplate.query(contains("SELECT id"), any(RowMapper.class), any(Object[].class))).thenAnswer(invocation -> {
+            RowMapper<?> mapper = invocation.getArgument(1);
+            List<Object> mapped = new ArrayList<>();
+            for (ResultSet rs : rows) {
+                mapped.add(mapper.mapRow(rs, 0));
+            }
+            return mapped;
+        });
+    }
+
+    private void updateReturns(int... counts) {
+        when(jdbcTemplate.batchUpdate(contains("UPDATE products"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenReturn(new int[][]{counts});
+    }
+
+    @Test
+    void submit_ShouldAdjustOnlyDifferencesAndReportVariance() throws Exception {
+        ResultSet water = row(1L, "Água", Category.BEVERAGE, 2.0, 10);
+        ResultSet bread = row(3L, "Pão", Category.FOOD, 10.0, 5);
+        selectReturns(water, bread);
+        updateReturns(1);
+
+        ProductStocktakeResultDto result = stocktakeService.submit(List.of(
+                new ProductStocktakeCountDto(3L, 5),
+                new ProductStocktakeCountDto(2L, 4),
+                new ProductStocktakeCountDto(1L, 7)));
+
+        assertThat(result.counted()).isEqualTo(3);
+        assertThat(result.adjusted()).isEqualTo(1);
+        assertThat(result.unitsVariance()).isEqualTo(-3);
+        assertThat(result.valueVariance()).isEqualTo(-6.0);
+        assertThat(result.variances()).containsExactly(
+                new ProductStocktakeVarianceDto(1L, "Água", Category.BEVERAGE, 10, 7, -3, -6.0));
+        assertThat(result.categories()).containsExactly(
+                new ProductStocktakeCategoryDto(Category.FOOD, 1, 0, 0.0),
+                new ProductStocktakeCategoryDto(Category.BEVERAGE, 1, -3, -6.0));
+        assertThat(result.errors()).containsExactly(
+                new ProductBulkUpdateErrorDto(2L, String.format(MessageConstants.PRODUCT_NOT_FOUND, 2L)));
+        verify(stockLedger).record(1L, StockMovementType.ADJUST, -3, 7, null);
+        verify(lowStockDetector).check(1L, "Água", Category.BEVERAGE, null, 10, 7);
+        verify(eventPublisher).publishEvent(new ProductCatalogChangedEvent(Set.of(1L)));
+    }
+
+    @Test
+    void submit_WhenStockChangedBeforeUpdate_ShouldReportConflict() throws Exception {
+        selectReturns(row(1L, "Água", Category.BEVERAGE, 2.0, 10));
+        updateReturns(0);
+
+        ProductStocktakeResultDto result = stocktakeService.submit(List.of(new ProductStocktakeCountDto(1L, 7)));
+
+        assertThat(result.adjusted()).isZero();
+        assertThat(result.variances()).isEmpty();
+        assertThat(result.errors()).containsExactly(new ProductBulkUpdateErrorDto(1L, MessageConstants.STOCKTAKE_STOCK_CHANGED));
+        verifyNoInteractions(stockLedger, eventPublisher);
+    }
+
+    @Test
+    void submit_WhenProductCountedTwice_ShouldRejectAllItsCounts() throws Exception {
+        selectReturns(row(1L, "Água", Category.BEVERAGE, 2.0, 10));
+
+        ProductStocktakeResultDto result = stocktakeService.submit(List.of(
+                new ProductStocktakeCountDto(2L, 4),
+                new ProductStocktakeCountDto(1L, 10),
+                new ProductStocktakeCountDto(2L, 6)));
+
+        assertThat(result.adjusted()).isZero();
+        assertThat(result.errors()).containsExactly(new ProductBulkUpdateErrorDto(2L, MessageConstants.STOCKTAKE_DUPLICATE_COUNT));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void submit_WhenProductIsLotTracked_ShouldReject() throws Exception {
+        selectReturns(row(1L, "Iogurte", Category.FOOD, 4.0, 10));
+        when(productLotService.isLotTracked(1L)).thenReturn(true);
+
+        ProductStocktakeResultDto result = stocktakeService.submit(List.of(new ProductStocktakeCountDto(1L, 3)));
+
+        assertThat(result.errors()).containsExactly(new ProductBulkUpdateErrorDto(1L, MessageConstants.PRODUCT_LOT_TRACKED_UPDATE));
+        assertThat(result.categories()).isEmpty();
+    }
+
+    @Test
+    void submit_WhenAboveLimit_ShouldThrow() {
+        List<ProductStocktakeCountDto> counts = List.of(
+                new ProductStocktakeCountDto(1L, 1), new ProductStocktakeCountDto(2L, 1),
+                new ProductStocktakeCountDto(3L, 1), new ProductStocktakeCountDto(4L, 1));
+
+        assertThatThrownBy(() -> stocktakeService.submit(counts))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,93 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.model.ProductVelocity;
+import com.api.rest.conveniencestore.product.repository.ProductVelocityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductVelocityTrackerTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Mock
+    private ProductVelocityRepository velocityRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private ProductVelocityTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new ProductVelocityTracker(velocityRepository, jdbcTemplate, 24);
+    }
+
+    @Test
+    void add_ShouldDecayByHalfAfterOneHalfLife() {
+        long start = 1_000 * HOUR;
+        tracker.add(1L, 10, start);
+        double initial = tracker.unitsPerHour(1L, start);
+
+        assertThat(tracker.unitsPerHour(1L, start + 24 * HOUR)).isCloseTo(initial / 2, within(1e-9));
+    }
+
+    @Test
+    void add_ShouldConvergeToSteadySalesRate() {
+        long now = 1_000 * HOUR;
+        // 2 unidades por hora durante 30 dias
+        for (int hour = 0; hour < 24 * 30; hour++) {
+            tracker.add(1L, 2, now + hour * HOUR);
+        }
+
+        assertThat(tracker.unitsPerHour(1L, now + 24 * 30 * HOUR)).isCloseTo(2.0, within(0.05));
+    }
+
+    @Test
+    void add_WhenSaleIsReversed_ShouldRemoveItsDecayedContribution() {
+        long start = 1_000 * HOUR;
+        tracker.add(1L, 4, start);
+        tracker.add(1L, 6, start + 5 * HOUR);
+        double withBoth = tracker.unitsPerHour(1L, start + 10 * HOUR);
+
+        tracker.add(1L, -4, start);
+
+        tracker.add(2L, 6, start + 5 * HOUR);
+        assertThat(tracker.unitsPerHour(1L, start + 10 * HOUR))
+                .isCloseTo(tracker.unitsPerHour(2L, start + 10 * HOUR), within(1e-9))
+                .isLessThan(withBoth);
+    }
+
+    @Test
+    void daysOfStockLeft_ShouldBeNullWithoutRecentSales() {
+        assertThat(tracker.daysOfStockLeft(99L, 50)).isNull();
+        assertThat(ProductVelocityTracker.daysOfStockLeft(1.0, 48)).isEqualTo(2.0);
+    }
+
+    @Test
+    void checkpoint_ShouldWriteOnlyChangedProducts() {
+        when(velocityRepository.findAll()).thenReturn(List.of(new ProductVelocity(7L, 1.5, LocalDateTime.now())));
+        tracker.restore();
+        tracker.add(1L, 3, System.currentTimeMillis());
+
+        tracker.checkpoint();
+        tracker.checkpoint();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), argThat((Collection<?> rows) -> rows.size() == 1),
+                eq(1), any(ParameterizedPreparedStatementSetter.class));
+        assertThat(tracker.unitsPerHour(7L)).isCloseTo(1.5, within(0.01));
+    }
+}
@@ -0,0 +1,217 @@
+package com.api.rest.conveniencestore.product.service;
+
+import com.api.rest.conveniencestore.product.dto.ProductStockAtDto;
+import com.api.rest.conveniencestore.product.model.StockMovement;
+import com.api.rest.conveniencestore.product.model.StockSnapshot;
+import com.api.rest.conveniencestore.product.repository.StockMovementRepository;
+import com.api.rest.conveniencestore.product.repository.StockSnapshotRepository;
+import com.api.rest.conveniencestore.shared.enums.StockMovementType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockLedgerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private StockMovementRepository movementRepository;
+
+    @Mock
+    private StockSnapshotRepository snapshotRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private StockLedger ledger;
+
+    private final List<Object> snapshotsWritten = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ledger = new StockLedger(jdbcTemplate, transactionTemplate, movementRepository, snapshotRepository, meterRegistry, 3, 3, 5);
+    }
+
+    private void runTransactions() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    private void recordWrites() {
+        runTransactions();
+        doAnswer(invocation -> {
+            if (invocation.<String>getArgument(0).contains("stock_snapshots")) {
+                snapshotsWritten.addAll(invocation.<Collection<?>>getArgument(1));
+            }
+            return new int[0][0];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void flush_ShouldWriteBufferedMovementsInOneBatchWithPeriodicSnapshots() {
+        recordWrites();
+        // primeira movimentação abre checkpoint; depois um a cada 3
+        ledger.record(1L, StockMovementType.SALE, -1, 99, 10L);
+        ledger.record(1L, StockMovementType.SALE, -1, 98, 11L);
+        ledger.record(1L, StockMovementType.SALE, -1, 97, 12L);
+        ledger.record(1L, StockMovementType.SALE, -1, 96, 13L);
+        ledger.record(2L, StockMovementType.IMPORT, 50, 50, null);
+        ledger.record(2L, StockMovementType.IMPORT, 60, 60, null);
+
+        assertThat(ledger.pendingCount()).isEqualTo(6);
+        ledger.flush();
+
+        assertThat(ledger.pendingCount()).isZero();
+        verify(jdbcTemplate).batchUpdate(contains("stock_movements"), argThat((Collection<?> rows) -> rows.size() == 6),
+                eq(6), any(ParameterizedPreparedStatementSetter.class));
+        assertThat(snapshotsWritten).extracting("stockQuantity").containsExactly(99, 96, 50, 60);
+    }
+
+    @Test
+    void flush_WhenDatabaseIsUnavailable_ShouldRetryBothBatchesInTheNextFlush() {
+        runTransactions();
+        List<Object> movementsWritten = new ArrayList<>();
+        doAnswer(invocation -> {
+            movementsWritten.addAll(invocation.<Collection<?>>getArgument(1));
+            return new int[0][0];
+        }).when(jdbcTemplate).batchUpdate(contains("stock_movements"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        doThrow(new TransientDataAccessResourceException("falha"))
+                .doAnswer(invocation -> {
+                    snapshotsWritten.addAll(invocation.<Collection<?>>getArgument(1));
+                    return new int[0][0];
+                })
+                .when(jdbcTemplate).batchUpdate(contains("stock_snapshots"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        ledger.record(1L, StockMovementType.SALE, -1, 99, 10L);
+        ledger.record(1L, StockMovementType.SALE, -1, 98, 11L);
+
+        ledger.flush();
+        // os dois lotes rodam na mesma transação: a falha devolve tudo ao buffer
+        assertThat(ledger.pendingCount()).isEqualTo(2);
+        movementsWritten.clear();
+
+        ledger.record(2L, StockMovementType.SALE, -1, 49, 12L);
+        ledger.flush();
+
+        assertThat(ledger.pendingCount()).isZero();
+        assertThat(movementsWritten).extracting("id").containsExactly(1L, 2L, 3L);
+        assertThat(snapshotsWritten).extracting("stockQuantity").containsExactly(99, 49);
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+    }
+
+    @Test
+    void flush_WhenOneRowIsRejected_ShouldWriteTheOthersAndDiscardItAfterMaxAttempts() {
+        runTransactions();
+        List<StockMovement> movementsWritten = new ArrayList<>();
+        // produto 3 excluído antes do flush: a FK recusa qualquer lote que o contenha
+        doAnswer(invocation -> {
+            Collection<StockMovement> rows = invocation.getArgument(1);
+            if (rows.stream().anyMatch(movement -> movement.getProductId() == 3L)) {
+                throw new DataIntegrityViolationException("foreign key constraint fails");
+            }
+            movementsWritten.addAll(rows);
+            return new int[0][0];
+        }).when(jdbcTemplate).batchUpdate(contains("stock_movements"), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        ledger.record(1L, StockMovementType.SALE, -1, 9, 10L);
+        ledger.record(2L, StockMovementType.SALE, -1, 9, 11L);
+        ledger.record(3L, StockMovementType.SALE, -1, 9, 12L);
+        ledger.record(4L, StockMovementType.SALE, -1, 9, 13L);
+
+        ledger.flush();
+
+        assertThat(movementsWritten).extracting("productId").containsExactly(1L, 2L, 4L);
+        assertThat(ledger.pendingCount()).isEqualTo(1);
+
+        ledger.record(5L, StockMovementType.SALE, -1, 9, 14L);
+        ledger.flush();
+        ledger.flush();
+
+        assertThat(movementsWritten).extracting("productId").containsExactly(1L, 2L, 4L, 5L);
+        assertThat(ledger.pendingCount()).isZero();
+        assertThat(meterRegistry.counter("stock.ledger.discarded").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void flush_WhenBufferExceedsMaxPending_ShouldDiscardTheOldestMovements() {
+        runTransactions();
+        doThrow(new TransientDataAccessResourceException("falha"))
+                .when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        for (long reference = 1; reference <= 7; reference++) {
+            ledger.record(1L, StockMovementType.SALE, -1, 9, reference);
+        }
+
+        ledger.flush();
+
+        assertThat(ledger.pendingCount()).isEqualTo(5);
+        assertThat(meterRegistry.counter("stock.ledger.discarded").count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void flush_WhenNothingPending_ShouldNotTouchTheDatabase() {
+        ledger.flush();
+
+        verifyNoInteractions(jdbcTemplate, transactionTemplate);
+    }
+
+    @Test
+    void stockAt_ShouldReplayMovementsAfterNearestSnapshot() {
+        LocalDateTime at = LocalDateTime.now();
+        when(snapshotRepository.findFirstByProductIdAndTakenAtLessThanEqualOrderByMovementIdDesc(1L, at))
+                .thenReturn(Optional.of(new StockSnapshot(1L, 10L, 40, at.minusHours(3))));
+        when(movementRepository.findByProductIdAndIdGreaterThanAndOccurredAtLessThanEqualOrderByIdAsc(1L, 10L, at))
+                .thenReturn(List.of(
+                        new StockMovement(11L, 1L, StockMovementType.SALE, -5, 7L, at.minusHours(2)),
+                        new StockMovement(12L, 1L, StockMovementType.CANCEL, 2, 7L, at.minusHours(1))));
+
+        ProductStockAtDto result = ledger.stockAt(1L, at, 0);
+
+        assertThat(result.stockQuantity()).isEqualTo(37);
+        assertThat(result.replayedMovements()).isEqualTo(2);
+    }
+
+    @Test
+    void stockAt_WhenBeforeFirstMovement_ShouldUndoIt() {
+        LocalDateTime at = LocalDateTime.now().minusDays(1);
+        when(snapshotRepository.findFirstByProductIdAndTakenAtLessThanEqualOrderByMovementIdDesc(1L, at)).thenReturn(Optional.empty());
+        when(snapshotRepository.findFirstByProductIdOrderByMovementIdAsc(1L))
+                .thenReturn(Optional.of(new StockSnapshot(1L, 5L, 98, at.plusHours(1))));
+        when(movementRepository.findById(5L))
+                .thenReturn(Optional.of(new StockMovement(5L, 1L, StockMovementType.SALE, -2, 3L, at.plusHours(1))));
+
+        assertThat(ledger.stockAt(1L, at, 90).stockQuantity()).isEqualTo(100);
+    }
+
+    @Test
+    void stockAt_WhenProductHasNoHistory_ShouldReturnCurrentStock() {
+        LocalDateTime at = LocalDateTime.now();
+        when(snapshotRepository.findFirstByProductIdAndTakenAtLessThanEqualOrderByMovementIdDesc(1L, at)).thenReturn(Optional.empty());
+        when(snapshotRepository.findFirstByProductIdOrderByMovementIdAsc(1L)).thenReturn(Optional.empty());
+
+        assertThat(ledger.stockAt(1L, at, 90).stockQuantity()).isEqualTo(90);
+    }
+}
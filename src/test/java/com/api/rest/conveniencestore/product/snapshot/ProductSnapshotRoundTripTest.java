@@ -0,0 +1,97 @@
+package com.api.rest.conveniencestore.product.snapshot;
+
+import com.api.rest.conveniencestore.product.dto.ProductChangeDto;
+import com.api.rest.conveniencestore.product.dto.ProductListingDto;
+import com.api.rest.conveniencestore.shared.enums.Category;
+import com.api.rest.conveniencestore.shared.enums.Status;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class ProductSnapshotRoundTripTest {
+
+    private static List<ProductChangeDto> catalog(int size) {
+        Category[] categories = Category.values();
+        List<ProductChangeDto> products = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            products.add(new ProductChangeDto((long) i, "Produto número " + i, categories[i % categories.length],
+                    i * 1.25, i % 300, i % 5 == 0 ? null : LocalDate.of(2027, 1, 1).plusDays(i % 400),
+                    i % 7 == 0 ? Status.INACTIVE : Status.ACTIVE, i));
+        }
+        return products;
+    }
+
+    @Test
+    void readerShouldRestoreWhatTheWriterWrote() {
+        List<ProductChangeDto> products = List.of(
+                new ProductChangeDto(1L, "Pão de queijo", Category.FOOD, 7.49, 12, LocalDate.of(2026, 11, 30), Status.ACTIVE, 3),
+                new ProductChangeDto(2L, "Gasolina", Category.FUEL, 6.2, 1000, null, Status.REGISTERED, 4),
+                new ProductChangeDto(3L, "Água", Category.BEVERAGE, 2.0, 0, null, null, 5));
+
+        ProductSnapshot snapshot = ProductSnapshotReader.read(ProductSnapshotWriter.write(99L, products));
+
+        assertThat(snapshot.token()).isEqualTo(99L);
+        assertThat(snapshot.products()).containsExactly(
+                new ProductSnapshotEntry(1L, "Pão de queijo", Category.FOOD, 749, 12, LocalDate.of(2026, 11, 30), Status.ACTIVE),
+                new ProductSnapshotEntry(2L, "Gasolina", Category.FUEL, 620, 1000, null, Status.REGISTERED),
+                new ProductSnapshotEntry(3L, "Água", Category.BEVERAGE, 200, 0, null, null));
+    }
+
+    @Test
+    void readerShouldRestorePricesAboveTheIntRangeInCents() {
+        // 30 milhões = 3 bilhões de centavos, acima de Integer.MAX_VALUE
+        List<ProductChangeDto> products = List.of(
+                new ProductChangeDto(1L, "Caminhão-tanque", Category.FUEL, 30_000_000.55, 1, null, Status.ACTIVE, 1));
+
+        ProductSnapshot snapshot = ProductSnapshotReader.read(ProductSnapshotWriter.write(1L, products));
+
+        assertThat(snapshot.products().get(0).priceCents()).isEqualTo(3_000_000_055L);
+    }
+
+    @Test
+    void readerShouldAcceptGzippedBody() {
+        ByteBuffer raw = ProductSnapshotWriter.write(7L, catalog(50));
+
+        ProductSnapshot snapshot = ProductSnapshotReader.read(ProductSnapshotWriter.gzip(raw));
+
+        assertThat(snapshot.products()).hasSize(50);
+        assertThat(snapshot.products().get(49).name()).isEqualTo("Produto número 50");
+    }
+
+    @Test
+    void emptyCatalogShouldRoundTrip() {
+        ProductSnapshot snapshot = ProductSnapshotReader.read(ProductSnapshotWriter.write(0L, List.of()));
+
+        assertThat(snapshot.products()).isEmpty();
+    }
+
+    @Test
+    void readerShouldRejectForeignData() {
+        assertThatThrownBy(() -> ProductSnapshotReader.read("{\"content\":[]}".getBytes()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void gzippedSnapshotShouldBeAtLeastFiveTimesSmallerThanJsonListing() throws Exception {
+        List<ProductChangeDto> products = catalog(5000);
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        List<ProductListingDto> listing = products.stream()
+                .map(p -> new ProductListingDto(p.id(), p.name(), p.category(), p.price(), p.stockQuantity(),
+                        p.expirationDate() != null ? p.expirationDate().toString() : "N/A", null))
+                .toList();
+        int jsonBytes = mapper.writeValueAsBytes(listing).length;
+
+        ByteBuffer raw = ProductSnapshotWriter.write(1L, products);
+        int gzipBytes = ProductSnapshotWriter.gzip(raw).length;
+
+        assertThat(raw.remaining()).isLessThan(jsonBytes / 2);
+        assertThat(gzipBytes * 5).isLessThan(jsonBytes);
+    }
+}
@@ -6,6 +6,7 @@ import com.api.rest.conveniencestore.sale.dto.SaleDto;
 import com.api.rest.conveniencestore.shared.enums.Category;
 import com.api.rest.conveniencestore.shared.enums.PaymentMethod;
 import com.api.rest.conveniencestore.shared.enums.Status;
+import com.api.rest.conveniencestore.shared.exception.ProductDateInvalidException;
 import com.api.rest.conveniencestore.shared.exception.ProductInactiveException;
 import com.api.rest.conveniencestore.shared.exception.ProductInsufficientStockException;
 import com.api.rest.conveniencestore.shared.exception.ProductNotFoundException;
@@ -19,6 +20,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -107,6 +109,16 @@ class SaleHelperTest {
                 .isInstanceOf(ProductInactiveException.class);
     }
 
+    @Test
+    void validationProduct_WhenExpired_ShouldThrow() {
+        ReflectionTestUtils.setField(product, "expirationDate", LocalDate.now().minusDays(1));
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+
+        assertThatThrownBy(() -> saleHelper.validationProduct(1L, 1))
+                .isInstanceOf(ProductDateInvalidException.class);
+    }
+
     @Test
     void validationProduct_WhenInsufficientStock_ShouldThrow() {
         when(productRepository.existsById(1L)).thenReturn(true);
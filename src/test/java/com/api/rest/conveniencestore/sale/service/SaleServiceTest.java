@@ -7,14 +7,21 @@ import com.api.rest.conveniencestore.sale.dto.SaleListingDto;
 import com.api.rest.conveniencestore.shared.enums.Category;
 import com.api.rest.conveniencestore.shared.enums.PaymentMethod;
 import com.api.rest.conveniencestore.shared.enums.Status;
+import com.api.rest.conveniencestore.shared.enums.StockMovementType;
 import com.api.rest.conveniencestore.shared.exception.ClientCpfNotFoundException;
 import com.api.rest.conveniencestore.client.model.Client;
+import com.api.rest.conveniencestore.product.event.ProductCatalogChangedEvent;
+import com.api.rest.conveniencestore.product.event.ProductStockChangedEvent;
 import com.api.rest.conveniencestore.product.model.Product;
 import com.api.rest.conveniencestore.sale.model.Sale;
 import com.api.rest.conveniencestore.user.model.User;
 import com.api.rest.conveniencestore.sale.model.SaleItem;
 import com.api.rest.conveniencestore.client.repository.ClientRepository;
 import com.api.rest.conveniencestore.product.repository.ProductRepository;
+import com.api.rest.conveniencestore.product.service.LowStockDetector;
+import com.api.rest.conveniencestore.product.service.ProductLotService;
+import com.api.rest.conveniencestore.product.service.ProductVelocityTracker;
+import com.api.rest.conveniencestore.product.service.StockLedger;
 import com.api.rest.conveniencestore.sale.repository.SaleItemRepository;
 import com.api.rest.conveniencestore.sale.repository.SaleRepository;
 import com.api.rest.conveniencestore.loyalty.service.LoyaltyService;
@@ -24,6 +31,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -36,7 +44,9 @@ import org.springframework.data.domain.Pageable;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -60,6 +70,21 @@ class SaleServiceTest {
     @Mock
     private LoyaltyService loyaltyService;
 
+    @Mock
+    private LowStockDetector lowStockDetector;
+
+    @Mock
+    private StockLedger stockLedger;
+
+    @Mock
+    private ProductVelocityTracker velocityTracker;
+
+    @Mock
+    private ProductLotService productLotService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private SaleService saleService;
 
@@ -101,7 +126,40 @@ class SaleServiceTest {
         assertThat(result).isNotNull();
         assertThat(product.getStockQuantity()).isEqualTo(98); // 100 - 2 vendidos
         verify(productRepository).save(any(Product.class));
+        verify(lowStockDetector).check(product, 100);
+        verify(stockLedger).record(eq(1L), eq(StockMovementType.SALE), eq(-2), eq(98), any());
+        verify(velocityTracker).recordSale(1L, 2);
+        verify(productLotService).consume(any(), eq(product), eq(2));
         verify(saleRepository, atLeastOnce()).save(any(Sale.class));
+        // só estoque mudou: nenhum índice do catálogo é relido
+        verify(eventPublisher).publishEvent(new ProductStockChangedEvent(Map.of(1L, 98)));
+        verify(eventPublisher, never()).publishEvent(any(ProductCatalogChangedEvent.class));
+    }
+
+    @Test
+    void registerSale_WhenLotRunsOutAndExpirationChanges_ShouldPublishCatalogChange() throws Exception {
+        User mockUser = mock(User.class);
+        when(mockUser.getUsername()).thenReturn("testuser");
+        Authentication authentication = mock(Authentication.class);
+        when(authentication.getPrincipal()).thenReturn(mockUser);
+        SecurityContext securityContext = mock(SecurityContext.class);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        SecurityContextHolder.setContext(securityContext);
+
+        SaleDto dto = new SaleDto(List.of(1L), List.of(2), PaymentMethod.CASH, "123.456.789-09", null);
+        when(clientRepository.findByCpf("123.456.789-09")).thenReturn(Optional.of(client));
+        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productRepository.existsById(1L)).thenReturn(true);
+        when(saleRepository.save(any(Sale.class))).thenReturn(sale);
+        doAnswer(invocation -> {
+            product.setExpirationDate(LocalDate.now().plusDays(60));
+            return null;
+        }).when(productLotService).consume(any(), eq(product), eq(2));
+
+        saleService.registerSale(dto);
+
+        verify(eventPublisher).publishEvent(new ProductStockChangedEvent(Map.of(1L, 98)));
+        verify(eventPublisher).publishEvent(new ProductCatalogChangedEvent(Set.of(1L)));
     }
 
     @Test
@@ -158,6 +216,11 @@ class SaleServiceTest {
         assertThat(product.getStockQuantity()).isEqualTo(100); // 98 + 2 restaurados
         verify(productRepository).save(product);
         verify(saleRepository).save(sale);
+        verify(eventPublisher).publishEvent(new ProductStockChangedEvent(Map.of(1L, 100)));
+        verify(eventPublisher, never()).publishEvent(any(ProductCatalogChangedEvent.class));
+        verify(stockLedger).record(1L, StockMovementType.CANCEL, 2, 100, 1L);
+        verify(velocityTracker).reverseSale(1L, 2, sale.getSaleDate());
+        verify(productLotService).release(1L, product);
     }
 
     @Test
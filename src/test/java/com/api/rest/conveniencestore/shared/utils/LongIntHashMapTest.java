@@ -0,0 +1,56 @@
+package com.api.rest.conveniencestore.shared.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class LongIntHashMapTest {
+
+    @Test
+    void put_ShouldStoreAndOverwriteValues() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(7891000100103L, 1);
+        map.put(7891000100103L, 2);
+
+        assertThat(map.get(7891000100103L, -1)).isEqualTo(2);
+        assertThat(map.get(42L, -1)).isEqualTo(-1);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void put_WithZeroKey_ShouldBeSupported() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(0L, 5);
+
+        assertThat(map.containsKey(0L)).isTrue();
+        assertThat(map.get(0L, -1)).isEqualTo(5);
+        assertThat(map.remove(0L)).isTrue();
+        assertThat(map.containsKey(0L)).isFalse();
+    }
+
+    @Test
+    void operations_ShouldMatchHashMapUnderRandomWorkload() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertThat(map.remove(key)).isEqualTo(expected.remove(key) != null);
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 0; key < 5_000; key++) {
+            assertThat(map.get(key, -1)).isEqualTo(expected.getOrDefault(key, -1));
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.api.rest.conveniencestore.shared.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.*;
+
+class TimingWheelTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long HOUR = 60 * MINUTE;
+
+    @Test
+    void advance_ShouldFireOnlyDueIds() {
+        TimingWheel wheel = new TimingWheel(MINUTE, new int[]{60, 48}, 0);
+        wheel.add(1L, 5 * MINUTE);
+        wheel.add(2L, 3 * HOUR + 10 * MINUTE);
+        List<Long> fired = new ArrayList<>();
+
+        wheel.advance(5 * MINUTE, fired::add);
+        assertThat(fired).containsExactly(1L);
+
+        // o id 2 estava no nível das horas e desce para o dos minutos ao chegar a sua hora
+        wheel.advance(3 * HOUR + 9 * MINUTE, fired::add);
+        assertThat(fired).containsExactly(1L);
+        wheel.advance(3 * HOUR + 10 * MINUTE, fired::add);
+        assertThat(fired).containsExactly(1L, 2L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advance_WhenDeadlineIsMidTick_ShouldNotFireBeforeIt() {
+        TimingWheel wheel = new TimingWheel(MINUTE, new int[]{60, 48}, 0);
+        wheel.add(1L, 5 * MINUTE + 30_000);
+        List<Long> fired = new ArrayList<>();
+
+        wheel.advance(5 * MINUTE + 40_000, fired::add);
+        assertThat(fired).isEmpty();
+
+        wheel.advance(6 * MINUTE, fired::add);
+        assertThat(fired).containsExactly(1L);
+    }
+
+    @Test
+    void add_WhenOverdue_ShouldFireOnNextAdvance() {
+        TimingWheel wheel = new TimingWheel(MINUTE, new int[]{60, 48}, 10 * HOUR);
+        wheel.add(7L, HOUR);
+        List<Long> fired = new ArrayList<>();
+
+        wheel.advance(10 * HOUR, fired::add);
+
+        assertThat(fired).containsExactly(7L);
+    }
+
+    @Test
+    void add_WhenBeyondHorizon_ShouldRefuse() {
+        TimingWheel wheel = new TimingWheel(MINUTE, new int[]{60, 48}, 0);
+
+        // arredondado para cima, um prazo no meio do último minuto já cai fora da roda
+        assertThat(wheel.horizonMillis()).isEqualTo(48 * HOUR - MINUTE + 1);
+        assertThat(wheel.add(1L, 48 * HOUR - MINUTE + 1)).isFalse();
+        assertThat(wheel.add(2L, 48 * HOUR - MINUTE)).isTrue();
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    @Test
+    void advance_ShouldFireEveryIdAtItsTickUnderRandomWorkload() {
+        Random random = new Random(42);
+        long start = 1_700_000_000_000L;
+        TimingWheel wheel = new TimingWheel(MINUTE, new int[]{60, 24, 2}, start);
+        Map<Long, Long> deadlines = new HashMap<>();
+        long now = start;
+        long nextId = 1;
+
+        while (now < start + 96 * HOUR) {
+            for (int i = 0; i < 5; i++) {
+                long deadline = now + (long) (random.nextDouble() * (wheel.horizonMillis() - now));
+                if (wheel.add(nextId, deadline)) {
+                    deadlines.put(nextId, deadline);
+                }
+                nextId++;
+            }
+            now += random.nextInt(90) * MINUTE;
+            long tick = now / MINUTE;
+            List<Long> fired = new ArrayList<>();
+            wheel.advance(now, fired::add);
+            for (long id : fired) {
+                assertThat(deadlines.remove(id)).isLessThanOrEqualTo(now);
+            }
+            assertThat(deadlines.values()).allMatch(deadline -> ceilTick(deadline) > tick);
+        }
+        assertThat(wheel.size()).isEqualTo(deadlines.size());
+    }
+
+    private static long ceilTick(long millis) {
+        return (millis + MINUTE - 1) / MINUTE;
+    }
+}
@@ -0,0 +1,46 @@
+package com.api.rest.conveniencestore.shared.validation;
+
+import com.api.rest.conveniencestore.shared.exception.ProductBarcodeInvalidException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.*;
+
+class BarcodeValidatorTest {
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "7891000100103",    // EAN-13
+            "96385074",         // EAN-8
+            "036000291452",     // UPC-A
+            "10012345678902"    // GTIN-14
+    })
+    void parseBarcode_WhenValidGtin_ShouldReturnNumericCode(String code) {
+        assertThat(BarcodeValidator.parseBarcode(code)).isEqualTo(Long.parseLong(code));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "1234567890",       // 10 dígitos
+            "12345",            // curto demais
+            "78910001001AB",    // letras
+            ""                  // vazio
+    })
+    void parseBarcode_WhenInvalidFormat_ShouldThrow(String code) {
+        assertThatThrownBy(() -> BarcodeValidator.parseBarcode(code))
+                .isInstanceOf(ProductBarcodeInvalidException.class);
+    }
+
+    @Test
+    void parseBarcode_WhenCheckDigitIsWrong_ShouldThrow() {
+        assertThatThrownBy(() -> BarcodeValidator.parseBarcode("7891000100104"))
+                .isInstanceOf(ProductBarcodeInvalidException.class)
+                .hasMessageContaining("verificador");
+    }
+
+    @Test
+    void formatBarcode_ShouldPadToThirteenDigits() {
+        assertThat(BarcodeValidator.formatBarcode(36000291452L)).isEqualTo("0036000291452");
+    }
+}